@@ -1,277 +1,273 @@
 package com.tablelineagebuilder;
 
-import com.tablelineagebuilder.agent.QueryExtractorAgent;
-import com.tablelineagebuilder.agent.TableAnalyzerAgent;
-import com.tablelineagebuilder.model.QueryInfo;
-import com.tablelineagebuilder.model.TableLineage;
-import com.tablelineagebuilder.repository.TableLineageRepository;
+import com.tablelineagebuilder.cache.LineageCache;
+import com.tablelineagebuilder.client.AdaptiveConcurrencyLimiter;
+import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.config.RunOptions;
+import com.tablelineagebuilder.discovery.SourceWalker;
+import com.tablelineagebuilder.pipeline.LineagePipeline;
+import com.tablelineagebuilder.report.ResultReport;
+import com.tablelineagebuilder.report.RunSummary;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.PrintWriter;
-import java.sql.SQLException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 테이블 계보 구축 메인 클래스
  *
- * 실행 흐름:
- * 1. 파일 경로 입력받기 (단일 파일 또는 파일 목록)
- * 2. QueryExtractorAgent로 SQL 쿼리 추출
- * 3. TableAnalyzerAgent로 테이블 계보 분석 (LLM 사용)
- * 4. TableLineageRepository로 DB에 저장
+ * 실행 흐름 (LineagePipeline의 각 단계가 동시에 진행됨):
+ * 1. 파일 경로 입력받기 (단일 파일, 파일 목록 또는 디렉토리 탐색)
+ * 2. QueryExtractorAgent로 SQL 쿼리 추출 (--extract-threads)
+ * 3. TableAnalyzerAgent로 테이블 계보 분석 (LLM 사용, --concurrency 개까지 동시 호출)
+ * 4. TableLineageRepository로 DB에 저장 (파일 단위, --writer-threads)
  *
  * 사용법:
  * - 단일 파일: java -jar table-lineage-builder.jar script.sql
  * - 파일 목록: java -jar table-lineage-builder.jar --list file_list.txt
+ * - 디렉토리: java -jar table-lineage-builder.jar --root /repo/batch --include "*.sql,*.hql"
+ * - 동시 분석: java -jar table-lineage-builder.jar --concurrency 8 --list file_list.txt
+ * - 캐시 무시: java -jar table-lineage-builder.jar --no-cache --list file_list.txt
+ * - 중단 후 재개: java -jar table-lineage-builder.jar --resume --list file_list.txt
+ * - 변경된 파일만: java -jar table-lineage-builder.jar --incremental --list file_list.txt
  */
 public class TableLineageBuilderMain {
 
     public static void main(String[] args) {
         if (args.length == 0) {
-            System.out.println("사용법:");
-            System.out.println("  단일 파일: java -jar table-lineage-builder.jar <파일경로>");
-            System.out.println("  파일 목록: java -jar table-lineage-builder.jar --list <목록파일>");
-            System.out.println();
-            System.out.println("예제:");
-            System.out.println("  java -jar table-lineage-builder.jar /path/to/sql/file.sql");
-            System.out.println("  java -jar table-lineage-builder.jar --list file_list.txt");
+            printUsage();
+            return;
+        }
+
+        RunOptions options;
+        try {
+            options = RunOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
             return;
         }
 
-        List<String> filePaths = new ArrayList<>();
+        List<String> filePaths = new ArrayList<>(options.getFilePaths());
 
         // --list 옵션: 파일 목록 읽기
-        if (args.length >= 2 && "--list".equals(args[0])) {
-            String listFilePath = args[1];
-            filePaths = readFileList(listFilePath);
-            if (filePaths.isEmpty()) {
+        if (options.getListFilePath() != null) {
+            String listFilePath = options.getListFilePath();
+            List<String> listed = readFileList(listFilePath);
+            if (listed.isEmpty()) {
                 System.err.println("파일 목록이 비어있거나 읽을 수 없습니다: " + listFilePath);
                 return;
             }
-        } else {
-            // 단일 파일 모드
-            filePaths.add(args[0]);
+            filePaths.addAll(listed);
         }
 
         System.out.println("=== 테이블 계보 추출 시작 ===");
-        System.out.println("처리할 파일 개수: " + filePaths.size());
+        if (options.getRootDirectory() == null) {
+            System.out.println("처리할 파일 개수: " + filePaths.size());
+        } else {
+            System.out.println("디렉토리 탐색: " + options.getRootDirectory() + " (찾는 대로 처리" +
+                (filePaths.isEmpty() ? "" : ", 지정한 파일 " + filePaths.size() + "개 먼저") + ")");
+        }
+        System.out.println("스레드 수: 추출 " + options.getExtractThreads() +
+            ", 분석(동시 LLM 호출) " + options.getConcurrency() +
+            ", 저장 " + options.getWriterThreads());
         System.out.println();
 
-        TableLineageRepository repository = null;
-        PrintWriter reportWriter = null;
+        ResultReport report = null;
+        LineagePipeline pipeline = null;
+        SourceWalker walker = null;
+        LineageCache cache = LineageCache.initShared(options.isCacheEnabled(), options.isInvalidateCache());
 
         try {
             // 결과 리포트 파일 생성
-            String reportFileName = "result_report_" +
-                new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".txt";
-            reportWriter = new PrintWriter(new BufferedWriter(new FileWriter(reportFileName)));
-
-            reportWriter.println("================================================================================");
-            reportWriter.println("                     테이블 계보 추출 작업 결과 보고서");
-            reportWriter.println("================================================================================");
-            reportWriter.println("작업 시작 시간: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            reportWriter.println("총 대상 파일: " + filePaths.size() + "개");
-            reportWriter.println("================================================================================");
-            reportWriter.println();
-
-            repository = new TableLineageRepository();
-            QueryExtractorAgent extractor = new QueryExtractorAgent();
-            TableAnalyzerAgent analyzer = new TableAnalyzerAgent();
-
-            int totalFilesProcessed = 0;
-            int totalFilesSkipped = 0;
-            int totalFilesError = 0;
-            int totalQueriesProcessed = 0;
-            int totalLineagesSaved = 0;
-
-            List<String> skippedFiles = new ArrayList<>();
-            List<String> errorFiles = new ArrayList<>();
-
-            // 각 파일 순차 처리
-            for (int fileIndex = 0; fileIndex < filePaths.size(); fileIndex++) {
-                String filePath = filePaths.get(fileIndex);
-                File file = new File(filePath);
-
-                System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                System.out.println("파일 [" + (fileIndex + 1) + "/" + filePaths.size() + "]: " + filePath);
-                System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-
-                reportWriter.println("--------------------------------------------------------------------------------");
-                reportWriter.println("[" + (fileIndex + 1) + "/" + filePaths.size() + "] " + filePath);
-                reportWriter.println("--------------------------------------------------------------------------------");
-
-                if (!file.exists()) {
-                    System.err.println("⚠ 파일을 찾을 수 없습니다. 건너뜁니다.");
-                    System.out.println();
-
-                    reportWriter.println("상태: SKIP (파일 없음)");
-                    reportWriter.println();
-
-                    totalFilesSkipped++;
-                    skippedFiles.add(filePath);
-                    continue;
-                }
-
-                try {
-                    // 1. 쿼리 추출
-                    System.out.println("[1단계] 쿼리 추출 중...");
-                    List<QueryInfo> queries = extractor.extractQueries(filePath);
-                    System.out.println("추출된 쿼리 개수: " + queries.size());
-
-                    // 계보 분석이 필요한 쿼리만 필터링
-                    List<QueryInfo> analyzeQueries = new ArrayList<>();
-                    int skippedQueryCount = 0;
-                    for (QueryInfo query : queries) {
-                        if (query.needsLineageAnalysis()) {
-                            analyzeQueries.add(query);
-                        } else {
-                            skippedQueryCount++;
-                        }
-                    }
-
-                    System.out.println("분석 대상 쿼리: " + analyzeQueries.size() + "개 (건너뜀: " + skippedQueryCount + "개)");
-                    System.out.println();
-
-                    reportWriter.println("추출된 쿼리 개수: " + queries.size());
-                    reportWriter.println("분석 대상 쿼리: " + analyzeQueries.size() + "개");
-                    reportWriter.println("건너뛴 쿼리 (DELETE/SET 등): " + skippedQueryCount + "개");
-
-                    if (analyzeQueries.isEmpty()) {
-                        System.out.println("⚠ 분석할 쿼리가 없습니다. 다음 파일로 이동합니다.");
-                        System.out.println();
-
-                        reportWriter.println("상태: SKIP (분석 대상 없음)");
-                        reportWriter.println();
-
-                        totalFilesSkipped++;
-                        skippedFiles.add(filePath);
-                        continue;
-                    }
-
-                    // 2. 테이블 분석 (필터링된 쿼리만)
-                    System.out.println("[2단계] 테이블 계보 분석 중...");
-                    List<TableLineage> allLineages = new ArrayList<>();
-
-                    for (int i = 0; i < analyzeQueries.size(); i++) {
-                        QueryInfo query = analyzeQueries.get(i);
-                        System.out.println("  (" + (i + 1) + "/" + analyzeQueries.size() + ") 분석 중...");
-
-                        List<TableLineage> lineages = analyzer.analyze(query);
-                        allLineages.addAll(lineages);
+            report = new ResultReport();
+            RunSummary summary = new RunSummary();
+            pipeline = new LineagePipeline(options, report, summary);
+
+            if (options.getRootDirectory() == null) {
+                report.writeHeader(filePaths.size());
+                pipeline.run(filePaths);
+            } else {
+                // 탐색이 끝나기 전에 찾은 파일부터 처리 (전체 개수는 탐색이 끝난 뒤 확정)
+                report.writeHeader(-1);
+                walker = SourceWalker.start(options.getRootDirectory(), options.getIncludePatterns(), options.getExcludePatterns());
+                Stream<String> discovered = StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(walker, Spliterator.ORDERED | Spliterator.NONNULL), false);
+                Iterator<String> inputs = Stream.concat(filePaths.stream(), discovered).iterator();
+                pipeline.run(inputs, -1);
+            }
 
-                        // 분석 결과 출력
-                        for (TableLineage lineage : lineages) {
-                            String relation = lineage.getSourceTable() + " → " + lineage.getTargetTable();
-                            System.out.println("    -> " + relation);
-                            reportWriter.println("  계보: " + relation);
-                        }
-                    }
+            // 최종 요약 (콘솔)
+            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            System.out.println("=== 전체 처리 완료 ===");
+            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            System.out.println("처리 성공: " + summary.getFilesProcessed() + "개");
+            System.out.println("건너뜀: " + summary.getFilesSkipped() + "개");
+            System.out.println("오류: " + summary.getFilesError() + "개");
+            if (summary.getFilesUnchanged() > 0) {
+                System.out.println("변경 없음: " + summary.getFilesUnchanged() + "개");
+            }
+            System.out.println("총 파일: " + summary.getTotalFiles() + "개");
+            System.out.println("처리된 쿼리: " + summary.getQueriesProcessed() + "개");
+            System.out.println("저장된 계보: " + summary.getLineagesSaved() + "개");
+            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
 
-                    System.out.println("이 파일의 추출된 계보: " + allLineages.size() + "개");
-                    System.out.println();
+            // 디렉토리 탐색 통계
+            List<String> discoveryStats = walker == null ? new ArrayList<>() : walker.describe();
+            for (String line : discoveryStats) {
+                System.out.println("🔎 " + line);
+            }
 
-                    // 3. DB 저장
-                    System.out.println("[3단계] 데이터베이스 저장 중...");
-                    repository.saveAll(allLineages);
-                    int savedCount = allLineages.size();
+            // LLM 동시 호출 제어 상태
+            List<String> limiterStats = describeConcurrencyLimiter();
+            for (String line : limiterStats) {
+                System.out.println(line);
+            }
 
-                    System.out.println("✓ 저장 완료: " + savedCount + "개");
-                    System.out.println();
+            // 건너뛴 쿼리 통계
+            List<String> skipStats = pipeline.describeSkippedQueries();
+            for (String line : skipStats) {
+                System.out.println("⏭️  " + line);
+            }
 
-                    reportWriter.println("저장된 계보: " + savedCount + "개");
-                    reportWriter.println("상태: SUCCESS");
-                    reportWriter.println();
+            // 분석 경로 통계
+            List<String> analysisStats = pipeline.describeAnalysis();
+            for (String line : analysisStats) {
+                System.out.println("⚡ " + line);
+            }
 
-                    totalFilesProcessed++;
-                    totalQueriesProcessed += analyzeQueries.size();
-                    totalLineagesSaved += savedCount;
+            // 크기별 모델 라우팅 통계
+            List<String> routingStats = pipeline.describeModelRouting();
+            for (String line : routingStats) {
+                System.out.println("🧭 " + line);
+            }
 
-                } catch (Exception e) {
-                    System.err.println("✗ 파일 처리 중 오류 발생: " + e.getMessage());
-                    e.printStackTrace();
-                    System.out.println();
+            // SQL 지문 중복 제거 통계
+            List<String> dedupStats = pipeline.describeDeduplication();
+            for (String line : dedupStats) {
+                System.out.println("🔁 " + line);
+            }
 
-                    reportWriter.println("상태: ERROR");
-                    reportWriter.println("오류 메시지: " + e.getMessage());
-                    reportWriter.println();
+            // LLM 결과 캐시 통계
+            List<String> cacheStats = cache.describe();
+            for (String line : cacheStats) {
+                System.out.println("💾 " + line);
+            }
 
-                    totalFilesError++;
-                    errorFiles.add(filePath + " (" + e.getMessage() + ")");
-                }
+            // 체크포인트 저널 통계
+            List<String> checkpointStats = pipeline.describeCheckpoint();
+            for (String line : checkpointStats) {
+                System.out.println("📝 " + line);
             }
 
-            // 최종 요약 (콘솔)
-            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            System.out.println("=== 전체 처리 완료 ===");
-            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            System.out.println("처리 성공: " + totalFilesProcessed + "개");
-            System.out.println("건너뜀: " + totalFilesSkipped + "개");
-            System.out.println("오류: " + totalFilesError + "개");
-            System.out.println("총 파일: " + filePaths.size() + "개");
-            System.out.println("처리된 쿼리: " + totalQueriesProcessed + "개");
-            System.out.println("저장된 계보: " + totalLineagesSaved + "개");
-            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            // 파일 지문 목록 통계
+            List<String> manifestStats = pipeline.describeManifest();
+            for (String line : manifestStats) {
+                System.out.println("🗂️  " + line);
+            }
 
             // 최종 요약 (리포트 파일)
-            reportWriter.println("================================================================================");
-            reportWriter.println("                           전체 작업 요약");
-            reportWriter.println("================================================================================");
-            reportWriter.println("작업 종료 시간: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            reportWriter.println();
-            reportWriter.println("총 대상 파일: " + filePaths.size() + "개");
-            reportWriter.println("  - 처리 성공: " + totalFilesProcessed + "개");
-            reportWriter.println("  - 건너뜀: " + totalFilesSkipped + "개");
-            reportWriter.println("  - 오류: " + totalFilesError + "개");
-            reportWriter.println();
-            reportWriter.println("처리된 쿼리 수: " + totalQueriesProcessed + "개");
-            reportWriter.println("저장된 계보 수: " + totalLineagesSaved + "개");
-            reportWriter.println("================================================================================");
-
-            // 건너뛴 파일 상세 정보
-            if (!skippedFiles.isEmpty()) {
-                reportWriter.println();
-                reportWriter.println("[ 건너뛴 파일 목록 ]");
-                reportWriter.println("--------------------------------------------------------------------------------");
-                for (String skipped : skippedFiles) {
-                    reportWriter.println("  - " + skipped);
-                }
+            report.writeSummary(summary);
+            if (!discoveryStats.isEmpty()) {
+                report.writeSection("디렉토리 탐색", discoveryStats);
             }
-
-            // 오류 발생 파일 상세 정보
-            if (!errorFiles.isEmpty()) {
-                reportWriter.println();
-                reportWriter.println("[ 오류 발생 파일 목록 ]");
-                reportWriter.println("--------------------------------------------------------------------------------");
-                for (String error : errorFiles) {
-                    reportWriter.println("  - " + error);
-                }
+            if (!limiterStats.isEmpty()) {
+                report.writeSection("LLM 동시 호출 제어", limiterStats);
             }
-
-            reportWriter.println();
-            reportWriter.println("================================================================================");
-            reportWriter.println("리포트 종료");
-            reportWriter.println("================================================================================");
+            if (!skipStats.isEmpty()) {
+                report.writeSection("건너뛴 쿼리", skipStats);
+            }
+            if (!analysisStats.isEmpty()) {
+                report.writeSection("분석 경로", analysisStats);
+            }
+            if (!routingStats.isEmpty()) {
+                report.writeSection("모델 라우팅", routingStats);
+            }
+            if (!dedupStats.isEmpty()) {
+                report.writeSection("SQL 지문 중복 제거", dedupStats);
+            }
+            if (!cacheStats.isEmpty()) {
+                report.writeSection("LLM 결과 캐시", cacheStats);
+            }
+            if (!checkpointStats.isEmpty()) {
+                report.writeSection("체크포인트", checkpointStats);
+            }
+            if (!manifestStats.isEmpty()) {
+                report.writeSection("증분 처리", manifestStats);
+            }
+            report.writeFooter();
 
             System.out.println();
-            System.out.println("📄 작업 결과 리포트 파일 생성: " + reportFileName);
+            System.out.println("📄 작업 결과 리포트 파일 생성: " + report.getFileName());
 
         } catch (Exception e) {
             System.err.println("오류 발생: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            if (repository != null) {
-                repository.close();
+            if (walker != null) {
+                walker.close();
+            }
+            if (pipeline != null) {
+                pipeline.close();
             }
-            if (reportWriter != null) {
-                reportWriter.close();
+            if (report != null) {
+                report.close();
+            }
+            cache.close();
+        }
+    }
+
+    /**
+     * 적응형 동시 호출 제어기의 최종 한도와 최근 결정 (비활성화 시 빈 목록)
+     */
+    private static List<String> describeConcurrencyLimiter() {
+        List<String> lines = new ArrayList<>();
+        AdaptiveConcurrencyLimiter limiter = LLMClient.getConcurrencyLimiter();
+        if (!limiter.isEnabled()) {
+            return lines;
+        }
+        lines.add("최종 동시 호출 한도: " + limiter.getLimit());
+        lines.add("과부하 응답(429/503/타임아웃): " + limiter.getOverloadCount() + "회");
+        List<String> decisions = limiter.getRecentDecisions();
+        if (!decisions.isEmpty()) {
+            lines.add("최근 한도 변경:");
+            for (String decision : decisions) {
+                lines.add("  " + decision);
             }
         }
+        return lines;
+    }
+
+    private static void printUsage() {
+        System.out.println("사용법:");
+        System.out.println("  단일 파일: java -jar table-lineage-builder.jar <파일경로>");
+        System.out.println("  파일 목록: java -jar table-lineage-builder.jar --list <목록파일>");
+        System.out.println("  디렉토리: java -jar table-lineage-builder.jar --root <디렉토리>");
+        System.out.println();
+        System.out.println("옵션:");
+        System.out.println("  --include <패턴>       --root 탐색에서 처리할 파일 glob, 쉼표 구분 (기본값: DISCOVERY_INCLUDE 또는 *.sql,*.sh,*.hql)");
+        System.out.println("  --exclude <패턴>       --root 탐색에서 건너뛸 파일/디렉토리 glob (기본값: DISCOVERY_EXCLUDE 또는 .git,.svn)");
+        System.out.println("  --concurrency <N>      동시에 진행할 LLM 호출 수 (기본값: ANALYSIS_CONCURRENCY 또는 1)");
+        System.out.println("                         LLM_ADAPTIVE_CONCURRENCY=true면 이 값이 상한이 되고 실제 한도는 자동 조절");
+        System.out.println("  --extract-threads <N>  쿼리 추출 스레드 수 (기본값: EXTRACT_THREADS 또는 1)");
+        System.out.println("  --writer-threads <N>   DB 저장 스레드 수 (기본값: WRITER_THREADS 또는 1)");
+        System.out.println("  --no-cache             LLM 결과 캐시를 사용하지 않음 (LLM_CACHE=true여도 이번 실행만 끔)");
+        System.out.println("  --invalidate-cache     기존 LLM 결과 캐시를 지우고 다시 분석");
+        System.out.println("  --resume               체크포인트 저널(CHECKPOINT_JOURNAL)에 기록된 파일/쿼리를 건너뛰고 이어서 처리");
+        System.out.println("  --incremental          지난 처리 이후 내용이 바뀌지 않은 파일을 건너뜀 (FILE_MANIFEST 필요)");
+        System.out.println();
+        System.out.println("예제:");
+        System.out.println("  java -jar table-lineage-builder.jar /path/to/sql/file.sql");
+        System.out.println("  java -jar table-lineage-builder.jar --list file_list.txt");
+        System.out.println("  java -jar table-lineage-builder.jar --root /repo/batch --exclude \"archive,*_bak.sql\"");
+        System.out.println("  java -jar table-lineage-builder.jar --concurrency 8 --list file_list.txt");
+        System.out.println("  java -jar table-lineage-builder.jar --resume --list file_list.txt");
+        System.out.println("  java -jar table-lineage-builder.jar --incremental --list file_list.txt");
     }
 
     /**
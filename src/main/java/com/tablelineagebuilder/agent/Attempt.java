@@ -0,0 +1,38 @@
+package com.tablelineagebuilder.agent;
+
+import com.tablelineagebuilder.catalog.TableCatalog;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.sql.IdentifierIndex;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 모델 하나로 분석한 결과 (상위 모델 재분석 여부 판단용)
+ * 스트리밍 콜백과 응답 처리가 순서대로 채우므로 한 번에 한 스레드만 접근함
+ */
+final class Attempt {
+    final String model;
+    final String promptSql;  // 프롬프트에 넣은 SQL (재분석에도 그대로 사용)
+    final List<TableLineage> lineages = new ArrayList<>();
+    boolean parsed;      // 응답 JSON을 해석했는지
+    boolean callFailed;  // 호출 자체가 실패했는지 (HTTP 오류, 타임아웃 등)
+    boolean fallback;    // 상위 모델이 해석하지 못해 대신 쓰는 1차 모델 결과인지 (캐시에 저장하지 않음)
+    int rejected;        // 검증에서 버린 계보 수 (빈 테이블명, SQL에 없는 테이블명)
+    Throwable error;     // 호출 실패 원인 (callFailed일 때)
+    IdentifierIndex identifiers;  // 테이블명 검증용 (첫 검증 때 생성)
+    TableCatalog.Scan catalogScan;  // 문장에 나온 카탈로그 테이블 (처음 필요할 때 생성)
+
+    Attempt(String model, String promptSql) {
+        this.model = model;
+        this.promptSql = promptSql;
+    }
+
+    Attempt failed(QueryInfo queryInfo, Throwable error) {
+        System.err.println("❌ 테이블 분석 실패: " + queryInfo.getFilePath());
+        System.err.println("   Error: " + error.getMessage());
+        callFailed = true;
+        this.error = error;
+        return this;
+    }
+}
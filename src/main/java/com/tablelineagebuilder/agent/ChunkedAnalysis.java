@@ -0,0 +1,95 @@
+package com.tablelineagebuilder.agent;
+
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.sql.StatementChunker;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * LLM_CHUNK_TOKENS를 넘는 쿼리를 구조 단위 조각으로 나눠 분석한 뒤 계보를 합침
+ */
+final class ChunkedAnalysis {
+
+    private final int chunkTokens = Config.getLlmChunkTokens();
+
+    // 분할 분석 통계
+    private final AtomicInteger chunkedStatements = new AtomicInteger();
+    private final AtomicInteger chunkCount = new AtomicInteger();
+
+    /**
+     * 프롬프트 SQL이 조각 크기를 넘으면 원문을 조각으로 나눔 (나눌 필요가 없거나 나눌 수 없으면 null)
+     */
+    StatementChunker.Chunks split(QueryInfo queryInfo, String promptSql) {
+        if (chunkTokens <= 0 || promptSql.length() / 4 <= chunkTokens) {
+            return null;
+        }
+        StatementChunker.Chunks chunks = StatementChunker.split(queryInfo.getQueryText(), chunkTokens * 4);
+        if (chunks == null) {
+            System.err.println("⚠️  쿼리를 조각으로 나눌 수 없어 통째로 분석합니다: " + queryInfo.getFilePath());
+        }
+        return chunks;
+    }
+
+    /**
+     * 조각마다 따로 분석하고 소스 테이블을 합침
+     * 조각은 앞 조각의 응답을 받은 뒤 하나씩 요청한다. 쿼리 하나가 분석 단계의 동시 요청 한 자리(--concurrency)만
+     * 차지하도록 하기 위함이며, 블로킹 호출(LLM_ASYNC=false)에서는 분석 스레드에서 차례로 실행된다.
+     * 조각 하나라도 실패하면 남은 조각은 요청하지 않고 쿼리 전체가 그 오류로 실패한다 (일부 조각만의 계보는 남기지 않음).
+     * 합친 계보는 원래 쿼리의 파일/원문으로 만들며, 조각에서 소스로 나온 CTE 이름과 DUAL, 중복은 제외한다.
+     */
+    CompletableFuture<List<TableLineage>> analyzeAsync(QueryInfo queryInfo, StatementChunker.Chunks chunks,
+                                                       Function<QueryInfo, CompletableFuture<List<TableLineage>>> analyzeChunk) {
+        List<String> texts = chunks.getChunks();
+        chunkedStatements.incrementAndGet();
+        chunkCount.addAndGet(texts.size());
+        System.out.println("✂️  긴 쿼리 분할 분석: " + queryInfo.getFilePath() + " (약 " +
+            TableAnalyzerAgent.estimateTokens(queryInfo) + " 토큰 → 조각 " + texts.size() + "개)");
+
+        List<TableLineage> collected = new ArrayList<>();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (String text : texts) {
+            chain = chain
+                .thenCompose(previous -> analyzeChunk.apply(new QueryInfo(queryInfo.getFilePath(), text)))
+                .thenAccept(collected::addAll);
+        }
+
+        return chain.thenApply(done -> {
+            List<TableLineage> merged = new ArrayList<>();
+            Set<String> dedup = new HashSet<>();
+            for (TableLineage lineage : collected) {
+                String source = lineage.getSourceTable();
+                if ("DUAL".equals(source) || chunks.getCteNames().contains(source)
+                        || !dedup.add(source + "|" + lineage.getTargetTable())) {
+                    continue;
+                }
+                merged.add(new TableLineage(
+                    source,
+                    lineage.getTargetTable(),
+                    queryInfo.getFilePath(),
+                    queryInfo.getQueryText(),
+                    lineage.getModelUsed()
+                ));
+            }
+            System.out.println("   ✅ 조각 " + texts.size() + "개 병합 계보: " + merged.size() + "개 (" + queryInfo.getFilePath() + ")");
+            return merged;
+        });
+    }
+
+    /**
+     * 분할 분석 통계 (나눈 쿼리가 없으면 빈 목록)
+     */
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (chunkedStatements.get() > 0) {
+            lines.add("분할 분석한 긴 쿼리: " + chunkedStatements.get() + "개 (조각 " + chunkCount.get() + "개)");
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,212 @@
+package com.tablelineagebuilder.agent;
+
+import com.tablelineagebuilder.client.CompletionOptions;
+import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.sql.SqlToken;
+import com.tablelineagebuilder.sql.SqlTokenizer;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 계보 분석 프롬프트와 요청별 호출 옵션 생성
+ * LLM_COMPACT_RESPONSE=true면 타겟마다 소스 목록을 받는 형식으로 요청함
+ */
+final class LineagePrompts {
+
+    // 응답 JSON 스키마 (LLM_RESPONSE_FORMAT=json_schema일 때 서버에 전달)
+    private static final String TARGETS_SCHEMA = arraySchema(objectSchema(
+        "\"target\":{\"type\":\"string\"},\"sources\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}",
+        "\"target\",\"sources\""));
+    private static final String LINEAGES_SCHEMA = arraySchema(objectSchema(
+        "\"sourceTable\":{\"type\":\"string\"},\"targetTable\":{\"type\":\"string\"}",
+        "\"sourceTable\",\"targetTable\""));
+
+    private final boolean compactResponse = Config.isLlmCompactResponse();
+
+    /**
+     * 시스템 프롬프트 생성
+     */
+    String buildSystemPrompt() {
+        return "You are an expert SQL table lineage analyzer. " +
+               "Analyze the given SQL statement and extract source tables (FROM) and target tables (INSERT/UPDATE/MERGE destination) accurately, then return as JSON. " +
+               "MUST extract only exact table names explicitly written in the SQL - NO guessing, NO abbreviation. " +
+               "Aliases, CTE names, and subqueries are NOT table names.";
+    }
+
+    /**
+     * 사용자 프롬프트 생성
+     */
+    String buildUserPrompt(String sql, Set<String> knownTables) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Analyze the following SQL and return table lineage as JSON.\n\n");
+        sb.append("Response format:\n");
+        if (compactResponse) {
+            sb.append("{\"targets\":[\n");
+            sb.append("  {\"target\":\"TARGET_TABLE_NAME\", \"sources\":[\"SOURCE_TABLE_NAME\", ...]},\n");
+            sb.append("  ...\n");
+            sb.append("]}\n\n");
+            appendRules(sb, "return empty array: {\"targets\":[]}");
+        } else {
+            sb.append("{\"lineages\":[\n");
+            sb.append("  {\"sourceTable\":\"SOURCE_TABLE_NAME\", \"targetTable\":\"TARGET_TABLE_NAME\"},\n");
+            sb.append("  ...\n");
+            sb.append("]}\n\n");
+            appendRules(sb, "return empty array: {\"lineages\":[]}");
+        }
+        if (!knownTables.isEmpty()) {
+            appendKnownTablesRule(sb);
+            sb.append("\n");
+            appendKnownTables(sb, knownTables);
+        }
+        sb.append("\n");
+        sb.append("[SQL]\n");
+        sb.append(sql);
+
+        return sb.toString();
+    }
+
+    /**
+     * 여러 쿼리를 묶은 사용자 프롬프트 생성
+     * 쿼리마다 1부터 시작하는 id를 붙이고, 응답도 id별로 받음
+     */
+    String buildPackedUserPrompt(List<String> sqls, List<Set<String>> knownTables) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Analyze EACH of the following ").append(sqls.size())
+          .append(" SQL statements independently and return table lineage per statement as JSON.\n\n");
+        sb.append("Response format (one entry per statement id, in any order):\n");
+        sb.append("{\"statements\":[\n");
+        if (compactResponse) {
+            sb.append("  {\"id\":1, \"targets\":[{\"target\":\"TARGET_TABLE_NAME\", \"sources\":[\"SOURCE_TABLE_NAME\", ...]}, ...]},\n");
+        } else {
+            sb.append("  {\"id\":1, \"lineages\":[{\"sourceTable\":\"SOURCE_TABLE_NAME\", \"targetTable\":\"TARGET_TABLE_NAME\"}, ...]},\n");
+        }
+        sb.append("  ...\n");
+        sb.append("]}\n\n");
+        appendRules(sb, compactResponse
+            ? "return empty targets for that statement id: {\"id\":N, \"targets\":[]}"
+            : "return empty lineages for that statement id: {\"id\":N, \"lineages\":[]}");
+        sb.append("- Lineages of one statement must NOT be mixed with tables of another statement\n");
+        for (Set<String> tables : knownTables) {
+            if (!tables.isEmpty()) {
+                appendKnownTablesRule(sb);
+                break;
+            }
+        }
+        sb.append("\n");
+        for (int i = 0; i < sqls.size(); i++) {
+            if (!knownTables.get(i).isEmpty()) {
+                appendKnownTables(sb, knownTables.get(i));
+            }
+            sb.append("[SQL id=").append(i + 1).append("]\n");
+            sb.append(sqls.get(i));
+            sb.append("\n\n");
+        }
+
+        return sb.toString();
+    }
+
+    private void appendRules(StringBuilder sb, String emptyResult) {
+        sb.append("CRITICAL RULES:\n");
+        sb.append("1) Identify target tables accurately: INSERT/UPDATE/MERGE/CREATE TABLE AS SELECT\n");
+        sb.append("2) Extract ONLY actual table names from FROM/JOIN clauses:\n");
+        sb.append("   - Aliases are NOT table names (e.g., FROM table_name t ← exclude 't', extract 'table_name')\n");
+        sb.append("   - CTEs (WITH clause) are NOT table names\n");
+        sb.append("   - Subqueries are NOT table names\n");
+        sb.append("3) Remove schema names, use only table names (e.g., SCHEMA.TABLE → TABLE)\n");
+        sb.append("4) Exclude DUAL table\n");
+        sb.append("5) **Extract EXACT table names ONLY**: Do NOT create non-existent table names\n");
+        sb.append("   - Example: If MMAP_COMM_CD_DTL_C exists → MMAP_COMM_CD_DTL_C (exact)\n");
+        sb.append("   - Example: If MMAP_COMM_CD_D does NOT exist in SQL → Do NOT extract it\n");
+        sb.append("   - Do NOT abbreviate or guess table names\n");
+        if (compactResponse) {
+            sb.append("6) List each target table ONCE with ALL of its source tables in \"sources\"\n");
+        } else {
+            sb.append("6) Create separate entries for multiple source tables\n");
+        }
+        sb.append("7) Remove duplicates\n");
+        sb.append("8) If only SELECT without INSERT/UPDATE, ").append(emptyResult).append("\n");
+        sb.append("9) Output ONLY JSON, no code fences (```) or explanations\n\n");
+        sb.append("VERIFICATION:\n");
+        sb.append("- Double-check that ALL returned table names actually exist in the SQL below\n");
+        sb.append("- Verify exact spelling of table names\n");
+        sb.append("- Do NOT invent table names based on assumptions or guesses\n");
+    }
+
+    private void appendKnownTablesRule(StringBuilder sb) {
+        sb.append("- [KNOWN TABLES] lists warehouse catalog tables found in the SQL: use these exact names;\n");
+        sb.append("  tables not listed (e.g., temporary tables) are allowed only if written in the SQL\n");
+    }
+
+    private void appendKnownTables(StringBuilder sb, Set<String> tables) {
+        sb.append("[KNOWN TABLES] ").append(String.join(", ", tables)).append("\n");
+    }
+
+    /**
+     * 요청별 호출 옵션 (예상 테이블 수로 정한 출력 토큰 상한, 응답 스키마)
+     * o3 계열은 출력 상한에 추론 토큰이 포함되므로 LLM_REASONING_TOKENS를 더한다.
+     */
+    CompletionOptions completionOptions(LLMClient client, int tables, int statements, boolean packed) {
+        int perTable = Config.getLlmOutputTokensPerTable();
+        int maxOutputTokens = 0;
+        if (perTable > 0) {
+            // 쌍 형식은 소스마다 타겟명을 반복하므로 테이블당 두 배로 잡음
+            maxOutputTokens = 128 + statements * 32 + Math.max(tables, 2) * perTable * (compactResponse ? 1 : 2);
+            if (client.getModelName().startsWith("o3")) {
+                maxOutputTokens += Config.getLlmReasoningTokens();
+            }
+        }
+        String itemsSchema = compactResponse ? TARGETS_SCHEMA : LINEAGES_SCHEMA;
+        String field = compactResponse ? "targets" : "lineages";
+        String schema = packed
+            ? rootSchema("statements", arraySchema(objectSchema(
+                "\"id\":{\"type\":\"integer\"},\"" + field + "\":" + itemsSchema, "\"id\",\"" + field + "\"")))
+            : rootSchema(field, itemsSchema);
+        return new CompletionOptions(maxOutputTokens, packed ? "packed_table_lineage" : "table_lineage", schema);
+    }
+
+    /**
+     * 응답에 나올 테이블 수 추정 (출력 토큰 상한 산정용, 실제보다 크게 잡음)
+     * FROM/JOIN/INTO/USING/UPDATE/TABLE 뒤의 참조와 FROM 절의 쉼표 조인을 센다.
+     */
+    static int estimateTableCount(String sql) {
+        int count = 0;
+        boolean inFrom = false;
+        int depth = 0;
+        int fromDepth = 0;
+        for (SqlToken token : SqlTokenizer.tokenize(sql)) {
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+                if (depth < fromDepth) {
+                    inFrom = false;
+                }
+            } else if (token.is("FROM")) {
+                count++;
+                inFrom = true;
+                fromDepth = depth;
+            } else if (token.is("JOIN") || token.is("INTO") || token.is("USING") || token.is("UPDATE") || token.is("TABLE")) {
+                count++;
+            } else if (token.is("WHERE") || token.is("SELECT") || token.is("GROUP") || token.is("ORDER") || token.is("ON")) {
+                inFrom = false;
+            } else if (inFrom && depth == fromDepth && token.isSymbol(',')) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String rootSchema(String field, String schema) {
+        return objectSchema("\"" + field + "\":" + schema, "\"" + field + "\"");
+    }
+
+    private static String objectSchema(String properties, String required) {
+        return "{\"type\":\"object\",\"properties\":{" + properties + "},\"required\":[" + required +
+            "],\"additionalProperties\":false}";
+    }
+
+    private static String arraySchema(String items) {
+        return "{\"type\":\"array\",\"items\":" + items + "}";
+    }
+}
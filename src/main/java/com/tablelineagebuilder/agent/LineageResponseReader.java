@@ -0,0 +1,325 @@
+package com.tablelineagebuilder.agent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tablelineagebuilder.catalog.TableCatalog;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.sql.IdentifierIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LLM 응답을 해석하고, 응답의 계보를 원문 SQL로 검증
+ * 응답은 간결 형식("targets")과 쌍 형식("lineages") 모두 해석하며,
+ * CATALOG_TABLES_FILE이 있으면 응답 테이블명을 카탈로그 이름으로 맞춤
+ */
+final class LineageResponseReader {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TableCatalog catalog;
+
+    // 카탈로그 이름으로 바꾼 응답 테이블명 수
+    private final AtomicInteger catalogCanonicalized = new AtomicInteger();
+
+    LineageResponseReader(TableCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    int getCatalogCanonicalized() {
+        return catalogCanonicalized.get();
+    }
+
+    /**
+     * 문장에 나온 카탈로그 테이블 (카탈로그가 없으면 빈 결과, 시도마다 한 번만 찾음)
+     */
+    TableCatalog.Scan catalogScan(QueryInfo queryInfo, Attempt attempt) {
+        if (attempt.catalogScan == null) {
+            attempt.catalogScan = catalog.scan(queryInfo.getQueryText());
+        }
+        return attempt.catalogScan;
+    }
+
+    /**
+     * LLM 응답을 파싱하여 검증한 계보를 attempt에 추가
+     * 응답을 해석할 수 없으면 attempt.parsed는 false로 남음 (검증 결과 계보가 없는 경우와 구분)
+     */
+    void parseResponse(String response, QueryInfo queryInfo, Attempt attempt) {
+        Set<String> dedup = new HashSet<>();
+
+        try {
+            if (response == null || response.trim().isEmpty()) {
+                System.err.println("⚠️  LLM 응답이 비어있습니다.");
+                return;
+            }
+
+            String cleaned = cleanJson(response);
+
+            System.out.println("   🔍 파싱할 JSON: " + cleaned.substring(0, Math.min(200, cleaned.length())) + "...");
+
+            JsonNode rootNode = objectMapper.readTree(cleaned);
+            List<JsonNode> lineagesNode = lineageNodes(rootNode);
+
+            if (lineagesNode == null) {
+                System.err.println("⚠️  'targets' 또는 'lineages' 필드가 배열이 아닙니다.");
+                System.err.println("   Response: " + cleaned);
+                return;
+            }
+
+            System.out.println("   📋 LLM이 추출한 테이블: " + lineagesNode.size() + "개");
+
+            for (JsonNode node : lineagesNode) {
+                verifyLineage(node, queryInfo, dedup, attempt);
+            }
+            attempt.parsed = true;
+
+        } catch (Exception e) {
+            System.err.println("❌ JSON 파싱 실패: " + e.getMessage());
+            System.err.println("   Exception: " + e.getClass().getName());
+            System.err.println("   Full Response:");
+            System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            System.err.println(response);
+            System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        }
+    }
+
+    /**
+     * 스트리밍 응답에서 잘라낸 객체 하나를 검증 (계보 객체가 아니면 false)
+     * 간결 형식에서는 타겟 객체({"target","sources"}) 하나가 그 타겟의 계보 전부다.
+     */
+    boolean parseStreamedObject(String objectJson, QueryInfo queryInfo, Set<String> dedup, Attempt attempt) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(objectJson);
+        } catch (Exception e) {
+            return false;
+        }
+        List<JsonNode> lineageNodes;
+        if (node.has("target")) {
+            lineageNodes = expandTarget(node);
+        } else if (node.has("sourceTable") || node.has("targetTable")) {
+            lineageNodes = Collections.singletonList(node);
+        } else {
+            return false;
+        }
+        for (JsonNode lineageNode : lineageNodes) {
+            verifyLineage(lineageNode, queryInfo, dedup, attempt);
+        }
+        return true;
+    }
+
+    /**
+     * 묶음 응답을 쿼리 id별로 파싱
+     * 각 계보는 해당 id의 SQL로 검증하며, 응답에 없는 쿼리는 null로 남김 (파싱 실패 시 전부 null)
+     */
+    List<Attempt> parsePackedResponse(String response, List<QueryInfo> queries, List<String> promptSqls, String model) {
+        List<Attempt> results = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            results.add(null);
+        }
+
+        try {
+            if (response == null || response.trim().isEmpty()) {
+                System.err.println("⚠️  LLM 응답이 비어있습니다.");
+                return results;
+            }
+
+            JsonNode statementsNode = objectMapper.readTree(cleanJson(response)).path("statements");
+            if (!statementsNode.isArray()) {
+                System.err.println("⚠️  'statements' 필드가 배열이 아닙니다.");
+                return results;
+            }
+
+            for (JsonNode statementNode : statementsNode) {
+                int id = statementNode.path("id").asInt(0);
+                if (id < 1 || id > queries.size() || results.get(id - 1) != null) {
+                    System.err.println("   ⏭️  알 수 없거나 중복된 쿼리 id 건너뜀: " + statementNode.path("id"));
+                    continue;
+                }
+
+                QueryInfo queryInfo = queries.get(id - 1);
+                Attempt attempt = new Attempt(model, promptSqls.get(id - 1));
+                Set<String> dedup = new HashSet<>();
+                System.out.println("   📋 #" + id + " (" + queryInfo.getFilePath() + ")");
+                List<JsonNode> lineagesNode = lineageNodes(statementNode);
+                if (lineagesNode == null) {
+                    continue;  // 단건으로 다시 분석
+                }
+                for (JsonNode node : lineagesNode) {
+                    verifyLineage(node, queryInfo, dedup, attempt);
+                }
+                attempt.parsed = true;
+                results.set(id - 1, attempt);
+            }
+
+        } catch (Exception e) {
+            System.err.println("❌ 묶음 응답 JSON 파싱 실패: " + e.getMessage());
+            return results;
+        }
+
+        int missing = 0;
+        for (Attempt attempt : results) {
+            if (attempt == null) {
+                missing++;
+            }
+        }
+        if (missing > 0) {
+            System.err.println("   ⚠️  응답에 없는 쿼리 " + missing + "개는 단건으로 다시 분석합니다.");
+        }
+        return results;
+    }
+
+    /**
+     * 응답 객체의 계보 목록 ({"sourceTable","targetTable"} 노드)
+     * 간결 형식("targets")은 타겟-소스 쌍으로 펼치고, 기존 형식("lineages")은 그대로 사용 (둘 다 없으면 null)
+     */
+    private List<JsonNode> lineageNodes(JsonNode container) {
+        List<JsonNode> nodes = new ArrayList<>();
+        JsonNode targetsNode = container.path("targets");
+        JsonNode lineagesNode = container.path("lineages");
+        if (targetsNode.isArray()) {
+            for (JsonNode targetNode : targetsNode) {
+                nodes.addAll(expandTarget(targetNode));
+            }
+        } else if (lineagesNode.isArray()) {
+            for (JsonNode node : lineagesNode) {
+                nodes.add(node);
+            }
+        } else {
+            return null;
+        }
+        return nodes;
+    }
+
+    /**
+     * 간결 형식의 타겟 객체 하나를 소스별 계보 노드로 펼침 (소스가 없는 타겟은 계보 없음)
+     */
+    private List<JsonNode> expandTarget(JsonNode targetNode) {
+        List<JsonNode> nodes = new ArrayList<>();
+        String target = targetNode.path("target").asText("");
+        JsonNode sources = targetNode.path("sources");
+        if (sources.isTextual()) {
+            nodes.add(lineageNode(sources.asText(), target));
+        }
+        for (JsonNode source : sources) {
+            nodes.add(lineageNode(source.asText(""), target));
+        }
+        return nodes;
+    }
+
+    private JsonNode lineageNode(String source, String target) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("sourceTable", source);
+        node.put("targetTable", target);
+        return node;
+    }
+
+    /**
+     * 응답에서 JSON 본문만 잘라냄 (코드펜스, 앞뒤 설명 텍스트 제거)
+     */
+    private String cleanJson(String response) {
+        // 코드펜스 제거 (다양한 형식 지원)
+        String cleaned = response
+            .replace("```json", "")
+            .replace("```JSON", "")
+            .replace("```", "")
+            .trim();
+
+        // JSON 시작 위치 찾기 (설명 텍스트가 앞에 있을 수 있음)
+        int jsonStart = cleaned.indexOf("{");
+        if (jsonStart > 0) {
+            cleaned = cleaned.substring(jsonStart);
+        }
+
+        // JSON 끝 위치 찾기 (설명 텍스트가 뒤에 있을 수 있음)
+        int jsonEnd = cleaned.lastIndexOf("}");
+        if (jsonEnd > 0 && jsonEnd < cleaned.length() - 1) {
+            cleaned = cleaned.substring(0, jsonEnd + 1);
+        }
+
+        return cleaned;
+    }
+
+    /**
+     * 계보 객체 하나를 검증하여 결과 목록에 추가
+     * 빈 값, SQL에 없는 테이블명은 버린 수(rejected)를 세고, 중복은 그냥 건너뜀
+     */
+    private void verifyLineage(JsonNode node, QueryInfo queryInfo, Set<String> dedup, Attempt attempt) {
+        String sourceTable = node.path("sourceTable").asText("").trim().toUpperCase();
+        String targetTable = node.path("targetTable").asText("").trim().toUpperCase();
+
+        // 빈 값 체크
+        if (sourceTable.isEmpty() || targetTable.isEmpty()) {
+            System.out.println("   ⏭️  빈 테이블명 건너뜀");
+            attempt.rejected++;
+            return;
+        }
+
+        // 카탈로그 테이블이면 카탈로그 이름으로 맞춤 (스키마 접두어, 따옴표 제거)
+        if (catalog.isEnabled()) {
+            sourceTable = catalogName(sourceTable);
+            targetTable = catalogName(targetTable);
+        }
+
+        System.out.println("   🔎 검증 중: " + sourceTable + " → " + targetTable);
+
+        // *** 추가 검증: SQL에 실제로 존재하는 테이블명인지 확인 ***
+        // 단어 경계 기준 완전 일치만 허용 (예: "MMAP_COMM_CD_D"가 "MMAP_COMM_CD_DTL"과 매칭되지 않도록)
+        // 식별자 색인은 문장당 한 번만 만들고 계보마다 O(1)로 확인
+        // 문장에서 찾은 카탈로그 테이블은 바로 통과
+        Set<String> known = catalogScan(queryInfo, attempt).getTables();
+        if (attempt.identifiers == null && !(known.contains(sourceTable) && known.contains(targetTable))) {
+            attempt.identifiers = IdentifierIndex.of(queryInfo.getQueryText());
+        }
+        if (!known.contains(sourceTable) && !attempt.identifiers.contains(sourceTable)) {
+            System.err.println("   ❌ 검증 실패: 소스 테이블 '" + sourceTable + "'가 SQL에 없습니다. 건너뜁니다.");
+            attempt.rejected++;
+            return;
+        }
+
+        if (!known.contains(targetTable) && !attempt.identifiers.contains(targetTable)) {
+            System.err.println("   ❌ 검증 실패: 타겟 테이블 '" + targetTable + "'가 SQL에 없습니다. 건너뜁니다.");
+            attempt.rejected++;
+            return;
+        }
+
+        // 중복 체크
+        String key = sourceTable + "|" + targetTable;
+        if (dedup.contains(key)) {
+            System.out.println("   ⏭️  중복 건너뜀: " + sourceTable + " → " + targetTable);
+            return;
+        }
+        dedup.add(key);
+
+        System.out.println("   ✅ 검증 성공: " + sourceTable + " → " + targetTable);
+
+        // TableLineage 생성 (model_used는 결과를 만든 모델)
+        attempt.lineages.add(new TableLineage(
+            sourceTable,
+            targetTable,
+            queryInfo.getFilePath(),
+            queryInfo.getQueryText(),
+            attempt.model
+        ));
+    }
+
+    /**
+     * 카탈로그에 있는 테이블이면 카탈로그 이름, 없으면 받은 그대로
+     */
+    private String catalogName(String table) {
+        String canonical = catalog.canonicalize(table);
+        if (canonical == null) {
+            return table;
+        }
+        if (!canonical.equals(table)) {
+            System.out.println("   📚 카탈로그 이름으로 변경: " + table + " → " + canonical);
+            catalogCanonicalized.incrementAndGet();
+        }
+        return canonical;
+    }
+}
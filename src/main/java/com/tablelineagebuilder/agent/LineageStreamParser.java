@@ -0,0 +1,80 @@
+package com.tablelineagebuilder.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 스트리밍으로 도착하는 LLM 응답에서 계보 객체를 하나씩 잘라내는 파서
+ *
+ * 응답 전체를 기다리지 않고, 조각을 받을 때마다 새로 들어온 문자만 훑어
+ * 닫힌 JSON 객체 중 내부에 객체를 갖지 않는 것({"sourceTable":..,"targetTable":..} 또는 {"target":..,"sources":[..]})을 넘긴다.
+ * 문자열 안의 중괄호와 이스케이프는 무시하며, 코드펜스나 설명 문장이 섞여 있어도 객체 단위로만 판단한다.
+ * 한 응답에 하나씩 만들어 쓰며, 스레드 간 공유하지 않는다.
+ */
+public class LineageStreamParser {
+
+    private final Consumer<String> onObject;
+    private final StringBuilder buffer = new StringBuilder();
+
+    // 열린 객체의 시작 위치와 하위 객체 포함 여부
+    private final List<Integer> openStarts = new ArrayList<>();
+    private final List<Boolean> openHasChild = new ArrayList<>();
+
+    private int scanned;
+    private boolean inString;
+    private boolean escape;
+    private int objectCount;
+
+    public LineageStreamParser(Consumer<String> onObject) {
+        this.onObject = onObject;
+    }
+
+    /**
+     * 응답 조각 추가
+     * 이번 조각으로 완성된 객체가 있으면 등장 순서대로 onObject 호출
+     */
+    public void feed(String chunk) {
+        buffer.append(chunk);
+
+        for (; scanned < buffer.length(); scanned++) {
+            char c = buffer.charAt(scanned);
+
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                if (!openHasChild.isEmpty()) {
+                    openHasChild.set(openHasChild.size() - 1, Boolean.TRUE);
+                }
+                openStarts.add(scanned);
+                openHasChild.add(Boolean.FALSE);
+            } else if (c == '}' && !openStarts.isEmpty()) {
+                int last = openStarts.size() - 1;
+                int start = openStarts.remove(last);
+                boolean hasChild = openHasChild.remove(last);
+                if (!hasChild) {
+                    objectCount++;
+                    onObject.accept(buffer.substring(start, scanned + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * 지금까지 잘라낸 객체 수
+     */
+    public int getObjectCount() {
+        return objectCount;
+    }
+}
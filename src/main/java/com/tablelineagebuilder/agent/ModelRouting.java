@@ -0,0 +1,286 @@
+package com.tablelineagebuilder.agent;
+
+import com.tablelineagebuilder.client.CompletionOptions;
+import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.client.ModelProfile;
+import com.tablelineagebuilder.client.ModelRouter;
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.sql.SqlToken;
+import com.tablelineagebuilder.sql.SqlTokenizer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 쿼리를 보낼 모델을 고르고, 믿을 수 없는 결과를 상위 모델로 다시 분석
+ * LLM_MODEL_ROUTING=true면 먼저 보낼 모델을 쿼리 크기에 맞춰 요청마다 고름
+ * LLM_TIERED=true면 빠른 모델로 먼저 분석하고, 결과를 믿을 수 없는 쿼리만 상위 모델로 다시 분석함
+ */
+final class ModelRouting {
+
+    private final LLMClient primaryClient;     // 모든 쿼리를 먼저 보내는 모델
+    private final LLMClient escalationClient;  // 단계별 라우팅의 상위 모델 (사용하지 않으면 null)
+    private final ModelRouter router = ModelRouter.fromConfig();  // 크기별 모델 라우팅 (사용하지 않으면 null)
+    private final LineagePrompts prompts;
+    private final LineageResponseReader reader;
+    private final boolean async = Config.isLlmAsync();
+
+    // 모델 분석/재분석 통계
+    private final AtomicInteger llmAnalyzed = new AtomicInteger();
+    private final Map<EscalationReason, AtomicInteger> escalations = new EnumMap<>(EscalationReason.class);
+
+    ModelRouting(LineagePrompts prompts, LineageResponseReader reader) {
+        if (Config.isLlmTiered()) {
+            this.primaryClient = LLMClient.create(Config.getLlmFastModelName());
+            this.escalationClient = LLMClient.create(Config.getLlmStrongModelName());
+        } else {
+            this.primaryClient = LLMClient.create();
+            this.escalationClient = null;
+        }
+        this.prompts = prompts;
+        this.reader = reader;
+        for (EscalationReason reason : EscalationReason.values()) {
+            escalations.put(reason, new AtomicInteger());
+        }
+    }
+
+    /**
+     * 먼저 보낼 모델 (크기별 라우팅을 쓰면 요청 크기에 맞는 모델, 라우팅 통계에 기록)
+     */
+    LLMClient route(int queryTokens) {
+        return router == null ? primaryClient : router.route(queryTokens);
+    }
+
+    /**
+     * 이 크기의 쿼리 결과가 저장되어 있을 수 있는 모델 (1차 모델, 상위 모델 순, 라우팅 통계에는 기록하지 않음)
+     */
+    List<String> candidateModels(int queryTokens) {
+        List<String> models = new ArrayList<>();
+        models.add((router == null ? primaryClient : router.select(queryTokens)).getModelName());
+        if (escalationClient != null) {
+            models.add(escalationClient.getModelName());
+        }
+        return models;
+    }
+
+    /**
+     * 크기에 맞는 모델로 분석하고, 필요하면 상위 모델로 다시 분석한 최종 결과
+     */
+    CompletableFuture<Attempt> analyzeAsync(QueryInfo queryInfo, String promptSql) {
+        LLMClient client = route(TableAnalyzerAgent.estimateTokens(queryInfo));
+        return attemptAsync(queryInfo, promptSql, client).thenCompose(attempt -> finishAsync(queryInfo, attempt));
+    }
+
+    /**
+     * 분석 결과 확정
+     * 단계별 라우팅(LLM_TIERED)에서 1차 모델 결과를 믿을 수 없으면 상위 모델로 다시 분석한다.
+     * 상위 모델도 해석할 수 없는 응답이면 1차 모델의 검증된 계보를 쓴다 (fallback).
+     */
+    CompletableFuture<Attempt> finishAsync(QueryInfo queryInfo, Attempt attempt) {
+        llmAnalyzed.incrementAndGet();
+        boolean canEscalate = escalationClient != null && !escalationClient.getModelName().equals(attempt.model);
+        EscalationReason reason = canEscalate ? escalationReason(queryInfo, attempt) : null;
+        if (reason == null) {
+            return CompletableFuture.completedFuture(attempt);
+        }
+
+        escalations.get(reason).incrementAndGet();
+        System.out.println("   ⬆️  상위 모델로 재분석 (" + reason.label + "): " + attempt.model + " → " +
+            escalationClient.getModelName());
+        return attemptAsync(queryInfo, attempt.promptSql, escalationClient).thenApply(escalated -> {
+            if (!escalated.parsed && attempt.parsed) {
+                attempt.fallback = true;
+                return attempt;
+            }
+            return escalated;
+        });
+    }
+
+    /**
+     * 모델 하나로 쿼리를 분석 (검증까지만 하고 재분석 판단은 finishAsync에서)
+     * 프롬프트에는 promptSql을 넣고, 응답 검증은 원문(queryInfo)으로 한다.
+     */
+    private CompletableFuture<Attempt> attemptAsync(QueryInfo queryInfo, String promptSql, LLMClient client) {
+        Attempt attempt = new Attempt(client.getModelName(), promptSql);
+        String systemPrompt;
+        String userPrompt;
+        CompletionOptions options;
+
+        try {
+            // 쿼리 정보 로깅
+            int queryLength = promptSql.length();
+            int estimatedTokens = queryLength / 4;  // 1 토큰 ≈ 4자 (근사치)
+
+            System.out.println("📊 [" + client.getModelName() + "] 쿼리 분석 시작:");
+            System.out.println("   - 파일: " + queryInfo.getFilePath());
+            System.out.println("   - 쿼리 길이: " + queryLength + "자 (약 " + estimatedTokens + " 토큰)");
+
+            // 컨텍스트 윈도우 초과 경고 (gpt-4o 계열 128K, o3 계열 200K, 출력 토큰 제외)
+            ModelProfile profile = ModelProfile.fromConfig(client.getModelName());
+            if (!profile.fits(estimatedTokens)) {
+                System.err.println("⚠️  경고: 쿼리가 너무 깁니다 (" + profile.getContextTokens() / 1000 + "K 토큰 컨텍스트 초과 가능)");
+                System.err.println("   - 테이블 추출 정확도가 떨어질 수 있습니다.");
+            }
+
+            systemPrompt = prompts.buildSystemPrompt();
+            userPrompt = prompts.buildUserPrompt(promptSql, reader.catalogScan(queryInfo, attempt).getTables());
+            options = prompts.completionOptions(client, LineagePrompts.estimateTableCount(promptSql), 1, false);
+            if (options.getMaxOutputTokens() > 0) {
+                System.out.println("   - 출력 토큰 상한: " + options.getMaxOutputTokens());
+            }
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(attempt.failed(queryInfo, e));
+        }
+
+        if (Config.isLlmStream()) {
+            return analyzeStreaming(queryInfo, client, attempt, systemPrompt, userPrompt, options);
+        }
+
+        return request(client, systemPrompt, userPrompt, options)
+            .thenApply(response -> {
+                reader.parseResponse(response, queryInfo, attempt);
+                return attempt;
+            })
+            .exceptionally(error -> attempt.failed(queryInfo, LLMClient.unwrap(error)));
+    }
+
+    /**
+     * 스트리밍 모드 분석
+     * 계보 객체가 완성되는 즉시 검증하므로 응답이 끝나기 전에 첫 결과를 얻는다.
+     * 응답에서 계보 객체를 하나도 찾지 못하면 전체 응답을 기존 방식으로 다시 파싱한다.
+     */
+    private CompletableFuture<Attempt> analyzeStreaming(QueryInfo queryInfo, LLMClient client, Attempt attempt,
+                                                        String systemPrompt, String userPrompt, CompletionOptions options) {
+        long startNanos = System.nanoTime();
+        Set<String> dedup = new HashSet<>();
+        long[] firstResultMs = {-1};
+
+        LineageStreamParser parser = new LineageStreamParser(objectJson -> {
+            if (reader.parseStreamedObject(objectJson, queryInfo, dedup, attempt) && firstResultMs[0] < 0) {
+                firstResultMs[0] = (System.nanoTime() - startNanos) / 1_000_000;
+            }
+        });
+
+        return client.callStreaming(systemPrompt, userPrompt, options, parser::feed)
+            .thenApply(response -> {
+                if (parser.getObjectCount() == 0) {
+                    reader.parseResponse(response, queryInfo, attempt);
+                    return attempt;
+                }
+                long totalMs = (System.nanoTime() - startNanos) / 1_000_000;
+                if (firstResultMs[0] >= 0) {
+                    System.out.println("   ⏱️  첫 계보 " + firstResultMs[0] + "ms / 응답 완료 " + totalMs + "ms");
+                }
+                attempt.parsed = true;
+                return attempt;
+            })
+            .exceptionally(error -> attempt.failed(queryInfo, LLMClient.unwrap(error)));
+    }
+
+    /**
+     * 모델 호출 (응답 본문)
+     * LLM_ASYNC=false면 호출 스레드에서 응답을 기다리는 블로킹 호출(HttpURLConnection)을 쓰고, 완료된 결과를 돌려줌
+     */
+    CompletableFuture<String> request(LLMClient client, String systemPrompt, String userPrompt, CompletionOptions options) {
+        if (async) {
+            return client.callAsync(systemPrompt, userPrompt, options);
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        try {
+            response.complete(client.call(systemPrompt, userPrompt, options));
+        } catch (IOException | RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    /**
+     * 1차 모델 결과를 상위 모델로 다시 분석해야 하는 이유 (필요 없으면 null)
+     * 호출 자체가 실패한 경우는 과부하일 수 있으므로 재분석하지 않음
+     */
+    private static EscalationReason escalationReason(QueryInfo queryInfo, Attempt attempt) {
+        if (attempt.callFailed) {
+            return null;
+        }
+        if (!attempt.parsed) {
+            return EscalationReason.PARSE_FAILED;
+        }
+        if (attempt.rejected > 0) {
+            return EscalationReason.VERIFICATION_FAILED;
+        }
+        if (attempt.lineages.isEmpty() && expectsLineage(queryInfo.getQueryText())) {
+            return EscalationReason.EMPTY_RESULT;
+        }
+        return null;
+    }
+
+    /**
+     * 계보가 하나 이상 나와야 하는 쿼리인지 (INSERT/MERGE이면서 FROM/USING으로 읽는 테이블이 있음)
+     */
+    private static boolean expectsLineage(String sql) {
+        boolean writes = false;
+        boolean reads = false;
+        for (SqlToken token : SqlTokenizer.tokenize(sql)) {
+            if (token.is("INSERT") || token.is("MERGE")) {
+                writes = true;
+            } else if (token.is("FROM") || token.is("USING")) {
+                reads = true;
+            }
+        }
+        return writes && reads;
+    }
+
+    /**
+     * 단계별 라우팅 통계 (단계별 라우팅을 쓰지 않으면 빈 목록)
+     */
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (escalationClient == null) {
+            return lines;
+        }
+
+        int analyzed = llmAnalyzed.get();
+        int escalated = 0;
+        for (AtomicInteger count : escalations.values()) {
+            escalated += count.get();
+        }
+        lines.add((router == null ? "1차 모델(" + primaryClient.getModelName() + ")" : "1차 모델(크기별 라우팅)") +
+            " 분석: " + analyzed + "개");
+        lines.add("상위 모델(" + escalationClient.getModelName() + ") 재분석: " + escalated + "개 (" +
+            (analyzed == 0 ? 0 : escalated * 100 / analyzed) + "%)");
+        for (EscalationReason reason : EscalationReason.values()) {
+            lines.add("  - " + reason.label + ": " + escalations.get(reason).get() + "개");
+        }
+        return lines;
+    }
+
+    /**
+     * 크기별 모델 라우팅 통계 (라우팅을 쓰지 않으면 빈 목록)
+     */
+    List<String> describeRouting() {
+        return router == null ? new ArrayList<>() : router.describe();
+    }
+
+    /**
+     * 상위 모델로 다시 분석하는 이유
+     */
+    private enum EscalationReason {
+        PARSE_FAILED("응답 JSON 파싱 실패"),
+        VERIFICATION_FAILED("SQL에 없는 테이블명 검증 실패"),
+        EMPTY_RESULT("INSERT/MERGE 결과 없음");
+
+        final String label;
+
+        EscalationReason(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tablelineagebuilder.agent;
+
+import com.tablelineagebuilder.catalog.TableCatalog;
+import com.tablelineagebuilder.client.CompletionOptions;
+import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.model.QueryInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 여러 쿼리를 한 요청으로 묶어 분석 (파일이 달라도 됨)
+ * 쿼리마다 id를 붙여 보내고, 응답을 id별 분석 결과로 나눔
+ */
+final class PackedAnalysis {
+
+    private final ModelRouting routing;
+    private final LineagePrompts prompts;
+    private final LineageResponseReader reader;
+    private final TableCatalog catalog;
+
+    PackedAnalysis(ModelRouting routing, LineagePrompts prompts, LineageResponseReader reader, TableCatalog catalog) {
+        this.routing = routing;
+        this.prompts = prompts;
+        this.reader = reader;
+        this.catalog = catalog;
+    }
+
+    /**
+     * 묶음 요청 (결과는 입력과 같은 순서의 쿼리별 분석 결과)
+     * 응답에 없거나 해석할 수 없는 쿼리는 null, 호출 자체가 실패하면 모든 쿼리가 callFailed인 결과
+     */
+    CompletableFuture<List<Attempt>> requestAsync(List<QueryInfo> queries, List<String> promptSqls) {
+        int estimatedTokens = 0;
+        int estimatedTables = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            estimatedTokens += TableAnalyzerAgent.estimateTokens(queries.get(i));
+            estimatedTables += LineagePrompts.estimateTableCount(promptSqls.get(i));
+        }
+        LLMClient client = routing.route(estimatedTokens);
+        CompletionOptions options = prompts.completionOptions(client, estimatedTables, queries.size(), true);
+
+        String systemPrompt;
+        String userPrompt;
+        try {
+            System.out.println("📦 [" + client.getModelName() + "] 쿼리 " + queries.size() +
+                "개 묶음 분석 시작 (약 " + estimatedTokens + " 토큰):");
+            for (int i = 0; i < queries.size(); i++) {
+                System.out.println("   - #" + (i + 1) + " " + queries.get(i).getFilePath());
+            }
+
+            systemPrompt = prompts.buildSystemPrompt();
+            List<Set<String>> knownTables = new ArrayList<>();
+            for (QueryInfo query : queries) {
+                knownTables.add(catalog.scan(query.getQueryText()).getTables());
+            }
+            userPrompt = prompts.buildPackedUserPrompt(promptSqls, knownTables);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(packFailed(queries, promptSqls, client, e));
+        }
+
+        return routing.request(client, systemPrompt, userPrompt, options)
+            .thenApply(response -> reader.parsePackedResponse(response, queries, promptSqls, client.getModelName()))
+            .exceptionally(error -> packFailed(queries, promptSqls, client, LLMClient.unwrap(error)));
+    }
+
+    private List<Attempt> packFailed(List<QueryInfo> queries, List<String> promptSqls, LLMClient client, Throwable error) {
+        System.err.println("❌ 묶음 분석 실패: 쿼리 " + queries.size() + "개");
+        System.err.println("   Error: " + error.getMessage());
+        List<Attempt> attempts = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            Attempt attempt = new Attempt(client.getModelName(), promptSqls.get(i));
+            attempt.callFailed = true;
+            attempt.error = error;
+            attempts.add(attempt);
+        }
+        return attempts;
+    }
+}
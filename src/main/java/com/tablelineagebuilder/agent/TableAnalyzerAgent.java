@@ -1,258 +1,370 @@
 package com.tablelineagebuilder.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.cache.LineageCache;
+import com.tablelineagebuilder.catalog.TableCatalog;
 import com.tablelineagebuilder.config.Config;
 import com.tablelineagebuilder.model.QueryInfo;
 import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.sql.LocalLineageParser;
+import com.tablelineagebuilder.sql.SqlCompressor;
+import com.tablelineagebuilder.sql.StatementChunker;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SQL 쿼리를 분석하여 소스-타겟 테이블 관계를 추출하는 에이전트
+ * 로컬 파서나 카탈로그로 해석되는 쿼리, 캐시에 있는 쿼리는 LLM을 호출하지 않고, 나머지만 LLM으로 분석함
+ * 분석 경로 통계 외에는 상태를 갖지 않으므로 여러 작업 스레드가 하나의 인스턴스를 공유해도 안전함
  */
 public class TableAnalyzerAgent {
 
-    private final LLMClient llmClient;
-    private final ObjectMapper objectMapper;
-
-    public TableAnalyzerAgent() {
-        this.llmClient = LLMClient.create();
-        this.objectMapper = new ObjectMapper();
-    }
+    // 로컬 파서가 만든 계보의 model_used 값
+    public static final String LOCAL_PARSER_MODEL = "LOCAL_PARSER";
+    // 카탈로그 후보만으로 만든 계보의 model_used 값
+    public static final String CATALOG_MODEL = "CATALOG";
+
+    // 프롬프트나 검증 규칙을 바꿔 결과가 달라질 수 있으면 올려서 이전 캐시를 무효화
+    private static final String PROMPT_VERSION = "1";
+
+    private final boolean localParserEnabled = Config.isLocalParserEnabled();
+    private final boolean promptCompression = Config.isLlmPromptCompression();
+    private final TableCatalog catalog = TableCatalog.shared();
+    private final LineagePrompts prompts = new LineagePrompts();
+    private final LineageResponseReader reader = new LineageResponseReader(catalog);
+    private final ModelRouting routing = new ModelRouting(prompts, reader);
+    private final ChunkedAnalysis chunking = new ChunkedAnalysis();
+    private final PackedAnalysis packing = new PackedAnalysis(routing, prompts, reader, catalog);
+
+    // 분석 경로 통계
+    private final AtomicInteger localParsed = new AtomicInteger();
+    private final AtomicInteger delegatedToLlm = new AtomicInteger();
+    private final AtomicInteger catalogResolved = new AtomicInteger();
+    private final AtomicInteger compressedStatements = new AtomicInteger();
+    private final AtomicLong tokensBeforeCompression = new AtomicLong();
+    private final AtomicLong tokensAfterCompression = new AtomicLong();
 
     /**
      * 쿼리를 분석하여 테이블 계보 정보 추출
+     * LLM 호출이 실패하거나 응답을 해석할 수 없으면 CompletionException
      */
     public List<TableLineage> analyze(QueryInfo queryInfo) {
-        List<TableLineage> lineages = new ArrayList<>();
-
-        try {
-            // 쿼리 정보 로깅
-            int queryLength = queryInfo.getQueryText().length();
-            int estimatedTokens = queryLength / 4;  // 1 토큰 ≈ 4자 (근사치)
-
-            System.out.println("📊 [" + Config.getLlmModelName() + "] 쿼리 분석 시작:");
-            System.out.println("   - 파일: " + queryInfo.getFilePath());
-            System.out.println("   - 쿼리 길이: " + queryLength + "자 (약 " + estimatedTokens + " 토큰)");
-
-            // 컨텍스트 윈도우 초과 경고
-            if (Config.getLlmModelName().startsWith("o3")) {
-                // o3-mini: 200K 토큰 컨텍스트
-                if (estimatedTokens > 195000) {
-                    System.err.println("⚠️  경고: 쿼리가 매우 깁니다 (200K 토큰 근접)");
-                    System.err.println("   - 테이블 추출 정확도가 떨어질 수 있습니다.");
-                }
-            } else {
-                // gpt-4o-mini: 128K 토큰 컨텍스트
-                if (estimatedTokens > 120000) {
-                    System.err.println("⚠️  경고: 쿼리가 너무 깁니다 (128K 토큰 초과 가능)");
-                    System.err.println("   - 테이블 추출 정확도가 떨어질 수 있습니다.");
-                }
-            }
-
-            String systemPrompt = buildSystemPrompt();
-            String userPrompt = buildUserPrompt(queryInfo.getQueryText());
-
-            String response = llmClient.call(systemPrompt, userPrompt);
-
-            // JSON 파싱
-            lineages = parseResponse(response, queryInfo);
+        return analyzeAsync(queryInfo).join();
+    }
 
-            System.out.println("   ✅ 추출된 계보: " + lineages.size() + "개");
+    /**
+     * 쿼리를 비동기로 분석
+     * LLM 응답을 기다리는 동안 호출 스레드를 점유하지 않음
+     * LLM 호출이 실패하거나 응답을 해석할 수 없으면 예외로 완료됨 (계보가 없는 결과와 구분)
+     * 로컬 파서로 해석되거나 같은 SQL의 이전 분석 결과가 캐시에 있으면 LLM을 호출하지 않음
+     */
+    public CompletableFuture<List<TableLineage>> analyzeAsync(QueryInfo queryInfo) {
+        List<TableLineage> local = analyzeLocally(queryInfo);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        List<TableLineage> cached = lookupCache(queryInfo);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return analyzeUncachedAsync(queryInfo);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ 테이블 분석 실패: " + queryInfo.getFilePath());
-            System.err.println("   Error: " + e.getMessage());
+    private CompletableFuture<List<TableLineage>> analyzeUncachedAsync(QueryInfo queryInfo) {
+        // 압축 후에도 조각 크기를 넘는 쿼리만 나눔 (조각은 원문에서 나누고 조각마다 다시 압축)
+        String promptSql = promptSqlOf(queryInfo);
+        StatementChunker.Chunks chunks = chunking.split(queryInfo, promptSql);
+        if (chunks != null) {
+            return chunking.analyzeAsync(queryInfo, chunks, this::analyzeChunkAsync);
         }
+        return analyzeSingleAsync(queryInfo, promptSql);
+    }
 
-        return lineages;
+    private CompletableFuture<List<TableLineage>> analyzeSingleAsync(QueryInfo queryInfo, String promptSql) {
+        return routing.analyzeAsync(queryInfo, promptSql).thenApply(attempt -> complete(queryInfo, attempt));
     }
 
     /**
-     * 시스템 프롬프트 생성
+     * 긴 쿼리의 조각 하나를 분석 (조각 결과는 조각 SQL 기준으로 캐시됨)
      */
-    private String buildSystemPrompt() {
-        return "You are an expert SQL table lineage analyzer. " +
-               "Analyze the given SQL statement and extract source tables (FROM) and target tables (INSERT/UPDATE/MERGE destination) accurately, then return as JSON. " +
-               "MUST extract only exact table names explicitly written in the SQL - NO guessing, NO abbreviation. " +
-               "Aliases, CTE names, and subqueries are NOT table names.";
+    private CompletableFuture<List<TableLineage>> analyzeChunkAsync(QueryInfo chunk) {
+        List<TableLineage> cached = lookupCache(chunk);
+        return cached != null ? CompletableFuture.completedFuture(cached) : analyzeSingleAsync(chunk, promptSqlOf(chunk));
     }
 
     /**
-     * 사용자 프롬프트 생성
+     * 프롬프트에 넣을 SQL (압축을 쓰면 압축한 SQL, 절감한 토큰 수를 출력하고 통계에 기록)
      */
-    private String buildUserPrompt(String sql) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Analyze the following SQL and return table lineage as JSON.\n\n");
-        sb.append("Response format:\n");
-        sb.append("{\"lineages\":[\n");
-        sb.append("  {\"sourceTable\":\"SOURCE_TABLE_NAME\", \"targetTable\":\"TARGET_TABLE_NAME\"},\n");
-        sb.append("  ...\n");
-        sb.append("]}\n\n");
-        sb.append("CRITICAL RULES:\n");
-        sb.append("1) Identify target tables accurately: INSERT/UPDATE/MERGE/CREATE TABLE AS SELECT\n");
-        sb.append("2) Extract ONLY actual table names from FROM/JOIN clauses:\n");
-        sb.append("   - Aliases are NOT table names (e.g., FROM table_name t ← exclude 't', extract 'table_name')\n");
-        sb.append("   - CTEs (WITH clause) are NOT table names\n");
-        sb.append("   - Subqueries are NOT table names\n");
-        sb.append("3) Remove schema names, use only table names (e.g., SCHEMA.TABLE → TABLE)\n");
-        sb.append("4) Exclude DUAL table\n");
-        sb.append("5) **Extract EXACT table names ONLY**: Do NOT create non-existent table names\n");
-        sb.append("   - Example: If MMAP_COMM_CD_DTL_C exists → MMAP_COMM_CD_DTL_C (exact)\n");
-        sb.append("   - Example: If MMAP_COMM_CD_D does NOT exist in SQL → Do NOT extract it\n");
-        sb.append("   - Do NOT abbreviate or guess table names\n");
-        sb.append("6) Create separate entries for multiple source tables\n");
-        sb.append("7) Remove duplicates\n");
-        sb.append("8) If only SELECT without INSERT/UPDATE, return empty array: {\"lineages\":[]}\n");
-        sb.append("9) Output ONLY JSON, no code fences (```) or explanations\n\n");
-        sb.append("VERIFICATION:\n");
-        sb.append("- Double-check that ALL returned table names actually exist in the SQL below\n");
-        sb.append("- Verify exact spelling of table names\n");
-        sb.append("- Do NOT invent table names based on assumptions or guesses\n\n");
-        sb.append("[SQL]\n");
-        sb.append(sql);
-
-        return sb.toString();
+    private String promptSqlOf(QueryInfo queryInfo) {
+        String sql = queryInfo.getQueryText();
+        if (!promptCompression) {
+            return sql;
+        }
+        String compressed = SqlCompressor.compress(sql);
+        if (compressed.isEmpty() || compressed.length() >= sql.length()) {
+            return sql;
+        }
+        int before = sql.length() / 4;
+        int after = compressed.length() / 4;
+        compressedStatements.incrementAndGet();
+        tokensBeforeCompression.addAndGet(before);
+        tokensAfterCompression.addAndGet(after);
+        System.out.println("🗜️  프롬프트 압축: " + queryInfo.getFilePath() + " (약 " + before + " → " + after + " 토큰, " +
+            (before == 0 ? 0 : (before - after) * 100 / before) + "% 절감)");
+        return compressed;
     }
 
     /**
-     * LLM 응답을 파싱하여 TableLineage 리스트로 변환
+     * 분석 결과 확정 (확정한 결과만 그 모델명으로 캐시에 저장)
+     * 호출 실패나 해석할 수 없는 응답은 결과로 확정하지 않고 예외로 넘김 (저장/저널 기록 대상이 아님)
      */
-    private List<TableLineage> parseResponse(String response, QueryInfo queryInfo) {
-        List<TableLineage> lineages = new ArrayList<>();
-        Set<String> dedup = new HashSet<>();
+    private List<TableLineage> complete(QueryInfo queryInfo, Attempt attempt) {
+        if (!attempt.parsed) {
+            throw new CompletionException(attempt.error != null
+                ? attempt.error
+                : new IOException("LLM 응답을 해석할 수 없습니다 (" + attempt.model + ")"));
+        }
+        if (attempt.fallback) {
+            // 상위 모델도 해석할 수 없는 응답이면 1차 모델의 검증된 계보를 사용 (캐시에는 저장하지 않음)
+            System.out.println("   ✅ 추출된 계보: " + attempt.lineages.size() + "개 (" + attempt.model + ")");
+            return attempt.lineages;
+        }
+        storeCache(queryInfo, attempt.lineages, attempt.model);
+        System.out.println("   ✅ 추출된 계보: " + attempt.lineages.size() + "개");
+        return attempt.lineages;
+    }
 
-        try {
-            if (response == null || response.trim().isEmpty()) {
-                System.err.println("⚠️  LLM 응답이 비어있습니다.");
-                return lineages;
+    /**
+     * 여러 쿼리를 한 요청으로 묶어 분석 (파일이 달라도 됨)
+     * 결과는 입력과 같은 순서의 쿼리별 분석 결과이며, 쿼리가 하나면 단건 분석과 같다.
+     * 쿼리마다 따로 완료되므로 한 쿼리의 실패가 같은 묶음의 다른 쿼리 결과에 영향을 주지 않는다.
+     * 응답에 빠진 쿼리나 응답 파싱에 실패한 묶음은 쿼리별 단건 호출로 다시 분석한다.
+     * 로컬 파서로 해석되거나 캐시에 있는 쿼리는 묶음에서 빼고, 나머지만 요청한다.
+     */
+    public List<CompletableFuture<List<TableLineage>>> analyzePackedAsync(List<QueryInfo> queries) {
+        List<CompletableFuture<List<TableLineage>>> results = new ArrayList<>();
+        List<QueryInfo> misses = new ArrayList<>();
+        List<CompletableFuture<List<TableLineage>>> missResults = new ArrayList<>();
+        for (QueryInfo query : queries) {
+            List<TableLineage> cached = analyzeLocally(query);
+            if (cached == null) {
+                cached = lookupCache(query);
             }
-
-            // 코드펜스 제거 (다양한 형식 지원)
-            String cleaned = response
-                .replace("```json", "")
-                .replace("```JSON", "")
-                .replace("```", "")
-                .trim();
-
-            // JSON 시작 위치 찾기 (설명 텍스트가 앞에 있을 수 있음)
-            int jsonStart = cleaned.indexOf("{");
-            if (jsonStart > 0) {
-                cleaned = cleaned.substring(jsonStart);
+            if (cached != null) {
+                results.add(CompletableFuture.completedFuture(cached));
+                continue;
             }
+            CompletableFuture<List<TableLineage>> pending = new CompletableFuture<>();
+            results.add(pending);
+            misses.add(query);
+            missResults.add(pending);
+        }
 
-            // JSON 끝 위치 찾기 (설명 텍스트가 뒤에 있을 수 있음)
-            int jsonEnd = cleaned.lastIndexOf("}");
-            if (jsonEnd > 0 && jsonEnd < cleaned.length() - 1) {
-                cleaned = cleaned.substring(0, jsonEnd + 1);
-            }
-
-            System.out.println("   🔍 파싱할 JSON: " + cleaned.substring(0, Math.min(200, cleaned.length())) + "...");
-
-            JsonNode rootNode = objectMapper.readTree(cleaned);
-            JsonNode lineagesNode = rootNode.path("lineages");
-
-            if (!lineagesNode.isArray()) {
-                System.err.println("⚠️  'lineages' 필드가 배열이 아닙니다.");
-                System.err.println("   Response: " + cleaned);
-                return lineages;
+        if (misses.size() == 1) {
+            forward(analyzeUncachedAsync(misses.get(0)), missResults.get(0));
+        } else if (!misses.isEmpty()) {
+            List<String> promptSqls = new ArrayList<>();
+            for (QueryInfo query : misses) {
+                promptSqls.add(promptSqlOf(query));
             }
-
-            System.out.println("   📋 LLM이 추출한 테이블: " + lineagesNode.size() + "개");
-
-            for (JsonNode node : lineagesNode) {
-                String sourceTable = node.path("sourceTable").asText("").trim().toUpperCase();
-                String targetTable = node.path("targetTable").asText("").trim().toUpperCase();
-
-                // 빈 값 체크
-                if (sourceTable.isEmpty() || targetTable.isEmpty()) {
-                    System.out.println("   ⏭️  빈 테이블명 건너뜀");
-                    continue;
+            packing.requestAsync(misses, promptSqls).whenComplete((attempts, error) -> {
+                for (int i = 0; i < misses.size(); i++) {
+                    if (error != null) {
+                        missResults.get(i).completeExceptionally(error);
+                    } else {
+                        forward(finishPacked(misses.get(i), attempts.get(i)), missResults.get(i));
+                    }
                 }
+            });
+        }
+        return results;
+    }
 
-                System.out.println("   🔎 검증 중: " + sourceTable + " → " + targetTable);
-
-                // *** 추가 검증: SQL에 실제로 존재하는 테이블명인지 확인 ***
-                if (!isTableInQuery(sourceTable, queryInfo.getQueryText())) {
-                    System.err.println("   ❌ 검증 실패: 소스 테이블 '" + sourceTable + "'가 SQL에 없습니다. 건너뜁니다.");
-                    continue;
-                }
+    /**
+     * 묶음 응답의 쿼리 하나를 확정 (재분석 판단 포함)하고, 응답에 없던 쿼리(null)는 단건으로 분석
+     */
+    private CompletableFuture<List<TableLineage>> finishPacked(QueryInfo queryInfo, Attempt attempt) {
+        if (attempt == null) {
+            return analyzeUncachedAsync(queryInfo);
+        }
+        return routing.finishAsync(queryInfo, attempt).thenApply(finished -> complete(queryInfo, finished));
+    }
 
-                if (!isTableInQuery(targetTable, queryInfo.getQueryText())) {
-                    System.err.println("   ❌ 검증 실패: 타겟 테이블 '" + targetTable + "'가 SQL에 없습니다. 건너뜁니다.");
-                    continue;
-                }
+    private static <T> void forward(CompletableFuture<T> source, CompletableFuture<T> target) {
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                target.completeExceptionally(error);
+            } else {
+                target.complete(value);
+            }
+        });
+    }
 
-                // 중복 체크
-                String key = sourceTable + "|" + targetTable;
-                if (dedup.contains(key)) {
-                    System.out.println("   ⏭️  중복 건너뜀: " + sourceTable + " → " + targetTable);
-                    continue;
-                }
-                dedup.add(key);
+    /**
+     * 요청 크기 산정용 쿼리 토큰 수 추정 (1 토큰 ≈ 4자)
+     */
+    public static int estimateTokens(QueryInfo queryInfo) {
+        return queryInfo.getQueryLength() / 4;
+    }
 
-                System.out.println("   ✅ 검증 성공: " + sourceTable + " → " + targetTable);
+    /**
+     * 로컬 파서로 계보 추출 (해석할 수 없으면 카탈로그 후보로 판정, 그것도 안 되면 null → LLM 분석)
+     * 타겟마다 모든 소스와 짝을 지으며, 소스가 없으면(VALUES 등) 빈 목록
+     */
+    private List<TableLineage> analyzeLocally(QueryInfo queryInfo) {
+        LocalLineageParser.Result parsed = localParserEnabled ? LocalLineageParser.parse(queryInfo.getQueryText()) : null;
+        if (parsed == null) {
+            List<TableLineage> resolved = resolveByCatalog(queryInfo);
+            if (resolved != null) {
+                return resolved;
+            }
+            delegatedToLlm.incrementAndGet();
+            return null;
+        }
+        localParsed.incrementAndGet();
 
-                // TableLineage 생성
+        List<TableLineage> lineages = new ArrayList<>();
+        for (String target : parsed.getTargets()) {
+            for (String source : parsed.getSources()) {
                 lineages.add(new TableLineage(
-                    sourceTable,
-                    targetTable,
+                    source,
+                    target,
                     queryInfo.getFilePath(),
                     queryInfo.getQueryText(),
-                    Config.getLlmModelName()
+                    LOCAL_PARSER_MODEL
                 ));
             }
-
-        } catch (Exception e) {
-            System.err.println("❌ JSON 파싱 실패: " + e.getMessage());
-            System.err.println("   Exception: " + e.getClass().getName());
-            System.err.println("   Full Response:");
-            System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            System.err.println(response);
-            System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         }
-
+        System.out.println("⚡ [" + LOCAL_PARSER_MODEL + "] 로컬 파싱: " + queryInfo.getFilePath() +
+            " (계보 " + lineages.size() + "개)");
         return lineages;
     }
 
     /**
-     * 테이블명이 SQL 쿼리에 실제로 존재하는지 검증
-     * 정규식을 사용하여 단어 경계(\b)를 기준으로 완전 일치만 허용
-     * 예: "MMAP_COMM_CD_D"가 "MMAP_COMM_CD_DTL"과 매칭되지 않도록
+     * 카탈로그 후보만으로 계보 추출 (판단할 수 없으면 null → LLM 분석)
+     * 테이블 위치(FROM/JOIN/INTO/USING/UPDATE/TABLE 뒤)가 둘뿐이고, 그 자리에 카탈로그 타겟 하나와 소스 하나가 있을 때만 사용
      */
-    private boolean isTableInQuery(String tableName, String query) {
-        if (tableName == null || query == null) {
-            return false;
+    private List<TableLineage> resolveByCatalog(QueryInfo queryInfo) {
+        if (!catalog.isEnabled()) {
+            return null;
+        }
+        String sql = queryInfo.getQueryText();
+        TableCatalog.Scan scan = catalog.scan(sql);
+        if (scan.getTargets().size() != 1 || scan.getSources().size() != 1) {
+            return null;
+        }
+        String target = scan.getTargets().iterator().next();
+        String source = scan.getSources().iterator().next();
+        if (target.equals(source) || LineagePrompts.estimateTableCount(sql) != 2) {
+            return null;
         }
+        catalogResolved.incrementAndGet();
+
+        System.out.println("📚 [" + CATALOG_MODEL + "] 카탈로그 판정: " + queryInfo.getFilePath() +
+            " (" + source + " → " + target + ")");
+        return Collections.singletonList(new TableLineage(
+            source,
+            target,
+            queryInfo.getFilePath(),
+            sql,
+            CATALOG_MODEL
+        ));
+    }
 
-        String upperQuery = query.toUpperCase();
-        String upperTable = tableName.toUpperCase();
+    /**
+     * 분석 경로 통계 (리포트/콘솔 출력용, 분석한 쿼리가 없으면 빈 목록)
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        int local = localParsed.get();
+        int resolved = catalogResolved.get();
+        int llm = delegatedToLlm.get();
+        int total = local + resolved + llm;
+        if (total == 0) {
+            return lines;
+        }
+        lines.add("로컬 파서: " + local + "개 (" + (local * 100 / total) + "%)" +
+            (localParserEnabled ? "" : " - 꺼짐 (LOCAL_PARSER_ENABLED=true로 사용)"));
+        if (catalog.isEnabled()) {
+            lines.add("카탈로그 판정: " + resolved + "개 (" + (resolved * 100 / total) + "%), " +
+                "응답 테이블명 보정: " + reader.getCatalogCanonicalized() + "개 - 카탈로그 " + catalog.size() + "개 테이블");
+        }
+        lines.add("LLM 분석 (캐시 적중 포함): " + llm + "개 (" + (llm * 100 / total) + "%)");
+        lines.addAll(chunking.describe());
+        if (compressedStatements.get() > 0) {
+            long before = tokensBeforeCompression.get();
+            long after = tokensAfterCompression.get();
+            lines.add("프롬프트 압축: " + compressedStatements.get() + "개 쿼리, 약 " + before + " → " + after + " 토큰 (" +
+                (before == 0 ? 0 : (before - after) * 100 / before) + "% 절감)");
+        }
+        lines.addAll(routing.describe());
+        return lines;
+    }
 
-        // 정규식으로 단어 경계 체크
-        // \b는 단어 경계를 의미 (공백, 콤마, 괄호, 개행, 탭 등)
-        // Pattern.quote()로 특수문자 이스케이프
-        String regex = "\\b" + Pattern.quote(upperTable) + "\\b";
-        Pattern pattern = Pattern.compile(regex);
+    /**
+     * 크기별 모델 라우팅 통계 (라우팅을 쓰지 않으면 빈 목록)
+     */
+    public List<String> describeRouting() {
+        return routing.describeRouting();
+    }
 
-        if (pattern.matcher(upperQuery).find()) {
-            return true;
+    /**
+     * 캐시에 저장된 결과를 이 쿼리의 계보로 복원 (없으면 null)
+     */
+    private List<TableLineage> lookupCache(QueryInfo queryInfo) {
+        LineageCache cache = LineageCache.shared();
+        if (!cache.isEnabled()) {
+            return null;
+        }
+        // 단계별 라우팅이면 1차 모델 결과, 상위 모델 결과 순으로 찾음 (확정된 결과만 저장되어 있음)
+        String model = null;
+        List<String[]> pairs = null;
+        for (String candidate : routing.candidateModels(estimateTokens(queryInfo))) {
+            pairs = cache.get(cacheKey(queryInfo, candidate));
+            if (pairs != null) {
+                model = candidate;
+                break;
+            }
+        }
+        if (pairs == null) {
+            return null;
         }
 
-        // 스키마.테이블 형식 체크 (예: SCHEMA.TABLE_NAME)
-        // 점(.) 뒤에 테이블명이 오는 경우
-        regex = "\\." + Pattern.quote(upperTable) + "\\b";
-        pattern = Pattern.compile(regex);
+        List<TableLineage> lineages = new ArrayList<>();
+        for (String[] pair : pairs) {
+            lineages.add(new TableLineage(
+                pair[0],
+                pair[1],
+                queryInfo.getFilePath(),
+                queryInfo.getQueryText(),
+                model
+            ));
+        }
+        System.out.println("💾 [" + model + "] 캐시 적중: " + queryInfo.getFilePath() +
+            " (계보 " + lineages.size() + "개)");
+        return lineages;
+    }
 
-        if (pattern.matcher(upperQuery).find()) {
-            return true;
+    private void storeCache(QueryInfo queryInfo, List<TableLineage> lineages, String model) {
+        LineageCache cache = LineageCache.shared();
+        if (!cache.isEnabled()) {
+            return;
         }
+        List<String[]> pairs = new ArrayList<>();
+        for (TableLineage lineage : lineages) {
+            pairs.add(new String[] {lineage.getSourceTable(), lineage.getTargetTable()});
+        }
+        cache.put(cacheKey(queryInfo, model), pairs);
+    }
 
-        return false;
+    private String cacheKey(QueryInfo queryInfo, String model) {
+        // 압축 프롬프트, 카탈로그 후보를 넣은 프롬프트의 결과는 원문 프롬프트의 결과와 따로 저장
+        String version = PROMPT_VERSION + (promptCompression ? "c" : "") + (catalog.isEnabled() ? "k" : "");
+        return LineageCache.keyOf(model, version, queryInfo.getQueryText());
     }
 }
@@ -0,0 +1,407 @@
+package com.tablelineagebuilder.cache;
+
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.sql.SqlFingerprint;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LLM 계보 분석 결과의 디스크 캐시 (내용 주소 방식)
+ *
+ * 키는 정규화한 SQL, 모델명, 프롬프트 버전의 SHA-256이므로 파일 경로가 달라도 같은 쿼리면 재사용된다.
+ * 값은 (소스 테이블, 타겟 테이블) 쌍 목록이며, 파일 경로와 쿼리 원문은 조회한 쪽의 것을 사용한다.
+ *
+ * - 저장소: 추가 전용 세그먼트 파일 한 개 (한 줄에 레코드 하나: 키 TAB 쌍 수 TAB 소스 TAB 타겟 ...)
+ * - 메모리: 키 → 파일 위치 색인 + 최근 조회 결과 LRU
+ * - 용량: 세그먼트가 LLM_CACHE_MAX_BYTES를 넘으면 최근에 쓰인 레코드만 남겨 새 파일로 압축
+ *
+ * 실행 중 비정상 종료로 잘린 마지막 레코드는 다음 실행 시 잘라내고 계속 사용한다.
+ * 모든 메서드는 동기화되어 있어 분석 스레드가 공유해도 안전하다.
+ */
+public class LineageCache implements AutoCloseable {
+
+    private static final String SEGMENT_FILE = "lineage.seg";
+    private static final double COMPACT_TARGET_RATIO = 0.75;
+
+    private static LineageCache shared;
+
+    private final boolean enabled;
+    private final File segment;
+    private final long maxBytes;
+    private final LruMap memory;
+    private final Map<String, Location> index = new HashMap<>();
+
+    private RandomAccessFile file;
+    private long accessClock;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long puts;
+    private long bytesRead;
+    private long bytesWritten;
+    private long evictedRecords;
+
+    private LineageCache(boolean enabled, File directory, long maxBytes, int memoryEntries) {
+        this.enabled = enabled;
+        this.segment = new File(directory, SEGMENT_FILE);
+        this.maxBytes = maxBytes;
+        this.memory = new LruMap(Math.max(1, memoryEntries));
+    }
+
+    /**
+     * 프로세스 공통 캐시 (처음 사용할 때 .env 설정으로 열림)
+     */
+    public static synchronized LineageCache shared() {
+        if (shared == null) {
+            shared = open(Config.isLlmCacheEnabled(), false);
+        }
+        return shared;
+    }
+
+    /**
+     * 실행 옵션으로 공통 캐시를 다시 엶
+     *
+     * @param enabled    false면 조회/저장 모두 하지 않음 (--no-cache)
+     * @param invalidate true면 기존 세그먼트를 지우고 새로 시작 (--invalidate-cache)
+     */
+    public static synchronized LineageCache initShared(boolean enabled, boolean invalidate) {
+        if (shared != null) {
+            shared.close();
+        }
+        shared = open(enabled, invalidate);
+        return shared;
+    }
+
+    private static LineageCache open(boolean enabled, boolean invalidate) {
+        File directory = new File(Config.getLlmCacheDir());
+        if (!enabled) {
+            return new LineageCache(false, directory, 0, 1);
+        }
+        try {
+            return open(directory, Config.getLlmCacheMaxBytes(), Config.getLlmCacheMemoryEntries(), invalidate);
+        } catch (IOException e) {
+            System.err.println("Warning: LLM 결과 캐시를 열 수 없습니다. 캐시 없이 진행합니다: " + e.getMessage());
+            return new LineageCache(false, directory, 0, 1);
+        }
+    }
+
+    /**
+     * 지정한 디렉토리의 캐시 열기
+     */
+    static LineageCache open(File directory, long maxBytes, int memoryEntries, boolean invalidate) throws IOException {
+        LineageCache cache = new LineageCache(true, directory, maxBytes, memoryEntries);
+        try {
+            cache.load(invalidate);
+            return cache;
+        } catch (IOException e) {
+            cache.closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * 캐시 키 계산
+     * SQL은 공백 차이를 무시하도록 연속된 공백을 하나로 줄여서 해시한다
+     */
+    public static String keyOf(String modelName, String promptVersion, String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+
+        return SqlFingerprint.sha256Hex(promptVersion + "\n" + modelName + "\n" + normalized);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 캐시된 (소스, 타겟) 쌍 목록 조회 (없으면 null)
+     */
+    public synchronized List<String[]> get(String key) {
+        if (!enabled || file == null) {
+            return null;
+        }
+
+        List<String[]> pairs = memory.get(key);
+        Location location = index.get(key);
+        if (pairs != null) {
+            memoryHits++;
+            if (location != null) {
+                location.lastUsed = ++accessClock;
+            }
+            return pairs;
+        }
+
+        if (location == null) {
+            misses++;
+            return null;
+        }
+
+        try {
+            byte[] record = new byte[location.length];
+            file.seek(location.offset);
+            file.readFully(record);
+            bytesRead += record.length;
+            pairs = decode(new String(record, StandardCharsets.UTF_8).trim(), key);
+        } catch (IOException e) {
+            System.err.println("Warning: LLM 결과 캐시 읽기 실패: " + e.getMessage());
+            pairs = null;
+        }
+
+        if (pairs == null) {
+            index.remove(key);
+            misses++;
+            return null;
+        }
+
+        diskHits++;
+        location.lastUsed = ++accessClock;
+        memory.put(key, pairs);
+        return pairs;
+    }
+
+    /**
+     * 분석 결과 저장 (같은 키가 있으면 새 레코드가 우선)
+     */
+    public synchronized void put(String key, List<String[]> pairs) {
+        if (!enabled || file == null) {
+            return;
+        }
+
+        List<String[]> copy = Collections.unmodifiableList(new ArrayList<>(pairs));
+        memory.put(key, copy);
+        puts++;
+
+        try {
+            byte[] record = encode(key, copy).getBytes(StandardCharsets.UTF_8);
+            long offset = file.length();
+            file.seek(offset);
+            file.write(record);
+            bytesWritten += record.length;
+            index.put(key, new Location(offset, record.length, ++accessClock));
+
+            if (file.length() > maxBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: LLM 결과 캐시 쓰기 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 통계 요약 (리포트/콘솔 출력용, 비활성화 시 빈 목록)
+     */
+    public synchronized List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!enabled) {
+            return lines;
+        }
+        long lookups = memoryHits + diskHits + misses;
+        long hits = memoryHits + diskHits;
+        lines.add("캐시 파일: " + segment.getPath() + " (" + segment.length() + " bytes, " + index.size() + "건)");
+        lines.add("조회: " + lookups + "회, 적중: " + hits + "회 (메모리 " + memoryHits + ", 디스크 " + diskHits +
+            "), 미적중: " + misses + "회" + (lookups > 0 ? " (적중률 " + (hits * 100 / lookups) + "%)" : ""));
+        lines.add("저장: " + puts + "건, 읽은 바이트: " + bytesRead + ", 쓴 바이트: " + bytesWritten);
+        if (evictedRecords > 0) {
+            lines.add("용량 초과로 제거된 레코드: " + evictedRecords + "건");
+        }
+        return lines;
+    }
+
+    public synchronized long getHits() {
+        return memoryHits + diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void load(boolean invalidate) throws IOException {
+        File directory = segment.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("캐시 디렉토리를 만들 수 없습니다: " + directory);
+        }
+        if (invalidate && segment.exists() && !segment.delete()) {
+            throw new IOException("캐시 파일을 지울 수 없습니다: " + segment);
+        }
+
+        file = new RandomAccessFile(segment, "rw");
+        byte[] content = new byte[(int) Math.min(Integer.MAX_VALUE, file.length())];
+        file.readFully(content);
+
+        // 레코드 색인: 줄 단위, 잘리거나 깨진 레코드를 만나면 그 지점부터 버림
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            String line = new String(content, start, i - start, StandardCharsets.UTF_8);
+            int tab = line.indexOf('\t');
+            String key = tab > 0 ? line.substring(0, tab) : null;
+            if (key == null || decode(line, key) == null) {
+                break;
+            }
+            index.put(key, new Location(start, i + 1 - start, ++accessClock));
+            start = i + 1;
+        }
+        if (start < content.length) {
+            System.err.println("Warning: LLM 결과 캐시의 손상된 끝부분(" + (content.length - start) + " bytes)을 잘라냅니다.");
+            file.setLength(start);
+        }
+
+        // 최대 크기를 줄여 다시 실행한 경우
+        if (file.length() > maxBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * 최근에 쓰인 레코드부터 목표 크기까지만 새 세그먼트에 옮겨 적고 교체
+     */
+    private void compact() throws IOException {
+        List<Map.Entry<String, Location>> entries = new ArrayList<>(index.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().lastUsed, a.getValue().lastUsed));
+
+        long target = (long) (maxBytes * COMPACT_TARGET_RATIO);
+        long kept = 0;
+        int keepCount = 0;
+        for (Map.Entry<String, Location> entry : entries) {
+            if (kept + entry.getValue().length > target) {
+                break;
+            }
+            kept += entry.getValue().length;
+            keepCount++;
+        }
+
+        // 다시 읽을 때 순서가 곧 최근 사용 순서가 되도록 오래된 것부터 기록
+        List<Map.Entry<String, Location>> keep = entries.subList(0, keepCount);
+        Collections.reverse(keep);
+
+        File compacted = new File(segment.getPath() + ".tmp");
+        Map<String, Location> newIndex = new HashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+            out.setLength(0);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (Map.Entry<String, Location> entry : keep) {
+                byte[] record = new byte[entry.getValue().length];
+                file.seek(entry.getValue().offset);
+                file.readFully(record);
+                newIndex.put(entry.getKey(), new Location(buffer.size(), record.length, entry.getValue().lastUsed));
+                buffer.write(record);
+            }
+            out.write(buffer.toByteArray());
+        }
+
+        file.close();
+        Files.move(compacted.toPath(), segment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file = new RandomAccessFile(segment, "rw");
+
+        int evicted = index.size() - newIndex.size();
+        evictedRecords += evicted;
+        for (String key : index.keySet()) {
+            if (!newIndex.containsKey(key)) {
+                memory.remove(key);
+            }
+        }
+        index.clear();
+        index.putAll(newIndex);
+        System.out.println("🧹 LLM 결과 캐시 압축: " + evicted + "건 제거, " + file.length() + " bytes");
+    }
+
+    private static String encode(String key, List<String[]> pairs) {
+        StringBuilder sb = new StringBuilder(key).append('\t').append(pairs.size());
+        for (String[] pair : pairs) {
+            sb.append('\t').append(pair[0]).append('\t').append(pair[1]);
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static List<String[]> decode(String line, String expectedKey) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < 2 || !fields[0].equals(expectedKey)) {
+            return null;
+        }
+        int count;
+        try {
+            count = Integer.parseInt(fields[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (fields.length != 2 + count * 2) {
+            return null;
+        }
+        List<String[]> pairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pairs.add(new String[] {fields[2 + i * 2], fields[3 + i * 2]});
+        }
+        return Collections.unmodifiableList(pairs);
+    }
+
+    private void closeQuietly() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // 무시
+            }
+            file = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly();
+    }
+
+    private static final class Location {
+        final long offset;
+        final int length;
+        long lastUsed;
+
+        Location(long offset, int length, long lastUsed) {
+            this.offset = offset;
+            this.length = length;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<String, List<String[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String[]>> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
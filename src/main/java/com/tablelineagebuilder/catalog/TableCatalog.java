@@ -0,0 +1,365 @@
+package com.tablelineagebuilder.catalog;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 웨어하우스 카탈로그(메타스토어에서 내보낸 테이블명 목록)로 만든 테이블명 사전
+ *
+ * 테이블명은 스키마와 따옴표를 뗀 대문자 이름(프롬프트 규칙 3과 같은 형태)으로 저장하고,
+ * 정렬된 간선 배열(CSR) 트라이 하나로 담아 6만 개 규모도 수 MB 안에 들어간다.
+ *
+ * 문장은 한 번만 훑는다. 테이블명은 단어 문자만으로 이루어지고 단어 경계에서만 일치하므로,
+ * 단어마다 트라이를 따라가는 것만으로 (실패 링크 없이) 다중 패턴 검색과 같은 결과를 얻는다.
+ * 일치한 이름이 INTO/UPDATE/TABLE 뒤에 있으면 타겟 후보, FROM/JOIN/USING 뒤에 있으면 소스 후보로 분류한다.
+ *
+ * 파일 형식: 한 줄에 테이블명 하나 (SCHEMA.TABLE 가능, 빈 줄과 '#' 줄 무시, 공백/쉼표 뒤는 무시)
+ * 만든 뒤에는 읽기만 하므로 분석 스레드가 공유해도 안전하다.
+ */
+public final class TableCatalog {
+
+    private static final String[] TARGET_KEYWORDS = {"INTO", "UPDATE", "TABLE"};
+    private static final String[] SOURCE_KEYWORDS = {"FROM", "JOIN", "USING"};
+
+    private static TableCatalog shared;
+
+    private final String source;
+    private final int size;
+    // 노드 n의 간선은 edgeLabels/edgeTargets의 [edgeStart[n], edgeStart[n + 1]) 구간 (문자순 정렬)
+    private final int[] edgeStart;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final boolean[] terminal;
+
+    private TableCatalog(String source, int size, int[] edgeStart, char[] edgeLabels, int[] edgeTargets, boolean[] terminal) {
+        this.source = source;
+        this.size = size;
+        this.edgeStart = edgeStart;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.terminal = terminal;
+    }
+
+    /**
+     * 프로세스 공통 카탈로그 (처음 사용할 때 CATALOG_TABLES_FILE로 읽음, 설정이 없거나 읽지 못하면 빈 카탈로그)
+     */
+    public static synchronized TableCatalog shared() {
+        if (shared == null) {
+            String file = Config.getCatalogTablesFile();
+            if (file.isEmpty()) {
+                shared = build("", Collections.<String>emptyList());
+            } else {
+                try {
+                    shared = load(file);
+                    System.out.println("📚 테이블 카탈로그 로드: " + shared.size + "개 (" + file + ")");
+                } catch (IOException e) {
+                    System.err.println("⚠️  테이블 카탈로그를 읽을 수 없어 사용하지 않습니다: " + file + " (" + e.getMessage() + ")");
+                    shared = build("", Collections.<String>emptyList());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * 카탈로그 파일 읽기
+     */
+    public static TableCatalog load(String file) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int end = 0;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end)) && line.charAt(end) != ',') {
+                    end++;
+                }
+                names.add(line.substring(0, end));
+            }
+        }
+        return build(file, names);
+    }
+
+    /**
+     * 테이블명 목록으로 사전 생성 (형식에 맞지 않는 이름은 버림)
+     */
+    public static TableCatalog build(String source, List<String> names) {
+        // 만드는 동안은 자식/형제 연결 리스트로 두고, 끝나면 정렬된 간선 배열로 바꿈
+        Trie trie = new Trie();
+        int size = 0;
+        for (String name : names) {
+            String canonical = canonicalName(name);
+            if (canonical != null && trie.insert(canonical)) {
+                size++;
+            }
+        }
+        return trie.compact(source, size);
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 카탈로그에 있는 테이블이면 정규화한 이름, 없으면 null
+     * (스키마/따옴표/대소문자 차이 흡수: "dw"."cust_m", DW.CUST_M, [cust_m] → CUST_M)
+     */
+    public String canonicalize(String name) {
+        String canonical = canonicalName(name);
+        return canonical != null && contains(canonical) ? canonical : null;
+    }
+
+    /**
+     * 문장을 한 번 훑어 카탈로그 테이블 참조를 찾음
+     */
+    public Scan scan(String sql) {
+        Scan scan = new Scan();
+        if (!isEnabled() || sql == null) {
+            return scan;
+        }
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            if (!isWord(sql.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            int node = 0;
+            while (i < n && isWord(sql.charAt(i))) {
+                if (node >= 0) {
+                    node = child(node, Character.toUpperCase(sql.charAt(i)));
+                }
+                i++;
+            }
+            // 점 앞의 단어는 스키마/별칭 한정자
+            if (node >= 0 && terminal[node] && (i == n || sql.charAt(i) != '.')) {
+                scan.add(sql.substring(start, i).toUpperCase(), precedingKeyword(sql, start));
+            }
+        }
+        return scan;
+    }
+
+    private boolean contains(String canonical) {
+        int node = 0;
+        for (int i = 0; i < canonical.length() && node >= 0; i++) {
+            node = child(node, canonical.charAt(i));
+        }
+        return node >= 0 && terminal[node];
+    }
+
+    private int child(int node, char c) {
+        int index = Arrays.binarySearch(edgeLabels, edgeStart[node], edgeStart[node + 1], c);
+        return index >= 0 ? edgeTargets[index] : -1;
+    }
+
+    /**
+     * 이름(SCHEMA. 접두어, 따옴표 포함) 바로 앞의 단어 (대문자, 없으면 빈 문자열)
+     */
+    private static String precedingKeyword(String sql, int nameStart) {
+        int i = nameStart;
+        // 스키마 접두어와 따옴표를 건너뜀
+        while (i > 0) {
+            char c = sql.charAt(i - 1);
+            if (isWord(c) || c == '.' || c == '"' || c == '`' || c == '[' || c == ']') {
+                i--;
+            } else {
+                break;
+            }
+        }
+        while (i > 0 && Character.isWhitespace(sql.charAt(i - 1))) {
+            i--;
+        }
+        int end = i;
+        while (i > 0 && isWord(sql.charAt(i - 1))) {
+            i--;
+        }
+        return sql.substring(i, end).toUpperCase();
+    }
+
+    /**
+     * 사전에 넣는 형태로 정규화 (따옴표 제거, 마지막 점 뒤 이름만, 대문자). 단어 문자만 남지 않으면 null
+     */
+    static String canonicalName(String name) {
+        if (name == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '.') {
+                sb.setLength(0);
+            } else if (c != '"' && c != '`' && c != '[' && c != ']') {
+                sb.append(c);
+            }
+        }
+        String canonical = sb.toString().trim().toUpperCase();
+        if (canonical.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < canonical.length(); i++) {
+            if (!isWord(canonical.charAt(i))) {
+                return null;
+            }
+        }
+        return canonical;
+    }
+
+    private static boolean isWord(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean matchesAny(String word, String[] keywords) {
+        for (String keyword : keywords) {
+            if (keyword.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 문장 하나의 카탈로그 테이블 참조 (등장 순서)
+     */
+    public static final class Scan {
+        private final Set<String> tables = new LinkedHashSet<>();
+        private final Set<String> targets = new LinkedHashSet<>();
+        private final Set<String> sources = new LinkedHashSet<>();
+
+        private void add(String table, String keyword) {
+            tables.add(table);
+            if (matchesAny(keyword, TARGET_KEYWORDS)) {
+                targets.add(table);
+            } else if (matchesAny(keyword, SOURCE_KEYWORDS)) {
+                sources.add(table);
+            }
+        }
+
+        /**
+         * 위치와 관계없이 문장에 나온 카탈로그 테이블
+         */
+        public Set<String> getTables() {
+            return tables;
+        }
+
+        /**
+         * INTO/UPDATE/TABLE 바로 뒤에 나온 카탈로그 테이블
+         */
+        public Set<String> getTargets() {
+            return targets;
+        }
+
+        /**
+         * FROM/JOIN/USING 바로 뒤에 나온 카탈로그 테이블
+         */
+        public Set<String> getSources() {
+            return sources;
+        }
+    }
+
+    /**
+     * 사전을 만드는 동안만 쓰는 트라이 (자식/형제 연결 리스트)
+     */
+    private static final class Trie {
+        private int nodes = 1;
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private char[] labels = new char[1024];
+        private boolean[] terminal = new boolean[1024];
+
+        Trie() {
+            Arrays.fill(firstChild, -1);
+            Arrays.fill(nextSibling, -1);
+        }
+
+        /**
+         * @return 새 이름이면 true (이미 있으면 false)
+         */
+        boolean insert(String name) {
+            int node = 0;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                int child = firstChild[node];
+                while (child >= 0 && labels[child] != c) {
+                    child = nextSibling[child];
+                }
+                if (child < 0) {
+                    child = newNode(c);
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            if (terminal[node]) {
+                return false;
+            }
+            terminal[node] = true;
+            return true;
+        }
+
+        private int newNode(char label) {
+            if (nodes == labels.length) {
+                int capacity = nodes * 2;
+                firstChild = grow(firstChild, capacity);
+                nextSibling = grow(nextSibling, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+            }
+            labels[nodes] = label;
+            return nodes++;
+        }
+
+        private static int[] grow(int[] array, int capacity) {
+            int[] grown = Arrays.copyOf(array, capacity);
+            Arrays.fill(grown, array.length, capacity, -1);
+            return grown;
+        }
+
+        /**
+         * 노드별 간선을 문자순으로 정렬해 하나의 배열로 모음
+         */
+        TableCatalog compact(String source, int size) {
+            int[] edgeStart = new int[nodes + 1];
+            char[] edgeLabels = new char[nodes - 1];
+            int[] edgeTargets = new int[nodes - 1];
+            int edges = 0;
+            for (int node = 0; node < nodes; node++) {
+                edgeStart[node] = edges;
+                for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                    // 삽입 정렬 (노드당 자식 수는 문자 종류 수 이하)
+                    int j = edges++;
+                    while (j > edgeStart[node] && edgeLabels[j - 1] > labels[child]) {
+                        edgeLabels[j] = edgeLabels[j - 1];
+                        edgeTargets[j] = edgeTargets[j - 1];
+                        j--;
+                    }
+                    edgeLabels[j] = labels[child];
+                    edgeTargets[j] = child;
+                }
+            }
+            edgeStart[nodes] = edges;
+            return new TableCatalog(source, size, edgeStart, edgeLabels, edgeTargets, Arrays.copyOf(terminal, nodes));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * LLM 동시 호출 수를 스스로 조절하는 AIMD 제어기
+ *
+ * - 한도까지 요청이 찬 상태에서 응답이 정상이면 한도를 조금씩 늘림 (한도만큼 응답마다 +1)
+ * - 429/503 등 과부하 응답이나 타임아웃이면 한도를 곱셈으로 줄임 (기본 절반)
+ * - (LLM_LATENCY_BACKOFF=true일 때만) 응답 지연이 최근 최소 지연의 허용 배수를 넘으면 한도를 완만하게 줄임
+ *   요청 크기가 수백~수십만 토큰으로 다양하고 스트리밍은 끝날 때까지 허가를 잡고 있어,
+ *   지연만으로는 과부하와 큰 요청을 구분할 수 없으므로 기본은 과부하 응답만 감소 신호로 사용
+ *
+ * 한 번 줄인 뒤에는 그 이전에 시작된 요청의 결과로 다시 줄이지 않는다 (epoch 비교).
+ * 서버 게이트웨이를 공유하므로 프로세스 안의 모든 LLMClient가 하나의 인스턴스를 사용한다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int DECISION_HISTORY = 20;
+    private static final int LATENCY_WINDOW = 100;
+    private static final int MIN_SAMPLES_FOR_LATENCY = 10;
+
+    private final boolean enabled;
+    private final boolean latencyBackoff;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final double latencyBackoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long epoch;
+    private long overloadCount;
+
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private final long[] latencySamples = new long[LATENCY_WINDOW];
+    private int sampleCount;
+    private int sampleIndex;
+    private final Deque<String> decisions = new ArrayDeque<>();
+
+    public AdaptiveConcurrencyLimiter(boolean enabled, int initialLimit, int minLimit, int maxLimit, boolean latencyBackoff,
+                                      double latencyTolerance, double backoffRatio, double latencyBackoffRatio) {
+        this.enabled = enabled;
+        this.latencyBackoff = latencyBackoff;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.latencyBackoffRatio = latencyBackoffRatio;
+    }
+
+    /**
+     * .env 설정으로 생성 (LLM_ADAPTIVE_CONCURRENCY=false면 제한 없이 통과)
+     */
+    public static AdaptiveConcurrencyLimiter fromConfig() {
+        return new AdaptiveConcurrencyLimiter(
+            Config.isLlmAdaptiveConcurrency(),
+            Config.getLlmConcurrencyInitial(),
+            Config.getLlmConcurrencyMin(),
+            Config.getLlmConcurrencyMax(),
+            Config.isLlmLatencyBackoff(),
+            Config.getLlmLatencyTolerance(),
+            Config.getLlmBackoffRatio(),
+            Config.getLlmLatencyBackoffRatio()
+        );
+    }
+
+    /**
+     * 호출 허가를 비동기로 요청
+     * 한도에 여유가 있으면 즉시, 없으면 앞선 요청이 끝날 때 완료됨
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+        synchronized (this) {
+            if (!enabled || inFlight < currentLimit()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit(epoch, inFlight >= currentLimit()));
+            }
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * 호출 허가를 받을 때까지 대기
+     */
+    public Permit acquire() throws InterruptedIOException {
+        CompletableFuture<Permit> waiter = acquireAsync();
+        try {
+            return waiter.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!waiter.cancel(false)) {
+                // 취소 직전에 허가가 나왔으면 반납
+                waiter.join().ignore();
+            }
+            throw new InterruptedIOException("LLM 호출 허가 대기 중 인터럽트");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void complete(Permit permit, long latencyMs, IOException failure) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+
+        synchronized (this) {
+            inFlight--;
+
+            if (enabled && latencyMs >= 0) {
+                if (failure != null) {
+                    if (isOverload(failure)) {
+                        overloadCount++;
+                        decrease(permit, backoffRatio, describe(failure));
+                    }
+                } else {
+                    onSuccess(permit, latencyMs);
+                }
+            }
+
+            while (!waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                granted.add(waiters.poll());
+            }
+        }
+
+        // 대기자의 후속 작업이 락을 잡은 채 실행되지 않도록 락 밖에서 완료
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit next;
+            synchronized (this) {
+                next = new Permit(epoch, inFlight >= currentLimit());
+            }
+            if (!waiter.complete(next)) {
+                // 이미 취소된 대기자: 받은 몫을 돌려줌
+                next.ignore();
+            }
+        }
+    }
+
+    private void onSuccess(Permit permit, long latencyMs) {
+        if (latencyBackoff) {
+            latencySamples[sampleIndex] = latencyMs;
+            sampleIndex = (sampleIndex + 1) % LATENCY_WINDOW;
+            sampleCount = Math.min(sampleCount + 1, LATENCY_WINDOW);
+
+            long baseline = minLatency();
+            if (sampleCount >= MIN_SAMPLES_FOR_LATENCY && latencyMs > baseline * latencyTolerance) {
+                decrease(permit, latencyBackoffRatio,
+                    "지연 " + latencyMs + "ms > 기준 " + baseline + "ms x " + latencyTolerance);
+                return;
+            }
+        }
+
+        // 한도까지 요청이 차 있었을 때만 증가 (여유가 있는데 늘려봐야 의미 없음)
+        if (permit.saturated && currentLimit() < maxLimit) {
+            int before = currentLimit();
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            if (currentLimit() != before) {
+                recordDecision(before, currentLimit(), "정상 응답 (지연 " + latencyMs + "ms)");
+            }
+        }
+    }
+
+    private void decrease(Permit permit, double ratio, String reason) {
+        if (permit.epoch != epoch) {
+            // 직전 감소 이전에 시작된 요청: 이미 반영된 과부하
+            return;
+        }
+        int before = currentLimit();
+        limit = Math.max(minLimit, limit * ratio);
+        epoch++;
+        recordDecision(before, currentLimit(), reason);
+    }
+
+    private void recordDecision(int before, int after, String reason) {
+        String decision = new SimpleDateFormat("HH:mm:ss").format(new Date()) +
+            " 한도 " + before + " → " + after + " (" + reason + ")";
+        decisions.addLast(decision);
+        if (decisions.size() > DECISION_HISTORY) {
+            decisions.removeFirst();
+        }
+        System.out.println("🔧 LLM 동시 호출 " + decision);
+    }
+
+    private static boolean isOverload(IOException failure) {
+        if (failure instanceof LLMHttpException) {
+            return ((LLMHttpException) failure).isOverload();
+        }
+        // 읽기/연결 타임아웃 (SocketTimeoutException 포함)
+        return failure instanceof InterruptedIOException;
+    }
+
+    private static String describe(IOException failure) {
+        if (failure instanceof LLMHttpException) {
+            return "HTTP " + ((LLMHttpException) failure).getStatusCode();
+        }
+        return "타임아웃";
+    }
+
+    private long minLatency() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < sampleCount; i++) {
+            min = Math.min(min, latencySamples[i]);
+        }
+        return min;
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int getLimit() {
+        return currentLimit();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    public synchronized long getOverloadCount() {
+        return overloadCount;
+    }
+
+    /**
+     * 최근 한도 변경 이력 (오래된 순)
+     */
+    public synchronized List<String> getRecentDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    /**
+     * 호출 허가
+     * 요청이 끝나면 success/failure/ignore 중 하나를 정확히 한 번 호출해야 함
+     */
+    public final class Permit {
+        private final long epoch;
+        private final boolean saturated;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(long epoch, boolean saturated) {
+            this.epoch = epoch;
+            this.saturated = saturated;
+        }
+
+        public void success() {
+            complete(this, elapsedMs(), null);
+        }
+
+        public void failure(IOException e) {
+            complete(this, elapsedMs(), e);
+        }
+
+        /**
+         * 결과를 한도 조정에 반영하지 않고 반납
+         */
+        public void ignore() {
+            complete(this, -1, null);
+        }
+
+        private long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tablelineagebuilder.client;
+
+/**
+ * 요청마다 달라지는 호출 옵션 (출력 토큰 상한, 응답 JSON 스키마)
+ *
+ * 출력 토큰 상한은 설정값(LLM_MAX_TOKENS/LLM_MAX_COMPLETION_TOKENS)을 넘지 않게 잘라 쓴다.
+ * 스키마를 서버에 어떻게 알릴지(response_format 사용 여부)는 LLM_RESPONSE_FORMAT 설정을 따른다.
+ */
+public final class CompletionOptions {
+
+    public static final CompletionOptions DEFAULT = new CompletionOptions(0, null, null);
+
+    private final int maxOutputTokens;
+    private final String schemaName;
+    private final String schemaJson;
+
+    /**
+     * @param maxOutputTokens 출력 토큰 상한 (0이면 설정값)
+     * @param schemaName      응답 스키마 이름 (json_schema 모드에서 사용)
+     * @param schemaJson      응답 JSON 스키마 (없으면 null)
+     */
+    public CompletionOptions(int maxOutputTokens, String schemaName, String schemaJson) {
+        this.maxOutputTokens = maxOutputTokens;
+        this.schemaName = schemaName;
+        this.schemaJson = schemaJson;
+    }
+
+    public int getMaxOutputTokens() {
+        return maxOutputTokens;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public String getSchemaJson() {
+        return schemaJson;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tablelineagebuilder.client;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * GPT-4o, GPT-4o-mini 계열 모델 호출 클라이언트
@@ -8,15 +10,42 @@ import java.io.IOException;
  */
 public class GPT4Client extends LLMClient {
 
+    public GPT4Client() {
+        super();
+    }
+
+    public GPT4Client(String modelName) {
+        super(modelName);
+    }
+
+    public GPT4Client(String modelName, String serverUrl) {
+        super(modelName, serverUrl);
+    }
+
     @Override
-    public String call(String systemPrompt, String userPrompt) throws IOException {
+    public String call(String systemPrompt, String userPrompt, CompletionOptions options) throws IOException {
         String endpoint = serverUrl + "/v1/chat/completions";
-        String requestBody = buildRequestJson(systemPrompt, userPrompt);
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, false);
         String responseJson = postJson(endpoint, requestBody);
         return extractAssistantContent(responseJson);
     }
 
-    private String buildRequestJson(String systemPrompt, String userPrompt) {
+    @Override
+    public CompletableFuture<String> callAsync(String systemPrompt, String userPrompt, CompletionOptions options) {
+        String endpoint = serverUrl + "/v1/chat/completions";
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, false);
+        return postJsonAsync(endpoint, requestBody).thenApply(this::extractAssistantContent);
+    }
+
+    @Override
+    public CompletableFuture<String> callStreaming(String systemPrompt, String userPrompt, CompletionOptions options,
+                                                   Consumer<String> onDelta) {
+        String endpoint = serverUrl + "/v1/chat/completions";
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, true);
+        return postJsonStreaming(endpoint, requestBody, onDelta);
+    }
+
+    private String buildRequestJson(String systemPrompt, String userPrompt, CompletionOptions options, boolean stream) {
         String sys = jsonEscape(systemPrompt);
         String usr = jsonEscape(userPrompt);
 
@@ -27,8 +56,9 @@ public class GPT4Client extends LLMClient {
                 "    {\"role\":\"user\",\"content\":\"" + usr + "\"}\n" +
                 "  ],\n" +
                 "  \"temperature\": " + temperature + ",\n" +
-                "  \"max_tokens\": " + maxTokens + ",\n" +
-                "  \"stream\": false\n" +
+                "  \"max_tokens\": " + outputTokens(options, maxTokens) + ",\n" +
+                responseFormatJson(options) +
+                "  \"stream\": " + stream + "\n" +
                 "}";
     }
 }
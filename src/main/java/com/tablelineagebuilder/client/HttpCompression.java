@@ -0,0 +1,86 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LLM 요청/응답 본문의 gzip 처리
+ * 프롬프트에 수백 KB의 SQL이 실리므로 요청 본문 압축은 설정으로 켤 수 있다.
+ */
+final class HttpCompression {
+
+    static final String GZIP = "gzip";
+
+    private static final boolean GZIP_REQUEST = Config.isLlmGzipRequest();
+    private static final int GZIP_REQUEST_MIN_BYTES = Config.getLlmGzipRequestMinBytes();
+
+    private HttpCompression() {
+    }
+
+    /**
+     * 전송할 요청 본문
+     */
+    static final class RequestBody {
+        final byte[] bytes;
+        final boolean gzipped;
+
+        private RequestBody(byte[] bytes, boolean gzipped) {
+            this.bytes = bytes;
+            this.gzipped = gzipped;
+        }
+    }
+
+    /**
+     * JSON 요청 본문을 UTF-8로 인코딩하고, 설정에 따라 일정 크기 이상이면 gzip 압축
+     */
+    static RequestBody encodeRequest(String body) throws IOException {
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        if (!GZIP_REQUEST || raw.length < GZIP_REQUEST_MIN_BYTES) {
+            return new RequestBody(raw, false);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(raw);
+        }
+        return new RequestBody(out.toByteArray(), true);
+    }
+
+    /**
+     * 응답 스트림을 끝까지 읽고 닫음 (끝까지 읽어야 연결이 풀로 돌아감)
+     */
+    static String readBody(InputStream in, String contentEncoding) throws IOException {
+        try (InputStream body = isGzip(contentEncoding) ? new GZIPInputStream(in, 8192) : in) {
+            return new String(readAll(body), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 이미 받은 응답 바이트를 문자열로 변환
+     */
+    static String decode(byte[] bytes, String contentEncoding) throws IOException {
+        if (isGzip(contentEncoding)) {
+            return readBody(new ByteArrayInputStream(bytes), contentEncoding);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+        byte[] buffer = new byte[16384];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,43 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+
+/**
+ * LLM 서버 연결 재사용(keep-alive) 설정
+ *
+ * HttpURLConnection과 java.net.http 모두 JDK 내부 연결 풀을 사용하므로,
+ * 첫 연결 전에 풀 크기를 시스템 속성(http.maxConnections, jdk.httpclient.connectionPoolSize)으로 지정한다.
+ * 실행 시 -D로 직접 지정한 값이 있으면 그대로 둔다.
+ *
+ * 유휴 연결 유지 시간은 지정하지 않고 JDK 기본값을 따른다
+ * (HttpURLConnection은 서버의 Keep-Alive 헤더, 없으면 5초 / java.net.http는 JDK 버전별 기본값).
+ */
+final class HttpConnectionPool {
+
+    private static boolean configured;
+
+    private HttpConnectionPool() {
+    }
+
+    static synchronized void configure() {
+        if (configured) {
+            return;
+        }
+        configured = true;
+
+        String poolSize = String.valueOf(Config.getLlmHttpPoolSize());
+
+        // HttpURLConnection: 목적지별 유휴 연결 수
+        setIfAbsent("http.keepAlive", "true");
+        setIfAbsent("http.maxConnections", poolSize);
+
+        // java.net.http: 전체 유휴 연결 수
+        setIfAbsent("jdk.httpclient.connectionPoolSize", poolSize);
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
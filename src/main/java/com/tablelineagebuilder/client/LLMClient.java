@@ -1,40 +1,120 @@
 package com.tablelineagebuilder.client;
 
 import com.tablelineagebuilder.config.Config;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * LLM API 호출을 담당하는 추상 클래스
  * gpt-4o 계열과 o3 계열의 호출 방식이 다르므로 분리
+ * 설정값은 생성 시 고정되고 요청마다 별도 연결을 사용하므로 스레드 간 공유 가능
+ *
+ * - call: HttpURLConnection 블로킹 호출
+ * - callAsync: CompletableFuture 기반 비동기 호출 (Java 11 이상은 java.net.http)
+ * - callStreaming: "stream": true 요청으로 SSE 조각을 받는 대로 전달
+ * 세 호출 모두 CompletionOptions로 요청별 출력 토큰 상한과 응답 스키마를 지정할 수 있음
  */
 public abstract class LLMClient {
 
+    // 서버 게이트웨이를 공유하므로 모든 클라이언트가 같은 제어기를 사용
+    private static final AdaptiveConcurrencyLimiter CONCURRENCY_LIMITER = AdaptiveConcurrencyLimiter.fromConfig();
+
+    // 동기 호출은 HttpURLConnection, 비동기 호출은 실행 환경에 맞는 전송 계층 사용
+    private static final UrlConnectionTransport BLOCKING_TRANSPORT = new UrlConnectionTransport();
+    private static final LLMTransport ASYNC_TRANSPORT = LLMTransport.createAsync();
+
     protected final String serverUrl;
     protected final String modelName;
     protected final int timeoutMs;
     protected final double temperature;
     protected final int maxTokens;
     protected final int maxCompletionTokens;
+    protected final String responseFormat;
 
     public LLMClient() {
-        this.serverUrl = Config.getLlmServerUrl();
-        this.modelName = Config.getLlmModelName();
+        this(Config.getLlmModelName());
+    }
+
+    /**
+     * 지정한 모델로 호출하는 클라이언트 (단계별 라우팅처럼 한 실행에서 여러 모델을 쓸 때)
+     */
+    public LLMClient(String modelName) {
+        this(modelName, Config.getLlmServerUrl());
+    }
+
+    /**
+     * 지정한 서버의 모델로 호출하는 클라이언트 (모델 프로필마다 엔드포인트가 다를 때)
+     */
+    public LLMClient(String modelName, String serverUrl) {
+        this.serverUrl = serverUrl;
+        this.modelName = modelName;
         this.timeoutMs = Config.getLlmTimeout();
         this.temperature = Config.getLlmTemperature();
         this.maxTokens = Config.getLlmMaxTokens();
         this.maxCompletionTokens = Config.getLlmMaxCompletionTokens();
+        this.responseFormat = Config.getLlmResponseFormat();
+    }
+
+    public String getModelName() {
+        return modelName;
     }
 
     /**
      * LLM에 프롬프트를 보내고 응답을 받음
      */
-    public abstract String call(String systemPrompt, String userPrompt) throws IOException;
+    public String call(String systemPrompt, String userPrompt) throws IOException {
+        return call(systemPrompt, userPrompt, CompletionOptions.DEFAULT);
+    }
+
+    public abstract String call(String systemPrompt, String userPrompt, CompletionOptions options) throws IOException;
+
+    /**
+     * LLM에 프롬프트를 보내고 응답을 비동기로 받음
+     * 실패 시 IOException(LLMHttpException 등)을 원인으로 하는 예외로 완료됨
+     */
+    public CompletableFuture<String> callAsync(String systemPrompt, String userPrompt) {
+        return callAsync(systemPrompt, userPrompt, CompletionOptions.DEFAULT);
+    }
+
+    public abstract CompletableFuture<String> callAsync(String systemPrompt, String userPrompt, CompletionOptions options);
+
+    /**
+     * 스트리밍 모드로 호출
+     * assistant content 조각이 도착할 때마다 onDelta에 순서대로 전달하고, 응답이 끝나면 전체 content로 완료됨
+     */
+    public CompletableFuture<String> callStreaming(String systemPrompt, String userPrompt, Consumer<String> onDelta) {
+        return callStreaming(systemPrompt, userPrompt, CompletionOptions.DEFAULT, onDelta);
+    }
+
+    public abstract CompletableFuture<String> callStreaming(String systemPrompt, String userPrompt, CompletionOptions options,
+                                                            Consumer<String> onDelta);
+
+    /**
+     * 이 요청의 출력 토큰 상한 (요청별 상한이 있으면 설정값과 비교해 작은 값)
+     */
+    protected int outputTokens(CompletionOptions options, int configured) {
+        int requested = options.getMaxOutputTokens();
+        return requested > 0 ? Math.min(requested, configured) : configured;
+    }
+
+    /**
+     * 요청 본문에 넣을 response_format 항목 (붙이지 않으면 빈 문자열, 붙이면 끝에 ",\n" 포함)
+     * - json_object: JSON 모드만 켬
+     * - json_schema: 스키마로 응답 구조를 강제 (스키마가 없는 요청은 json_object)
+     */
+    protected String responseFormatJson(CompletionOptions options) {
+        if ("json_schema".equals(responseFormat) && options.getSchemaJson() != null) {
+            return "  \"response_format\": {\"type\":\"json_schema\",\"json_schema\":{\"name\":\"" +
+                options.getSchemaName() + "\",\"strict\":true,\"schema\":" + options.getSchemaJson() + "}},\n";
+        }
+        if ("json_object".equals(responseFormat) || "json_schema".equals(responseFormat)) {
+            return "  \"response_format\": {\"type\":\"json_object\"},\n";
+        }
+        return "";
+    }
 
     /**
      * 응답 JSON에서 assistant content 추출
@@ -77,44 +157,121 @@ public abstract class LLMClient {
 
     /**
      * HTTP POST 요청 실행
+     * 동시 호출 제어기의 허가를 받은 뒤 요청하고, 지연/응답 코드를 제어기에 알림
      */
     protected String postJson(String urlStr, String body) throws IOException {
-        URL url = new URL(urlStr);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        AdaptiveConcurrencyLimiter.Permit permit = CONCURRENCY_LIMITER.acquire();
         try {
-            conn.setRequestMethod("POST");
-            conn.setConnectTimeout(timeoutMs);
-            conn.setReadTimeout(timeoutMs);
-            conn.setDoOutput(true);
-            conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            conn.setRequestProperty("Accept", "application/json");
-
-            try (OutputStreamWriter w = new OutputStreamWriter(conn.getOutputStream(), StandardCharsets.UTF_8)) {
-                w.write(body);
-                w.flush();
+            String response = BLOCKING_TRANSPORT.post(urlStr, body, timeoutMs);
+            permit.success();
+            return response;
+        } catch (IOException e) {
+            permit.failure(e);
+            throw e;
+        } catch (RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+    }
+
+    /**
+     * HTTP POST 요청을 비동기로 실행
+     * 제어기 허가를 기다리는 동안에도 스레드를 점유하지 않음
+     */
+    protected CompletableFuture<String> postJsonAsync(String urlStr, String body) {
+        return CONCURRENCY_LIMITER.acquireAsync().thenCompose(permit -> {
+            CompletableFuture<String> response;
+            try {
+                response = ASYNC_TRANSPORT.postAsync(urlStr, body, timeoutMs);
+            } catch (RuntimeException e) {
+                permit.ignore();
+                throw e;
             }
+            return response.whenComplete((result, error) -> {
+                if (error == null) {
+                    permit.success();
+                    return;
+                }
+                Throwable cause = unwrap(error);
+                if (cause instanceof IOException) {
+                    permit.failure((IOException) cause);
+                } else {
+                    permit.ignore();
+                }
+            });
+        });
+    }
 
-            int code = conn.getResponseCode();
-            BufferedReader br = new BufferedReader(new InputStreamReader(
-                code >= 200 && code < 300 ? conn.getInputStream() : conn.getErrorStream(),
-                StandardCharsets.UTF_8
-            ));
+    /**
+     * 스트리밍(SSE) HTTP POST 요청을 비동기로 실행
+     * "data: {...}" 줄마다 delta content를 꺼내 onDelta에 넘기고, 누적한 전체 content를 반환
+     */
+    protected CompletableFuture<String> postJsonStreaming(String urlStr, String body, Consumer<String> onDelta) {
+        StringBuilder content = new StringBuilder();
+        StringBuilder plainBody = new StringBuilder();
+        boolean[] sawEvent = {false};
 
-            StringBuilder resp = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                resp.append(line);
+        Consumer<String> onLine = line -> {
+            if (!line.startsWith("data:")) {
+                // event:/id:/주석/빈 줄은 무시. 서버가 stream을 무시하고 일반 JSON을 보낸 경우를 위해 보관
+                if (!sawEvent[0]) {
+                    plainBody.append(line).append('\n');
+                }
+                return;
+            }
+            sawEvent[0] = true;
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                return;
             }
-            br.close();
+            String delta = extractAssistantContent(data);
+            if (delta != null && !delta.isEmpty()) {
+                content.append(delta);
+                onDelta.accept(delta);
+            }
+        };
 
-            if (code < 200 || code >= 300) {
-                throw new IOException("HTTP " + code + " - " + conn.getResponseMessage() + " | " + resp);
+        return CONCURRENCY_LIMITER.acquireAsync().thenCompose(permit -> {
+            CompletableFuture<Void> response;
+            try {
+                response = ASYNC_TRANSPORT.postStreamAsync(urlStr, body, timeoutMs, onLine);
+            } catch (RuntimeException e) {
+                permit.ignore();
+                throw e;
+            }
+            return response.whenComplete((result, error) -> {
+                if (error == null) {
+                    permit.success();
+                    return;
+                }
+                Throwable cause = unwrap(error);
+                if (cause instanceof IOException) {
+                    permit.failure((IOException) cause);
+                } else {
+                    permit.ignore();
+                }
+            });
+        }).thenApply(done -> {
+            if (sawEvent[0]) {
+                return content.toString();
+            }
+            String fallback = extractAssistantContent(plainBody.toString());
+            if (fallback != null && !fallback.isEmpty()) {
+                onDelta.accept(fallback);
             }
+            return fallback;
+        });
+    }
 
-            return resp.toString();
-        } finally {
-            conn.disconnect();
+    /**
+     * CompletableFuture가 감싼 예외에서 원인 추출
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 
     /**
@@ -141,15 +298,39 @@ public abstract class LLMClient {
         return sb.toString();
     }
 
+    /**
+     * 프로세스 공통 동시 호출 제어기 (현재 한도, 최근 결정 조회용)
+     */
+    public static AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return CONCURRENCY_LIMITER;
+    }
+
     /**
      * 팩토리 메서드: 모델명에 따라 적절한 클라이언트 반환
      */
     public static LLMClient create() {
-        String modelName = Config.getLlmModelName();
+        return create(Config.getLlmModelName());
+    }
+
+    /**
+     * 팩토리 메서드: 지정한 모델명에 맞는 클라이언트 반환
+     */
+    public static LLMClient create(String modelName) {
+        return create(modelName, Config.getLlmServerUrl());
+    }
+
+    /**
+     * 팩토리 메서드: 모델 프로필의 엔드포인트와 모델명에 맞는 클라이언트 반환
+     */
+    public static LLMClient create(ModelProfile profile) {
+        return create(profile.getName(), profile.getServerUrl());
+    }
+
+    private static LLMClient create(String modelName, String serverUrl) {
         if (modelName.startsWith("o3")) {
-            return new O3Client();
+            return new O3Client(modelName, serverUrl);
         } else {
-            return new GPT4Client();
+            return new GPT4Client(modelName, serverUrl);
         }
     }
 }
@@ -0,0 +1,30 @@
+package com.tablelineagebuilder.client;
+
+import java.io.IOException;
+
+/**
+ * LLM 서버가 2xx 이외의 응답 코드를 반환한 경우
+ * 동시성 제어기가 과부하 응답(429/503 등)을 구분할 수 있도록 상태 코드를 함께 전달
+ */
+public class LLMHttpException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public LLMHttpException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 서버 과부하를 의미하는 응답인지 여부
+     */
+    public boolean isOverload() {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+}
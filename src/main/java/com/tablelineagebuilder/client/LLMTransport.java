@@ -0,0 +1,57 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * LLM 서버로 JSON을 비동기 전송하는 HTTP 계층
+ *
+ * - Java 11 이상: java.net.http.HttpClient (소수의 스레드로 다수 요청 유지, HTTP/2로 협상되면 다중화)
+ * - Java 8: HttpURLConnection을 작업 스레드에서 실행 (요청마다 스레드 점유)
+ */
+interface LLMTransport {
+
+    /**
+     * JSON POST 요청
+     * 2xx 이외 응답은 LLMHttpException, 타임아웃은 SocketTimeoutException으로 실패 처리
+     */
+    CompletableFuture<String> postAsync(String url, String body, int timeoutMs);
+
+    /**
+     * 스트리밍(SSE) JSON POST 요청
+     * 응답 본문을 줄 단위로 도착하는 즉시 onLine에 전달하고, 본문이 끝나면 완료됨
+     * onLine은 한 스레드에서 순서대로 호출되며, 실패 처리는 postAsync와 같음
+     */
+    CompletableFuture<Void> postStreamAsync(String url, String body, int timeoutMs, Consumer<String> onLine);
+
+    /**
+     * 실행 환경에 맞는 전송 계층 생성
+     * LLM_HTTP_CLIENT=urlconnection이면 Java 11 이상에서도 HttpURLConnection 사용
+     */
+    static LLMTransport createAsync() {
+        if (!"urlconnection".equalsIgnoreCase(Config.getLlmHttpClient()) && isJava11OrLater()) {
+            try {
+                // Java 11 프로필로 빌드된 경우에만 존재하는 클래스
+                return (LLMTransport) Class.forName("com.tablelineagebuilder.client.HttpClientTransport")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Warning: java.net.http 클라이언트를 사용할 수 없습니다. HttpURLConnection을 사용합니다.");
+            }
+        }
+        return new UrlConnectionTransport();
+    }
+
+    static boolean isJava11OrLater() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(version) >= 11;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
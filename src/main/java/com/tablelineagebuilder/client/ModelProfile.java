@@ -0,0 +1,99 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.util.Locale;
+
+/**
+ * 라우팅에 쓰는 모델 정보 (엔드포인트, 컨텍스트 크기, 비용, 예상 지연)
+ *
+ * 값은 .env의 LLM_PROFILE_<모델명>_* 로 덮어쓸 수 있다.
+ * 모델명은 대문자로 바꾸고 영숫자 외 문자를 _로 바꿔 키를 만든다 (예: gpt-4o-mini → LLM_PROFILE_GPT_4O_MINI_CONTEXT_TOKENS).
+ */
+public class ModelProfile {
+
+    // 시스템 프롬프트와 규칙 설명에 쓰이는 토큰 (근사치)
+    private static final int PROMPT_OVERHEAD_TOKENS = 1500;
+
+    private final String name;
+    private final String serverUrl;
+    private final int contextTokens;
+    private final double costPer1kTokens;
+    private final long latencyMs;
+
+    public ModelProfile(String name, String serverUrl, int contextTokens, double costPer1kTokens, long latencyMs) {
+        this.name = name;
+        this.serverUrl = serverUrl;
+        this.contextTokens = contextTokens;
+        this.costPer1kTokens = costPer1kTokens;
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * .env 설정으로 생성 (설정이 없으면 알려진 모델의 기본값)
+     */
+    public static ModelProfile fromConfig(String name) {
+        // 기본값: 컨텍스트 토큰, 입력 1K 토큰당 비용(USD), 예상 지연(ms)
+        int context;
+        double cost;
+        long latency;
+        if (name.startsWith("o3-mini")) {
+            context = 200000; cost = 0.0011; latency = 10000;
+        } else if (name.startsWith("o3")) {
+            context = 200000; cost = 0.002; latency = 20000;
+        } else if (name.startsWith("gpt-4o-mini")) {
+            context = 128000; cost = 0.00015; latency = 2000;
+        } else if (name.startsWith("gpt-4o")) {
+            context = 128000; cost = 0.0025; latency = 4000;
+        } else {
+            context = 128000; cost = 0.001; latency = 5000;
+        }
+
+        String prefix = "LLM_PROFILE_" + name.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_") + "_";
+        return new ModelProfile(
+            name,
+            Config.get(prefix + "URL", Config.getLlmServerUrl()),
+            Integer.parseInt(Config.get(prefix + "CONTEXT_TOKENS", String.valueOf(context))),
+            Double.parseDouble(Config.get(prefix + "COST_PER_1K", String.valueOf(cost))),
+            Long.parseLong(Config.get(prefix + "LATENCY_MS", String.valueOf(latency)))
+        );
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public int getContextTokens() {
+        return contextTokens;
+    }
+
+    public double getCostPer1kTokens() {
+        return costPer1kTokens;
+    }
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    /**
+     * 쿼리에 쓸 수 있는 입력 토큰 수 (컨텍스트 - 최대 출력 토큰 - 프롬프트)
+     */
+    public int getMaxQueryTokens() {
+        int maxOutput = name.startsWith("o3") ? Config.getLlmMaxCompletionTokens() : Config.getLlmMaxTokens();
+        return contextTokens - maxOutput - PROMPT_OVERHEAD_TOKENS;
+    }
+
+    public boolean fits(int queryTokens) {
+        return queryTokens <= getMaxQueryTokens();
+    }
+
+    /**
+     * 입력 토큰 기준 예상 비용 (USD)
+     */
+    public double estimateCost(long queryTokens) {
+        return (queryTokens + PROMPT_OVERHEAD_TOKENS) / 1000.0 * costPer1kTokens;
+    }
+}
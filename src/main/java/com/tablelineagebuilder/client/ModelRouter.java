@@ -0,0 +1,115 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 쿼리 크기에 따라 모델을 고르는 라우터
+ *
+ * LLM_MODEL_PROFILES에 나열한 모델 중 쿼리가 컨텍스트에 들어가는 가장 싼 모델을 고른다
+ * (비용이 같으면 예상 지연이 짧은 모델). 어느 모델에도 들어가지 않으면 컨텍스트가 가장 큰 모델을 쓴다.
+ * 모델마다 클라이언트를 하나씩 만들어 두므로 한 실행 안에서 요청마다 다른 모델로 호출할 수 있다.
+ */
+public class ModelRouter {
+
+    private final List<ModelProfile> profiles;          // 비용, 지연 순
+    private final ModelProfile largest;
+    private final Map<String, LLMClient> clients = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> routedCounts = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> routedTokens = new LinkedHashMap<>();
+    private final AtomicInteger oversized = new AtomicInteger();
+
+    public ModelRouter(List<ModelProfile> profiles) {
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("라우팅할 모델 프로필이 없습니다.");
+        }
+        this.profiles = new ArrayList<>(profiles);
+        this.profiles.sort(Comparator.comparingDouble(ModelProfile::getCostPer1kTokens)
+            .thenComparingLong(ModelProfile::getLatencyMs));
+
+        ModelProfile biggest = this.profiles.get(0);
+        for (ModelProfile profile : this.profiles) {
+            if (profile.getContextTokens() > biggest.getContextTokens()) {
+                biggest = profile;
+            }
+            clients.put(profile.getName(), LLMClient.create(profile));
+            routedCounts.put(profile.getName(), new AtomicInteger());
+            routedTokens.put(profile.getName(), new AtomicLong());
+        }
+        this.largest = biggest;
+    }
+
+    /**
+     * .env 설정으로 생성 (LLM_MODEL_ROUTING=false면 null)
+     */
+    public static ModelRouter fromConfig() {
+        if (!Config.isLlmModelRouting()) {
+            return null;
+        }
+        List<ModelProfile> profiles = new ArrayList<>();
+        for (String name : Config.getLlmModelProfiles().split(",")) {
+            if (!name.trim().isEmpty()) {
+                profiles.add(ModelProfile.fromConfig(name.trim()));
+            }
+        }
+        return new ModelRouter(profiles);
+    }
+
+    /**
+     * 쿼리 토큰 수에 맞는 모델의 클라이언트 (통계에 기록하지 않음, 캐시 조회용)
+     */
+    public LLMClient select(int queryTokens) {
+        return clients.get(profileFor(queryTokens).getName());
+    }
+
+    /**
+     * 쿼리 토큰 수에 맞는 모델의 클라이언트를 고르고 라우팅 통계에 기록
+     */
+    public LLMClient route(int queryTokens) {
+        ModelProfile profile = profileFor(queryTokens);
+        if (!profile.fits(queryTokens)) {
+            oversized.incrementAndGet();
+            System.err.println("⚠️  어느 모델의 컨텍스트에도 들어가지 않는 쿼리입니다 (약 " + queryTokens +
+                " 토큰). 가장 큰 모델(" + profile.getName() + ")로 분석합니다.");
+        }
+        routedCounts.get(profile.getName()).incrementAndGet();
+        routedTokens.get(profile.getName()).addAndGet(queryTokens);
+        return clients.get(profile.getName());
+    }
+
+    private ModelProfile profileFor(int queryTokens) {
+        for (ModelProfile profile : profiles) {
+            if (profile.fits(queryTokens)) {
+                return profile;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * 라우팅 통계 (리포트/콘솔 출력용)
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        double totalCost = 0;
+        for (ModelProfile profile : profiles) {
+            int count = routedCounts.get(profile.getName()).get();
+            long tokens = routedTokens.get(profile.getName()).get();
+            double cost = count == 0 ? 0 : profile.estimateCost(tokens) + profile.estimateCost(0) * (count - 1);
+            totalCost += cost;
+            lines.add(profile.getName() + ": " + count + "개 요청, 쿼리 약 " + tokens + " 토큰, 예상 입력 비용 $" +
+                String.format("%.4f", cost) + " (컨텍스트 " + profile.getContextTokens() / 1000 + "K)");
+        }
+        lines.add("예상 입력 비용 합계: $" + String.format("%.4f", totalCost));
+        if (oversized.get() > 0) {
+            lines.add("컨텍스트 초과 쿼리: " + oversized.get() + "개");
+        }
+        return lines;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tablelineagebuilder.client;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * o3, o3-mini 계열 모델 호출 클라이언트
@@ -8,16 +10,43 @@ import java.io.IOException;
  */
 public class O3Client extends LLMClient {
 
+    public O3Client() {
+        super();
+    }
+
+    public O3Client(String modelName) {
+        super(modelName);
+    }
+
+    public O3Client(String modelName, String serverUrl) {
+        super(modelName, serverUrl);
+    }
+
     @Override
-    public String call(String systemPrompt, String userPrompt) throws IOException {
+    public String call(String systemPrompt, String userPrompt, CompletionOptions options) throws IOException {
         // o3-mini는 별도 엔드포인트 사용
         String endpoint = serverUrl + "/v1/chat/completions-o3mini";
-        String requestBody = buildRequestJson(systemPrompt, userPrompt);
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, false);
         String responseJson = postJson(endpoint, requestBody);
         return extractAssistantContent(responseJson);
     }
 
-    private String buildRequestJson(String systemPrompt, String userPrompt) {
+    @Override
+    public CompletableFuture<String> callAsync(String systemPrompt, String userPrompt, CompletionOptions options) {
+        String endpoint = serverUrl + "/v1/chat/completions-o3mini";
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, false);
+        return postJsonAsync(endpoint, requestBody).thenApply(this::extractAssistantContent);
+    }
+
+    @Override
+    public CompletableFuture<String> callStreaming(String systemPrompt, String userPrompt, CompletionOptions options,
+                                                   Consumer<String> onDelta) {
+        String endpoint = serverUrl + "/v1/chat/completions-o3mini";
+        String requestBody = buildRequestJson(systemPrompt, userPrompt, options, true);
+        return postJsonStreaming(endpoint, requestBody, onDelta);
+    }
+
+    private String buildRequestJson(String systemPrompt, String userPrompt, CompletionOptions options, boolean stream) {
         String sys = jsonEscape(systemPrompt);
         String usr = jsonEscape(userPrompt);
 
@@ -28,8 +57,9 @@ public class O3Client extends LLMClient {
                 "    {\"role\":\"system\",\"content\":\"" + sys + "\"},\n" +
                 "    {\"role\":\"user\",\"content\":\"" + usr + "\"}\n" +
                 "  ],\n" +
-                "  \"max_completion_tokens\": " + maxCompletionTokens + ",\n" +
-                "  \"stream\": false\n" +
+                "  \"max_completion_tokens\": " + outputTokens(options, maxCompletionTokens) + ",\n" +
+                responseFormatJson(options) +
+                "  \"stream\": " + stream + "\n" +
                 "}";
     }
 }
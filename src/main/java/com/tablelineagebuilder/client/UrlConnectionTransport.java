@@ -0,0 +1,156 @@
+package com.tablelineagebuilder.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * HttpURLConnection 기반 전송 계층
+ * 동기 호출(LLMClient.call)과 Java 8 런타임의 비동기 호출에 사용
+ */
+class UrlConnectionTransport implements LLMTransport {
+
+    static {
+        HttpConnectionPool.configure();
+    }
+
+    // 블로킹 호출이므로 비동기 요청마다 스레드 하나를 점유
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "llm-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public CompletableFuture<String> postAsync(String url, String body, int timeoutMs) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                future.complete(post(url, body, timeoutMs));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> postStreamAsync(String url, String body, int timeoutMs, Consumer<String> onLine) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                postStream(url, body, timeoutMs, onLine);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * HTTP POST 요청 실행 (블로킹)
+     *
+     * 응답 본문을 끝까지 읽고 닫으면 JDK가 연결을 keep-alive 풀에 반납하므로
+     * 정상 응답 후에는 disconnect()를 호출하지 않는다. 중간에 실패한 연결만 끊는다.
+     */
+    String post(String urlStr, String body, int timeoutMs) throws IOException {
+        HttpCompression.RequestBody payload = HttpCompression.encodeRequest(body);
+
+        URL url = new URL(urlStr);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        boolean reusable = false;
+        try {
+            conn.setRequestMethod("POST");
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            conn.setRequestProperty("Accept", "application/json");
+            conn.setRequestProperty("Accept-Encoding", HttpCompression.GZIP);
+            if (payload.gzipped) {
+                conn.setRequestProperty("Content-Encoding", HttpCompression.GZIP);
+            }
+            conn.setFixedLengthStreamingMode(payload.bytes.length);
+
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(payload.bytes);
+            }
+
+            int code = conn.getResponseCode();
+            InputStream in = code >= 200 && code < 300 ? conn.getInputStream() : conn.getErrorStream();
+
+            // 본문 없는 오류 응답(429 등)은 getErrorStream()이 null
+            String resp = in != null ? HttpCompression.readBody(in, conn.getContentEncoding()) : "";
+            reusable = true;
+
+            if (code < 200 || code >= 300) {
+                throw new LLMHttpException(code, "HTTP " + code + " - " + conn.getResponseMessage() + " | " + resp);
+            }
+
+            return resp;
+        } finally {
+            if (!reusable) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    /**
+     * 스트리밍(SSE) POST 요청 실행 (블로킹)
+     *
+     * 응답을 줄 단위로 읽는 즉시 onLine에 넘긴다. 읽기 타임아웃은 줄 사이 간격에 적용되므로
+     * 전체 응답이 오래 걸려도 조각이 계속 도착하는 한 끊기지 않는다.
+     * 중간 프록시가 압축을 위해 스트림을 모아두지 않도록 gzip 응답은 요청하지 않는다.
+     */
+    void postStream(String urlStr, String body, int timeoutMs, Consumer<String> onLine) throws IOException {
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+
+        URL url = new URL(urlStr);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        boolean reusable = false;
+        try {
+            conn.setRequestMethod("POST");
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            conn.setRequestProperty("Accept", "text/event-stream");
+            conn.setFixedLengthStreamingMode(payload.length);
+
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(payload);
+            }
+
+            int code = conn.getResponseCode();
+            if (code < 200 || code >= 300) {
+                InputStream err = conn.getErrorStream();
+                String resp = err != null ? HttpCompression.readBody(err, conn.getContentEncoding()) : "";
+                reusable = true;
+                throw new LLMHttpException(code, "HTTP " + code + " - " + conn.getResponseMessage() + " | " + resp);
+            }
+
+            try (BufferedReader br = new BufferedReader(
+                    new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    onLine.accept(line);
+                }
+            }
+            reusable = true;
+        } finally {
+            if (!reusable) {
+                conn.disconnect();
+            }
+        }
+    }
+}
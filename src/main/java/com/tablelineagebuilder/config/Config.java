@@ -55,6 +55,39 @@ public class Config {
         return get("LLM_MODEL_NAME", "gpt-4o-mini");
     }
 
+    public static boolean isLlmTiered() {
+        // 쿼리마다 빠른 모델로 먼저 분석하고, 검증에 실패한 경우에만 상위 모델로 다시 분석
+        return Boolean.parseBoolean(get("LLM_TIERED", "false"));
+    }
+
+    public static String getLlmFastModelName() {
+        return get("LLM_FAST_MODEL_NAME", "gpt-4o-mini");
+    }
+
+    public static String getLlmStrongModelName() {
+        return get("LLM_STRONG_MODEL_NAME", "o3-mini");
+    }
+
+    public static boolean isLlmModelRouting() {
+        // 쿼리 크기에 맞춰 LLM_MODEL_PROFILES 중 컨텍스트에 들어가는 가장 싼 모델로 분석
+        return Boolean.parseBoolean(get("LLM_MODEL_ROUTING", "false"));
+    }
+
+    public static String getLlmModelProfiles() {
+        // 라우팅 대상 모델 (쉼표 구분), 모델별 값은 LLM_PROFILE_<모델명>_URL/CONTEXT_TOKENS/COST_PER_1K/LATENCY_MS
+        return get("LLM_MODEL_PROFILES", "gpt-4o-mini,o3-mini");
+    }
+
+    public static int getLlmChunkTokens() {
+        // 추정 토큰이 이 값을 넘는 쿼리는 UNION 가지/CTE/서브쿼리 단위로 나눠 분석 (0이면 나누지 않음)
+        return Integer.parseInt(get("LLM_CHUNK_TOKENS", "60000"));
+    }
+
+    public static boolean isLlmPromptCompression() {
+        // 프롬프트에 넣기 전 SELECT 목록, 조건식, 리터럴 등 계보와 무관한 부분을 줄임 (테이블 참조는 유지)
+        return Boolean.parseBoolean(get("LLM_PROMPT_COMPRESSION", "false"));
+    }
+
     public static int getLlmTimeout() {
         return Integer.parseInt(get("LLM_TIMEOUT_MS", "60000"));
     }
@@ -76,6 +109,239 @@ public class Config {
         return getLlmMaxTokens();
     }
 
+    public static boolean isLlmCompactResponse() {
+        // 타겟마다 소스 목록을 한 번에 받는 응답 형식 ({"targets":[{"target":..,"sources":[..]}]})
+        return Boolean.parseBoolean(get("LLM_COMPACT_RESPONSE", "true"));
+    }
+
+    public static String getLlmResponseFormat() {
+        // none: 프롬프트로만 형식 지시, json_object: JSON 모드, json_schema: 응답 스키마 강제 (서버가 지원할 때)
+        return get("LLM_RESPONSE_FORMAT", "none");
+    }
+
+    public static int getLlmOutputTokensPerTable() {
+        // 요청별 출력 토큰 상한 = 기본 여유분 + 예상 테이블 수 × 이 값 (기본 0: 끔, 항상 LLM_MAX_TOKENS 사용)
+        return Integer.parseInt(get("LLM_OUTPUT_TOKENS_PER_TABLE", "0"));
+    }
+
+    public static int getLlmReasoningTokens() {
+        // o3 계열은 출력 토큰 상한에 추론 토큰이 포함되므로 요청별 상한에 이만큼 더함 (LLM_OUTPUT_TOKENS_PER_TABLE > 0일 때만)
+        return Integer.parseInt(get("LLM_REASONING_TOKENS", "8192"));
+    }
+
+    public static String getLlmHttpClient() {
+        // auto: Java 11 이상이면 java.net.http, urlconnection: 항상 HttpURLConnection
+        return get("LLM_HTTP_CLIENT", "auto");
+    }
+
+    public static String getLlmHttpVersion() {
+        // java.net.http 클라이언트의 HTTP 버전 (비우면 JDK 기본값, 1.1 또는 2로 고정)
+        return get("LLM_HTTP_VERSION", "");
+    }
+
+    public static int getLlmAsyncThreads() {
+        // java.net.http 클라이언트의 응답 처리 스레드 수
+        return Integer.parseInt(get("LLM_ASYNC_THREADS", "4"));
+    }
+
+    public static int getLlmHttpPoolSize() {
+        // LLM 서버로 유지할 keep-alive 연결 수
+        return Integer.parseInt(get("LLM_HTTP_POOL_SIZE", "32"));
+    }
+
+    public static boolean isLlmGzipRequest() {
+        return Boolean.parseBoolean(get("LLM_GZIP_REQUEST", "false"));
+    }
+
+    public static int getLlmGzipRequestMinBytes() {
+        // 이 크기 이상인 요청 본문만 압축
+        return Integer.parseInt(get("LLM_GZIP_REQUEST_MIN_BYTES", "16384"));
+    }
+
+    public static int getLlmPackTokenBudget() {
+        // 0이면 묶음 분석 안 함. 양수면 쿼리 토큰 합이 이 값을 넘지 않도록 여러 쿼리를 한 요청에 묶음
+        return Integer.parseInt(get("LLM_PACK_TOKEN_BUDGET", "0"));
+    }
+
+    public static int getLlmPackMaxStatements() {
+        // 한 요청에 묶을 최대 쿼리 수
+        return Integer.parseInt(get("LLM_PACK_MAX_STATEMENTS", "20"));
+    }
+
+    public static int getLlmPackWaitMs() {
+        // 묶음을 채우기 위해 다음 쿼리를 기다리는 최대 시간 (ms)
+        return Integer.parseInt(get("LLM_PACK_WAIT_MS", "200"));
+    }
+
+    public static boolean isSqlFingerprintDedup() {
+        // 공백/대소문자/날짜 리터럴/셸 변수만 다른 쿼리는 한 번만 분석하고 결과를 공유 (기본 꺼짐)
+        return Boolean.parseBoolean(get("SQL_FINGERPRINT_DEDUP", "false"));
+    }
+
+    public static boolean isLocalParserEnabled() {
+        // 단순한 INSERT/UPDATE/MERGE/CTAS는 LLM 없이 로컬 파서로 계보 추출 (해석할 수 없는 문장만 LLM으로, 기본 꺼짐)
+        return Boolean.parseBoolean(get("LOCAL_PARSER_ENABLED", "false"));
+    }
+
+    public static String getCatalogTablesFile() {
+        // 웨어하우스 카탈로그 테이블명 목록 파일 (한 줄에 하나, 비우면 사용 안 함)
+        return get("CATALOG_TABLES_FILE", "").trim();
+    }
+
+    public static boolean isLlmCacheEnabled() {
+        // 같은 쿼리의 LLM 분석 결과를 디스크에 저장해 재실행 시 재사용 (기본 꺼짐)
+        return Boolean.parseBoolean(get("LLM_CACHE", "false"));
+    }
+
+    public static String getLlmCacheDir() {
+        return get("LLM_CACHE_DIR", ".lineage-cache");
+    }
+
+    public static long getLlmCacheMaxBytes() {
+        // 캐시 파일 최대 크기, 넘으면 오래 쓰이지 않은 결과부터 제거 (기본 64MB)
+        return Long.parseLong(get("LLM_CACHE_MAX_BYTES", "67108864"));
+    }
+
+    public static int getLlmCacheMemoryEntries() {
+        // 메모리에 유지할 최근 조회 결과 수
+        return Integer.parseInt(get("LLM_CACHE_MEMORY_ENTRIES", "10000"));
+    }
+
+    public static boolean isLlmStream() {
+        // true면 SSE 스트리밍으로 응답을 받아 계보를 도착하는 대로 검증
+        return Boolean.parseBoolean(get("LLM_STREAM", "false"));
+    }
+
+    public static boolean isLlmAsync() {
+        // true면 분석 단계가 스레드 대신 비동기 호출로 --concurrency개의 요청을 유지
+        return Boolean.parseBoolean(get("LLM_ASYNC", "false"));
+    }
+
+    // LLM 동시 호출 적응형 제어 (AIMD)
+    public static boolean isLlmAdaptiveConcurrency() {
+        return Boolean.parseBoolean(get("LLM_ADAPTIVE_CONCURRENCY", "false"));
+    }
+
+    public static int getLlmConcurrencyInitial() {
+        return Integer.parseInt(get("LLM_CONCURRENCY_INITIAL", "4"));
+    }
+
+    public static int getLlmConcurrencyMin() {
+        return Integer.parseInt(get("LLM_CONCURRENCY_MIN", "1"));
+    }
+
+    public static int getLlmConcurrencyMax() {
+        return Integer.parseInt(get("LLM_CONCURRENCY_MAX", "32"));
+    }
+
+    public static boolean isLlmLatencyBackoff() {
+        // true면 응답 지연 증가도 감소 신호로 사용 (기본은 429/503/타임아웃만)
+        return Boolean.parseBoolean(get("LLM_LATENCY_BACKOFF", "false"));
+    }
+
+    public static double getLlmLatencyTolerance() {
+        // 최근 최소 지연의 몇 배까지 정상으로 볼지
+        return Double.parseDouble(get("LLM_LATENCY_TOLERANCE", "3.0"));
+    }
+
+    public static double getLlmBackoffRatio() {
+        // 과부하 응답(429/503)·타임아웃 시 한도에 곱하는 비율
+        return Double.parseDouble(get("LLM_BACKOFF_RATIO", "0.5"));
+    }
+
+    public static double getLlmLatencyBackoffRatio() {
+        // 지연 증가 시 한도에 곱하는 비율
+        return Double.parseDouble(get("LLM_LATENCY_BACKOFF_RATIO", "0.9"));
+    }
+
+    // 실행 설정
+    public static int getAnalysisConcurrency() {
+        // 동시에 진행할 LLM 호출 수 (1이면 순차 처리와 동일)
+        return Integer.parseInt(get("ANALYSIS_CONCURRENCY", "1"));
+    }
+
+    public static int getExtractThreads() {
+        return Integer.parseInt(get("EXTRACT_THREADS", "1"));
+    }
+
+    public static int getWriterThreads() {
+        return Integer.parseInt(get("WRITER_THREADS", "1"));
+    }
+
+    // 파이프라인 단계 사이 큐 크기 (가득 차면 앞 단계가 대기)
+    public static int getPipelineFileQueueSize() {
+        return Integer.parseInt(get("PIPELINE_FILE_QUEUE_SIZE", "16"));
+    }
+
+    public static int getPipelineStatementQueueSize() {
+        return Integer.parseInt(get("PIPELINE_STATEMENT_QUEUE_SIZE", "256"));
+    }
+
+    public static int getPipelineWriteQueueSize() {
+        return Integer.parseInt(get("PIPELINE_WRITE_QUEUE_SIZE", "16"));
+    }
+
+    public static boolean isExtractStatementSlices() {
+        // 쿼리 원문을 문장마다 String으로 복사하지 않고 파일별 공유 블록의 구간으로 보관 (분석/저장 시에만 String 생성)
+        return Boolean.parseBoolean(get("EXTRACT_STATEMENT_SLICES", "false"));
+    }
+
+    public static long getPipelineStreamExtractBytes() {
+        // 이 크기(bytes)보다 큰 파일은 쿼리 목록을 만들지 않고 추출하는 대로 분석 단계로 넘김
+        return Long.parseLong(get("PIPELINE_STREAM_EXTRACT_BYTES", "67108864"));
+    }
+
+    // 체크포인트 저널 (--resume)
+    public static String getCheckpointJournal() {
+        // 완료된 쿼리/파일을 기록하는 추가 전용 파일 (기본 비어 있음: 기록하지 않음, 예: .lineage-journal.log)
+        return get("CHECKPOINT_JOURNAL", "").trim();
+    }
+
+    public static int getCheckpointSyncRecords() {
+        // 이 건수만큼 기록할 때마다 디스크에 동기화
+        return Integer.parseInt(get("CHECKPOINT_SYNC_RECORDS", "64"));
+    }
+
+    public static long getCheckpointSyncMillis() {
+        // 마지막 동기화 후 이 시간(ms)이 지나면 다음 기록 때 동기화
+        return Long.parseLong(get("CHECKPOINT_SYNC_MS", "1000"));
+    }
+
+    public static String getFileManifest() {
+        // 처리가 끝난 파일의 크기/수정 시각/내용 해시 목록 (--incremental에서 변경 없는 파일 판별, 기본 비어 있음: 사용 안 함)
+        return get("FILE_MANIFEST", "").trim();
+    }
+
+    public static String getStatementManifest() {
+        // 파일별 쿼리 지문과 계보 기록 (바뀐 파일에서 바뀐 쿼리만 분석, 삭제된 쿼리의 계보 정리, 기본 비어 있음: 사용 안 함)
+        return get("STATEMENT_MANIFEST", "").trim();
+    }
+
+    // 디렉토리 탐색 (--root)
+    public static String getDiscoveryInclude() {
+        // 처리할 파일 glob 패턴 (쉼표 구분, '/'가 없으면 파일명에 적용)
+        return get("DISCOVERY_INCLUDE", "*.sql,*.sh,*.hql");
+    }
+
+    public static String getDiscoveryExclude() {
+        // 건너뛸 파일/디렉토리 glob 패턴 (디렉토리가 맞으면 하위 전체를 건너뜀)
+        return get("DISCOVERY_EXCLUDE", ".git,.svn");
+    }
+
+    public static int getDiscoveryThreads() {
+        return Integer.parseInt(get("DISCOVERY_THREADS", "4"));
+    }
+
+    public static boolean isDiscoveryFollowSymlinks() {
+        // false면 심볼릭 링크를 건너뜀, true면 따라가되 같은 실제 경로는 한 번만
+        return Boolean.parseBoolean(get("DISCOVERY_FOLLOW_SYMLINKS", "false"));
+    }
+
+    public static long getDiscoveryMaxFileBytes() {
+        // 이 크기(bytes)보다 큰 파일은 건너뜀 (0이면 제한 없음)
+        return Long.parseLong(get("DISCOVERY_MAX_FILE_BYTES", "0"));
+    }
+
     // MySQL 설정
     public static String getMysqlUrl() {
         return get("MYSQL_URL");
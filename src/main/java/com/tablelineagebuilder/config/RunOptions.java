@@ -0,0 +1,167 @@
+package com.tablelineagebuilder.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 커맨드라인 인자를 파싱한 실행 옵션
+ * .env 설정값을 기본값으로 사용하고, 인자로 지정한 값이 우선한다
+ */
+public class RunOptions {
+
+    private final List<String> filePaths = new ArrayList<>();
+    private String listFilePath;
+    private String rootDirectory;
+    private String includePatterns;
+    private String excludePatterns;
+    private int concurrency = Config.getAnalysisConcurrency();
+    private int extractThreads = Config.getExtractThreads();
+    private int writerThreads = Config.getWriterThreads();
+    private boolean cacheEnabled = Config.isLlmCacheEnabled();
+    private boolean invalidateCache;
+    private boolean resume;
+    private boolean incremental;
+
+    private RunOptions() {
+    }
+
+    /**
+     * 인자 파싱
+     * - --list <목록파일>: 파일 목록 모드
+     * - --root <디렉토리>: 디렉토리를 재귀 탐색하며 찾은 파일을 처리
+     * - --include <패턴>, --exclude <패턴>: --root 탐색의 포함/제외 glob (쉼표 구분)
+     * - --concurrency <N>: 동시에 진행할 LLM 호출 수 (분석 단계 스레드 수)
+     * - --extract-threads <N>: 추출 단계 스레드 수
+     * - --writer-threads <N>: 저장 단계 스레드 수 (스레드마다 DB 연결 1개)
+     * - --no-cache: LLM 결과 캐시를 조회/저장하지 않음
+     * - --invalidate-cache: 기존 LLM 결과 캐시를 지우고 새로 채움
+     * - --resume: 체크포인트 저널을 읽어 이전 실행에서 끝난 파일/쿼리를 건너뜀
+     * - --incremental: 지난 처리 이후 내용이 바뀌지 않은 파일을 건너뜀
+     * - 그 외 인자: 단일 파일 경로
+     */
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--list":
+                    options.listFilePath = requireValue(args, ++i, arg);
+                    break;
+                case "--root":
+                    options.rootDirectory = requireValue(args, ++i, arg);
+                    break;
+                case "--include":
+                    options.includePatterns = requireValue(args, ++i, arg);
+                    break;
+                case "--exclude":
+                    options.excludePatterns = requireValue(args, ++i, arg);
+                    break;
+                case "--concurrency":
+                    options.concurrency = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--extract-threads":
+                    options.extractThreads = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--writer-threads":
+                    options.writerThreads = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--no-cache":
+                    options.cacheEnabled = false;
+                    break;
+                case "--invalidate-cache":
+                    options.invalidateCache = true;
+                    break;
+                case "--resume":
+                    options.resume = true;
+                    break;
+                case "--incremental":
+                    options.incremental = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("알 수 없는 옵션: " + arg);
+                    }
+                    options.filePaths.add(arg);
+            }
+        }
+
+        if (options.listFilePath == null && options.rootDirectory == null && options.filePaths.isEmpty()) {
+            throw new IllegalArgumentException("처리할 파일 경로가 없습니다.");
+        }
+        return options;
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " 옵션에 값이 필요합니다.");
+        }
+        return args[index];
+    }
+
+    private static int parsePositiveInt(String value, String option) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // 아래에서 공통 처리
+        }
+        throw new IllegalArgumentException(option + " 옵션은 1 이상의 정수여야 합니다: " + value);
+    }
+
+    public List<String> getFilePaths() {
+        return filePaths;
+    }
+
+    public String getListFilePath() {
+        return listFilePath;
+    }
+
+    public String getRootDirectory() {
+        return rootDirectory;
+    }
+
+    /**
+     * --include 값 (지정하지 않으면 null)
+     */
+    public String getIncludePatterns() {
+        return includePatterns;
+    }
+
+    /**
+     * --exclude 값 (지정하지 않으면 null)
+     */
+    public String getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getExtractThreads() {
+        return extractThreads;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public boolean isInvalidateCache() {
+        return invalidateCache;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+}
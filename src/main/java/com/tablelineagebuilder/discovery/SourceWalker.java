@@ -0,0 +1,289 @@
+package com.tablelineagebuilder.discovery;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 디렉토리를 여러 스레드로 재귀 탐색하며 처리 대상 파일을 찾는 탐색기 (--root)
+ *
+ * 디렉토리 하나가 작업 하나이며, 하위 디렉토리를 만나면 새 작업으로 넘기므로 깊고 넓은 저장소도 고르게 나눠 읽는다.
+ * 찾은 파일은 크기가 제한된 큐를 거쳐 바로 반복자로 나오므로, 탐색이 끝나기 전에 추출이 시작된다
+ * (파이프라인이 밀리면 탐색도 큐가 빌 때까지 대기).
+ *
+ * - 포함/제외 패턴: glob, 쉼표로 구분. '/'가 없는 패턴은 파일(디렉토리)명에, 있으면 루트 기준 상대 경로에 적용
+ *   제외 패턴에 맞는 디렉토리는 하위까지 건너뜀
+ * - 심볼릭 링크: DISCOVERY_FOLLOW_SYMLINKS=false면 건너뜀, true면 따라가되 실제 경로가 같은 디렉토리/파일은 한 번만
+ * - 크기 제한: DISCOVERY_MAX_FILE_BYTES보다 큰 파일은 건너뜀 (0이면 제한 없음)
+ *
+ * 탐색 순서는 스레드 진행에 따라 달라진다. 반복자는 한 스레드에서만 사용한다.
+ */
+public class SourceWalker implements Iterator<String>, AutoCloseable {
+
+    private static final String END = "";
+    private static final int OUTPUT_QUEUE_SIZE = 1024;
+
+    private final Path root;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final List<Boolean> excludeByName = new ArrayList<>();
+    private final List<Boolean> includeByName = new ArrayList<>();
+    private final boolean followSymlinks;
+    private final long maxFileBytes;
+    private final int threads;
+
+    private final ExecutorService pool;
+    private final BlockingQueue<String> output = new ArrayBlockingQueue<>(OUTPUT_QUEUE_SIZE);
+    private final AtomicInteger pendingDirectories = new AtomicInteger();
+    private final Set<Path> visited = ConcurrentHashMap.newKeySet();
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+    private volatile boolean closed;
+
+    private final AtomicInteger directories = new AtomicInteger();
+    private final AtomicInteger found = new AtomicInteger();
+    private final AtomicInteger unmatched = new AtomicInteger();
+    private final AtomicInteger excludedDirectories = new AtomicInteger();
+    private final AtomicInteger oversized = new AtomicInteger();
+    private final AtomicInteger skippedLinks = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private String next;
+
+    private SourceWalker(Path root, String includePatterns, String excludePatterns, int threads,
+                         boolean followSymlinks, long maxFileBytes) {
+        this.root = root;
+        this.includes = compile(includePatterns, includeByName);
+        this.excludes = compile(excludePatterns, excludeByName);
+        this.followSymlinks = followSymlinks;
+        this.maxFileBytes = maxFileBytes;
+        this.threads = Math.max(1, threads);
+        // JVM 종료를 막지 않도록 데몬 스레드
+        AtomicInteger count = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "discovery-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 탐색 시작 (포함/제외 패턴이 null이면 .env의 DISCOVERY_INCLUDE/DISCOVERY_EXCLUDE)
+     */
+    public static SourceWalker start(String rootDirectory, String includePatterns, String excludePatterns) throws IOException {
+        Path root = Paths.get(rootDirectory);
+        if (!Files.isDirectory(root)) {
+            throw new IOException("디렉토리가 아닙니다: " + rootDirectory);
+        }
+        return start(root,
+            includePatterns != null ? includePatterns : Config.getDiscoveryInclude(),
+            excludePatterns != null ? excludePatterns : Config.getDiscoveryExclude(),
+            Config.getDiscoveryThreads(),
+            Config.isDiscoveryFollowSymlinks(),
+            Config.getDiscoveryMaxFileBytes());
+    }
+
+    /**
+     * 설정을 직접 지정해 탐색 시작 (테스트용)
+     */
+    static SourceWalker start(Path root, String includePatterns, String excludePatterns, int threads,
+                              boolean followSymlinks, long maxFileBytes) throws IOException {
+        SourceWalker walker = new SourceWalker(root, includePatterns, excludePatterns, threads, followSymlinks, maxFileBytes);
+        if (walker.followSymlinks) {
+            walker.visited.add(root.toRealPath());
+        }
+        walker.submit(root);
+        return walker;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = output.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                next = END;
+            }
+        }
+        return next != END;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String path = next;
+        next = null;
+        return path;
+    }
+
+    private void submit(Path directory) {
+        pendingDirectories.incrementAndGet();
+        try {
+            pool.execute(() -> {
+                try {
+                    walk(directory);
+                } finally {
+                    if (pendingDirectories.decrementAndGet() == 0) {
+                        finish();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 닫는 중
+            pendingDirectories.decrementAndGet();
+        }
+    }
+
+    /**
+     * 디렉토리 하나의 항목 처리 (하위 디렉토리는 새 작업으로)
+     */
+    private void walk(Path directory) {
+        if (closed) {
+            return;
+        }
+        directories.incrementAndGet();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (closed) {
+                    return;
+                }
+                visit(entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            errors.incrementAndGet();
+            System.err.println("Warning: 디렉토리를 읽을 수 없습니다: " + directory + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private void visit(Path entry) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (attributes.isSymbolicLink()) {
+                if (!followSymlinks) {
+                    skippedLinks.incrementAndGet();
+                    return;
+                }
+                attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            }
+            // 링크를 따라갈 때는 같은 실제 경로를 한 번만 (순환 링크 방지, 링크와 원본을 두 번 처리하지 않음)
+            if (followSymlinks && (attributes.isDirectory() || attributes.isRegularFile()) && !visited.add(entry.toRealPath())) {
+                return;
+            }
+
+            if (attributes.isDirectory()) {
+                if (matches(excludes, excludeByName, entry)) {
+                    excludedDirectories.incrementAndGet();
+                } else {
+                    submit(entry);
+                }
+                return;
+            }
+            if (!attributes.isRegularFile()) {
+                return;
+            }
+            if (!matches(includes, includeByName, entry) || matches(excludes, excludeByName, entry)) {
+                unmatched.incrementAndGet();
+                return;
+            }
+            if (maxFileBytes > 0 && attributes.size() > maxFileBytes) {
+                oversized.incrementAndGet();
+                System.err.println("⚠️  크기 제한(" + maxFileBytes + " bytes)을 넘어 건너뜁니다: " + entry + " (" + attributes.size() + " bytes)");
+                return;
+            }
+            found.incrementAndGet();
+            output.put(entry.toString());
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Warning: 파일 정보를 읽을 수 없습니다: " + entry + " (" + e.getMessage() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean matches(List<PathMatcher> matchers, List<Boolean> byName, Path entry) {
+        for (int i = 0; i < matchers.size(); i++) {
+            Path target = byName.get(i) ? entry.getFileName() : root.relativize(entry);
+            if (target != null && matchers.get(i).matches(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 마지막 디렉토리 작업이 끝나면 반복자에 끝을 알림
+     */
+    private void finish() {
+        finishedAt = System.currentTimeMillis();
+        pool.shutdown();
+        try {
+            output.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 쉼표로 구분한 glob 패턴 목록 ('/'가 없는 패턴은 이름에 적용)
+     */
+    private static List<PathMatcher> compile(String patterns, List<Boolean> byName) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (patterns == null) {
+            return matchers;
+        }
+        for (String pattern : patterns.split(",")) {
+            pattern = pattern.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+            byName.add(pattern.indexOf('/') < 0);
+        }
+        return matchers;
+    }
+
+    /**
+     * 탐색 통계 (리포트/콘솔 출력용)
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        long elapsed = (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+        lines.add("루트: " + root + " (탐색 스레드 " + threads + "개, " + elapsed + "ms" + (finishedAt > 0 ? "" : ", 중단됨") + ")");
+        lines.add("디렉토리: " + directories.get() + "개 (제외 " + excludedDirectories.get() + "개), 대상 파일: " + found.get() + "개");
+        lines.add("건너뛴 파일: 패턴 불일치 " + unmatched.get() + "개, 크기 초과 " + oversized.get() + "개, 심볼릭 링크 " +
+            skippedLinks.get() + "개, 읽기 오류 " + errors.get() + "개");
+        return lines;
+    }
+
+    /**
+     * 탐색 중단 (처리 도중 오류로 끝나는 경우)
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pool.shutdownNow();
+        output.clear();
+    }
+}
@@ -0,0 +1,459 @@
+package com.tablelineagebuilder.journal;
+
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.report.FileResult;
+import com.tablelineagebuilder.sql.SqlFingerprint;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 실행 체크포인트 저널 (추가 전용 로컬 파일)
+ *
+ * 분석이 끝난 쿼리(S)와 저장까지 끝난 파일(F)을 한 줄에 하나씩 기록하고, --resume으로 다시 실행하면
+ * 완료된 파일은 건너뛰고 요약 집계와 리포트의 파일별 섹션을 저널 내용으로 다시 만든다.
+ * 완료되지 않은 파일(오류, 추출 전에 끝난 파일 포함)은 다시 처리하되, 기록된 쿼리는 LLM 대신 저널의 계보를 쓴다.
+ *
+ * - 형식: 탭 구분 필드, 마지막 필드는 "$" (잘린 줄 판별용), 탭/줄바꿈/역슬래시는 이스케이프
+ *   S  파일경로  순번  쿼리해시  계보수  (소스  타겟  모델)*  $
+ *   F  파일경로  상태  추출수  분석수  건너뛴수  저장수  메시지  이유수  (이유  개수)*  계보관계수  (관계)*  $
+ * - 디스크 동기화: CHECKPOINT_SYNC_RECORDS건 또는 CHECKPOINT_SYNC_MS마다 한 번 (종료 시 항상)
+ *   동기화 전에 죽으면 마지막 몇 건이 사라질 뿐이며, 해당 쿼리/파일은 다시 처리된다 (DB 저장은 중복 시 갱신이므로 안전).
+ * - 비정상 종료로 잘린 마지막 줄은 재개 시 잘라내고 이어 쓴다.
+ *
+ * 모든 기록 메서드는 동기화되어 있어 분석/저장 스레드가 공유해도 안전하다.
+ */
+public class RunJournal implements AutoCloseable {
+
+    private static final String END = "$";
+
+    private final File file;
+    private final boolean resumed;
+    private final int syncRecords;
+    private final long syncMillis;
+
+    // 재개 시 읽은 기록 (파일경로 → 완료 파일, 파일경로 → 순번 → 쿼리 결과)
+    private final Map<String, String[]> completedFiles = new HashMap<>();
+    private final Map<String, Map<Integer, String[]>> statements = new HashMap<>();
+
+    private FileOutputStream out;
+    private Writer writer;
+    private Thread shutdownHook;
+    private int unsynced;
+    private long lastSync = System.currentTimeMillis();
+
+    private int restoredFiles;
+    private int restoredStatements;
+    private long records;
+
+    private RunJournal(File file, boolean resumed, int syncRecords, long syncMillis) {
+        this.file = file;
+        this.resumed = resumed;
+        this.syncRecords = Math.max(1, syncRecords);
+        this.syncMillis = syncMillis;
+    }
+
+    /**
+     * .env 설정으로 저널 열기 (CHECKPOINT_JOURNAL이 비어 있거나 열 수 없으면 기록하지 않는 저널)
+     *
+     * @param resume true면 기존 기록을 읽고 이어 씀, false면 기존 기록을 지우고 새로 시작
+     */
+    public static RunJournal open(boolean resume) {
+        String path = Config.getCheckpointJournal();
+        if (path.isEmpty()) {
+            if (resume) {
+                System.err.println("⚠️  CHECKPOINT_JOURNAL이 비어 있어 --resume을 사용할 수 없습니다 " +
+                    "(예: CHECKPOINT_JOURNAL=.lineage-journal.log). 처음부터 처리합니다.");
+            }
+            return new RunJournal(null, false, 1, 0);
+        }
+        try {
+            return open(new File(path), resume, Config.getCheckpointSyncRecords(), Config.getCheckpointSyncMillis());
+        } catch (IOException e) {
+            System.err.println("Warning: 체크포인트 저널을 열 수 없습니다. 기록 없이 진행합니다: " + e.getMessage());
+            return new RunJournal(null, false, 1, 0);
+        }
+    }
+
+    /**
+     * 지정한 파일로 저널 열기
+     */
+    static RunJournal open(File file, boolean resume, int syncRecords, long syncMillis) throws IOException {
+        RunJournal journal = new RunJournal(file, resume, syncRecords, syncMillis);
+        try {
+            journal.load(resume);
+            return journal;
+        } catch (IOException e) {
+            journal.closeQuietly();
+            throw e;
+        }
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public boolean isResumed() {
+        return resumed && isEnabled();
+    }
+
+    /**
+     * 이전 실행에서 끝난 파일(성공/건너뜀)의 결과 (없으면 null, 오류로 끝난 파일은 다시 처리하므로 null)
+     */
+    public synchronized FileResult restoreFile(int fileIndex, String filePath) {
+        String[] fields = completedFiles.get(filePath);
+        if (fields == null) {
+            return null;
+        }
+        FileResult result = new FileResult(fileIndex, filePath);
+        int extracted = Integer.parseInt(fields[3]);
+        if (extracted >= 0) {
+            result.setQueryCounts(extracted, Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+        }
+        int next = 9;
+        for (int i = 0; i < Integer.parseInt(fields[8]); i++, next += 2) {
+            result.addSkippedQueries(fields[next], Integer.parseInt(fields[next + 1]));
+        }
+        int relations = Integer.parseInt(fields[next++]);
+        for (int i = 0; i < relations; i++) {
+            result.addRelation(fields[next++]);
+        }
+        if (FileResult.Status.SUCCESS.name().equals(fields[2])) {
+            result.success(Integer.parseInt(fields[6]));
+        } else {
+            result.skip(fields[7]);
+        }
+        restoredFiles++;
+        return result;
+    }
+
+    /**
+     * 이전 실행에서 분석이 끝난 쿼리의 계보 (같은 파일, 같은 순번, 같은 내용일 때만, 없으면 null)
+     */
+    public synchronized List<TableLineage> restoreStatement(QueryInfo query, int ordinal) {
+        Map<Integer, String[]> byOrdinal = statements.get(query.getFilePath());
+        String[] fields = byOrdinal == null ? null : byOrdinal.get(ordinal);
+        if (fields == null || !fields[3].equals(hashOf(query))) {
+            return null;
+        }
+        int count = Integer.parseInt(fields[4]);
+        List<TableLineage> lineages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lineages.add(new TableLineage(
+                fields[5 + i * 3],
+                fields[6 + i * 3],
+                query.getFilePath(),
+                query.getQueryText(),
+                fields[7 + i * 3]
+            ));
+        }
+        restoredStatements++;
+        return lineages;
+    }
+
+    /**
+     * 쿼리 하나의 분석 결과 기록
+     */
+    public synchronized void recordStatement(QueryInfo query, int ordinal, List<TableLineage> lineages) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<String> fields = new ArrayList<>();
+        fields.add("S");
+        fields.add(query.getFilePath());
+        fields.add(String.valueOf(ordinal));
+        fields.add(hashOf(query));
+        fields.add(String.valueOf(lineages.size()));
+        for (TableLineage lineage : lineages) {
+            fields.add(lineage.getSourceTable());
+            fields.add(lineage.getTargetTable());
+            fields.add(lineage.getModelUsed());
+        }
+        append(fields);
+    }
+
+    /**
+     * 파일 하나의 최종 결과 기록 (저장까지 끝난 뒤 호출)
+     */
+    public synchronized void recordFile(FileResult result) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<String> fields = new ArrayList<>();
+        fields.add("F");
+        fields.add(result.getFilePath());
+        fields.add(result.getStatus().name());
+        fields.add(String.valueOf(result.getExtractedCount()));
+        fields.add(String.valueOf(result.getAnalyzeCount()));
+        fields.add(String.valueOf(result.getSkippedQueryCount()));
+        fields.add(String.valueOf(result.getSavedCount()));
+        fields.add(result.getMessage() == null ? "" : result.getMessage());
+        fields.add(String.valueOf(result.getSkipReasons().size()));
+        for (Map.Entry<String, Integer> reason : result.getSkipReasons().entrySet()) {
+            fields.add(reason.getKey());
+            fields.add(String.valueOf(reason.getValue()));
+        }
+        fields.add(String.valueOf(result.getRelations().size()));
+        fields.addAll(result.getRelations());
+        append(fields);
+    }
+
+    /**
+     * 통계 요약 (리포트/콘솔 출력용, 비활성화 시 빈 목록)
+     */
+    public synchronized List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!isEnabled()) {
+            return lines;
+        }
+        lines.add("저널 파일: " + file.getPath() + " (이번 실행 기록 " + records + "건)");
+        if (resumed) {
+            lines.add("재개: 이전에 끝난 파일 " + restoredFiles + "개 건너뜀, 분석 결과를 재사용한 쿼리 " +
+                restoredStatements + "개");
+        }
+        return lines;
+    }
+
+    private void append(List<String> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            escape(sb, field);
+            sb.append('\t');
+        }
+        sb.append(END).append('\n');
+        try {
+            writer.write(sb.toString());
+            records++;
+            unsynced++;
+            if (unsynced >= syncRecords || System.currentTimeMillis() - lastSync >= syncMillis) {
+                sync();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: 체크포인트 저널 쓰기 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 버퍼를 비우고 디스크에 동기화
+     */
+    private synchronized void sync() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.flush();
+        out.getFD().sync();
+        unsynced = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    private void load(boolean resume) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("저널 디렉토리를 만들 수 없습니다: " + directory);
+        }
+        if (resume && file.exists()) {
+            long valid = read();
+            if (valid < file.length()) {
+                System.err.println("Warning: 체크포인트 저널의 손상된 끝부분(" + (file.length() - valid) + " bytes)을 잘라냅니다.");
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(valid);
+                }
+            }
+            System.out.println("📝 체크포인트에서 재개: " + file.getPath() + " (완료 파일 " + completedFiles.size() +
+                "개, 진행 중 파일의 분석 완료 쿼리 " + countStatements() + "개)");
+        } else if (resume) {
+            System.err.println("⚠️  체크포인트 저널이 없어 처음부터 처리합니다: " + file.getPath());
+        }
+
+        out = new FileOutputStream(file, resume);
+        writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        shutdownHook = new Thread(() -> {
+            try {
+                sync();
+            } catch (IOException e) {
+                // 종료 중에는 기록할 곳이 없음
+            }
+        }, "journal-sync");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * 기록을 읽어 메모리에 올림 (잘리거나 깨진 줄을 만나면 그 앞까지만 사용)
+     * @return 온전한 기록이 끝나는 위치 (bytes)
+     */
+    private long read() throws IOException {
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String[] fields = split(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                line.reset();
+                if (!apply(fields)) {
+                    break;
+                }
+                valid = position;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 기록 한 줄 반영 (형식이 맞지 않으면 false)
+     */
+    private boolean apply(String[] fields) {
+        if (fields.length < 3 || !END.equals(fields[fields.length - 1])) {
+            return false;
+        }
+        try {
+            if ("S".equals(fields[0]) && fields.length >= 6) {
+                if (fields.length != 6 + Integer.parseInt(fields[4]) * 3) {
+                    return false;
+                }
+                Integer.parseInt(fields[2]);
+                statements.computeIfAbsent(fields[1], k -> new HashMap<>()).put(Integer.parseInt(fields[2]), fields);
+                return true;
+            }
+            if ("F".equals(fields[0]) && fields.length >= 11) {
+                int reasons = Integer.parseInt(fields[8]);
+                int relations = Integer.parseInt(fields[9 + reasons * 2]);
+                if (fields.length != 11 + reasons * 2 + relations) {
+                    return false;
+                }
+                for (int i = 3; i <= 6; i++) {
+                    Integer.parseInt(fields[i]);
+                }
+                FileResult.Status status = FileResult.Status.valueOf(fields[2]);
+                if (status == FileResult.Status.ERROR || Integer.parseInt(fields[3]) < 0) {
+                    // 오류 또는 추출 전에 끝난 파일(파일 없음 등)은 다시 처리 (분석이 끝난 쿼리 기록은 유지)
+                    completedFiles.remove(fields[1]);
+                } else {
+                    completedFiles.put(fields[1], fields);
+                    statements.remove(fields[1]);
+                }
+                return true;
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private int countStatements() {
+        int count = 0;
+        for (Map<Integer, String[]> byOrdinal : statements.values()) {
+            count += byOrdinal.size();
+        }
+        return count;
+    }
+
+    /**
+     * 쿼리 원문의 SHA-256 (재개 시 같은 순번의 문장이 바뀌었는지 확인)
+     */
+    private static String hashOf(QueryInfo query) {
+        return SqlFingerprint.sha256Hex(query.getQueryText());
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * 탭으로 나누고 이스케이프를 되돌림
+     */
+    private static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // 무시
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            System.err.println("Warning: 체크포인트 저널 동기화 실패: " + e.getMessage());
+        }
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // 이미 종료 중
+            }
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Warning: 체크포인트 저널 닫기 실패: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,295 @@
+package com.tablelineagebuilder.manifest;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 처리가 끝난 파일의 지문(크기, 수정 시각, 내용 SHA-256) 목록
+ *
+ * --incremental이면 파일마다 크기와 수정 시각만 확인하고, 둘 중 하나가 바뀐 파일만 내용 해시를 계산한다.
+ * 해시까지 같으면 (수정 시각만 바뀜) 변경 없음으로 보고 추출/LLM 분석/DB 저장을 모두 건너뛴다.
+ * 지문은 추출 전에 뜨므로, 처리 중에 파일이 바뀌면 다음 실행에서 다시 처리된다.
+ *
+ * - 파일 형식: 한 줄에 파일 하나 (크기 TAB 수정시각(ms) TAB 해시 TAB 경로), 필드 수가 맞지 않는 줄은 무시
+ * - 기록: 파일 처리가 끝날 때마다 목록 끝에 덧붙이고, CHECKPOINT_SYNC_RECORDS건 또는 CHECKPOINT_SYNC_MS마다 비움
+ *   같은 경로가 여러 번 나오면 마지막 줄을 쓰므로, 실행 중에 죽어도 그때까지 끝난 파일은 다음 실행에서 건너뛴다.
+ * - 정리: 실행이 끝날 때 경로별 마지막 기록만 임시 파일에 쓰고 바꿔치기 (이번 실행에 없던 파일의 기록도 유지)
+ *
+ * 추출 스레드와 저장 스레드가 공유해도 안전하다.
+ */
+public class FileManifest {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Map<String, Fingerprint> entries = new ConcurrentHashMap<>();
+    private final int flushRecords = Math.max(1, Config.getCheckpointSyncRecords());
+    private final long flushMillis = Config.getCheckpointSyncMillis();
+
+    private Writer appender;  // 이번 실행의 기록을 덧붙이는 쓰기 (처음 기록할 때 열고, 실패하면 정리 때만 저장)
+    private boolean appendFailed;
+    private int unflushed;
+    private long lastFlush = System.currentTimeMillis();
+
+    private final AtomicInteger unchanged = new AtomicInteger();
+    private final AtomicInteger touched = new AtomicInteger();
+    private final AtomicInteger hashed = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    private FileManifest(File file) {
+        this.file = file;
+    }
+
+    /**
+     * .env 설정(FILE_MANIFEST)으로 열기 (비어 있으면 기록하지 않는 목록)
+     */
+    public static FileManifest open() {
+        String path = Config.getFileManifest();
+        return open(path.isEmpty() ? null : new File(path));
+    }
+
+    /**
+     * 지정한 파일로 열기 (null이면 기록하지 않는 목록)
+     */
+    static FileManifest open(File file) {
+        FileManifest manifest = new FileManifest(file);
+        if (manifest.file != null && manifest.file.exists()) {
+            try {
+                manifest.load();
+            } catch (IOException e) {
+                System.err.println("Warning: 파일 지문 목록을 읽을 수 없습니다. 모든 파일을 변경된 것으로 봅니다: " + e.getMessage());
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 현재 파일의 지문 (크기와 수정 시각이 기록과 같으면 기록된 해시를 그대로 사용, 파일이 없으면 null)
+     */
+    public Fingerprint fingerprint(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Fingerprint previous = entries.get(filePath);
+        if (previous != null && previous.size == size && previous.modified == modified) {
+            return previous;
+        }
+        hashed.incrementAndGet();
+        return new Fingerprint(filePath, size, modified, hash(path));
+    }
+
+    /**
+     * 지난번 처리 이후 내용이 바뀌지 않았는지 (수정 시각만 바뀐 파일은 새 시각을 기록해 다음에는 해시하지 않음)
+     */
+    public boolean isUnchanged(Fingerprint current) {
+        Fingerprint previous = current == null ? null : entries.get(current.path);
+        if (previous == null || previous.size != current.size || !previous.hash.equals(current.hash)) {
+            return false;
+        }
+        if (previous.modified != current.modified) {
+            entries.put(current.path, current);
+            touched.incrementAndGet();
+            append(current);
+        }
+        unchanged.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 처리가 끝난 파일의 (추출 전에 뜬) 지문 기록
+     */
+    public void record(Fingerprint fingerprint) {
+        if (fingerprint == null || !isEnabled()) {
+            return;
+        }
+        entries.put(fingerprint.path, fingerprint);
+        recorded.incrementAndGet();
+        append(fingerprint);
+    }
+
+    /**
+     * 지문 하나를 목록 끝에 덧붙임 (정해진 건수/시간마다 버퍼를 비움)
+     */
+    private synchronized void append(Fingerprint entry) {
+        if (!isEnabled() || appendFailed) {
+            return;
+        }
+        try {
+            if (appender == null) {
+                createDirectory();
+                appender = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            appender.write(line(entry));
+            appender.write('\n');
+            unflushed++;
+            if (unflushed >= flushRecords || System.currentTimeMillis() - lastFlush >= flushMillis) {
+                appender.flush();
+                unflushed = 0;
+                lastFlush = System.currentTimeMillis();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: 파일 지문 기록 실패 (실행이 끝날 때 한 번에 저장합니다): " + e.getMessage());
+            appendFailed = true;
+        }
+    }
+
+    /**
+     * 덧붙이기를 끝내고, 경로별 마지막 기록만 남긴 목록으로 정리 (임시 파일에 쓴 뒤 바꿔치기)
+     */
+    public synchronized void close() {
+        if (appender != null) {
+            try {
+                appender.close();
+            } catch (IOException e) {
+                System.err.println("Warning: 파일 지문 기록 실패: " + e.getMessage());
+            }
+            appender = null;
+        }
+        if (!isEnabled() || (recorded.get() == 0 && touched.get() == 0)) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            createDirectory();
+            try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                // 경로순으로 써서 실행마다 같은 내용이면 같은 파일이 되도록 함
+                for (Fingerprint entry : new TreeMap<>(entries).values()) {
+                    writer.write(line(entry));
+                    writer.write('\n');
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: 파일 지문 목록 저장 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 통계 요약 (리포트/콘솔 출력용, 비활성화 시 빈 목록)
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!isEnabled()) {
+            return lines;
+        }
+        lines.add("지문 목록: " + file.getPath() + " (" + entries.size() + "개 파일)");
+        if (unchanged.get() > 0) {
+            lines.add("변경 없는 파일: " + unchanged.get() + "개 건너뜀 (수정 시각만 바뀐 파일 " + touched.get() + "개 포함)");
+        }
+        lines.add("내용 해시 계산: " + hashed.get() + "개 파일 (새 파일 또는 크기/수정 시각 변경)");
+        lines.add("이번 실행에서 기록한 파일: " + recorded.get() + "개");
+        return lines;
+    }
+
+    private void createDirectory() throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("디렉토리를 만들 수 없습니다: " + directory);
+        }
+    }
+
+    private static String line(Fingerprint entry) {
+        return entry.size + "\t" + entry.modified + "\t" + entry.hash + "\t" + entry.path;
+    }
+
+    private void load() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 4);
+                if (fields.length != 4 || fields[3].isEmpty()) {
+                    continue;
+                }
+                try {
+                    entries.put(fields[3], new Fingerprint(fields[3], Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2]));
+                } catch (NumberFormatException e) {
+                    // 깨진 줄은 무시 (해당 파일은 변경된 것으로 보고 다시 처리)
+                }
+            }
+        }
+    }
+
+    /**
+     * 파일 내용의 SHA-256 (16진수)
+     */
+    private static String hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 파일 하나의 지문
+     */
+    public static final class Fingerprint {
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final String hash;
+
+        Fingerprint(String path, long size, long modified, String hash) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
+}
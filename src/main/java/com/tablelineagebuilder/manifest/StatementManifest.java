@@ -0,0 +1,377 @@
+package com.tablelineagebuilder.manifest;
+
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.model.TableLineage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 파일별 쿼리 지문과 그 쿼리에서 저장한 계보 목록
+ *
+ * 파일이 바뀌었을 때 쿼리 단위로 비교하기 위한 기록이다. 쿼리는 순번이 아닌 SQL 지문(SqlFingerprint)으로 찾으므로,
+ * 중간에 쿼리가 끼어들거나 빠져도 나머지 쿼리는 그대로 일치한다.
+ * - --incremental: 지문이 같은 쿼리는 기록된 계보를 쓰고, 추가되거나 바뀐 쿼리만 분석
+ * - 저장: 이전 기록에는 있지만 이번에 어느 쿼리에서도 나오지 않은 (소스, 타겟)은 삭제된 쿼리의 계보로 보고 정리
+ *
+ * - 저장소: 추가 전용 세그먼트 파일 한 개 (한 줄에 파일 하나, 같은 경로는 나중 레코드가 우선)
+ *   경로 TAB 쿼리수 TAB (지문 TAB 계보수 TAB (소스 TAB 타겟 TAB 모델)*)* TAB $
+ * - 메모리: 경로 → 파일 위치 색인만 두고, 레코드는 해당 파일을 처리할 때 읽음
+ * - 용량: 지난 레코드가 쌓여 세그먼트가 살아 있는 레코드의 2배를 넘으면 새 파일로 압축
+ *
+ * 탭/줄바꿈이 든 경로는 기록하지 않는다. 잘린 마지막 레코드는 다음 실행 시 잘라낸다.
+ * 모든 메서드는 동기화되어 있어 추출/저장 스레드가 공유해도 안전하다.
+ */
+public class StatementManifest implements AutoCloseable {
+
+    private static final String END = "$";
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    private final File segment;
+    private final Map<String, Location> index = new HashMap<>();
+
+    private RandomAccessFile file;
+    private long liveBytes;
+
+    private int reusedStatements;
+    private int analyzedStatements;
+    private int retiredLineages;
+
+    private StatementManifest(File segment) {
+        this.segment = segment;
+    }
+
+    /**
+     * .env 설정(STATEMENT_MANIFEST)으로 열기 (비어 있거나 열 수 없으면 기록하지 않는 목록)
+     */
+    public static StatementManifest open() {
+        String path = Config.getStatementManifest();
+        if (path.isEmpty()) {
+            return new StatementManifest(null);
+        }
+        try {
+            return open(new File(path));
+        } catch (IOException e) {
+            System.err.println("Warning: 쿼리 지문 기록을 열 수 없습니다. 기록 없이 진행합니다: " + e.getMessage());
+            return new StatementManifest(null);
+        }
+    }
+
+    /**
+     * 지정한 세그먼트 파일로 열기
+     */
+    static StatementManifest open(File segment) throws IOException {
+        StatementManifest manifest = new StatementManifest(segment);
+        try {
+            manifest.load();
+            return manifest;
+        } catch (IOException e) {
+            manifest.closeQuietly();
+            throw e;
+        }
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * 파일의 이전 기록 (없으면 null)
+     */
+    public synchronized Snapshot get(String filePath) {
+        Location location = file == null ? null : index.get(filePath);
+        if (location == null) {
+            return null;
+        }
+        try {
+            byte[] record = new byte[location.length];
+            file.seek(location.offset);
+            file.readFully(record);
+            Snapshot snapshot = decode(new String(record, StandardCharsets.UTF_8).trim());
+            if (snapshot == null) {
+                index.remove(filePath);
+                liveBytes -= location.length;
+            }
+            return snapshot;
+        } catch (IOException e) {
+            System.err.println("Warning: 쿼리 지문 기록 읽기 실패: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 파일의 기록 교체 (DB 저장이 끝난 뒤 호출)
+     */
+    public synchronized void put(String filePath, Snapshot snapshot) {
+        if (file == null || !recordable(filePath)) {
+            return;
+        }
+        try {
+            byte[] record = encode(filePath, snapshot).getBytes(StandardCharsets.UTF_8);
+            long offset = file.length();
+            file.seek(offset);
+            file.write(record);
+            Location previous = index.put(filePath, new Location(offset, record.length));
+            liveBytes += record.length - (previous == null ? 0 : previous.length);
+            if (file.length() > COMPACT_MIN_BYTES && file.length() > liveBytes * 2) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: 쿼리 지문 기록 쓰기 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 지문이 같아 이전 계보를 그대로 쓴 쿼리 수 집계
+     */
+    public synchronized void recordReused() {
+        reusedStatements++;
+    }
+
+    /**
+     * 이전 기록이 있는 파일에서 새로 분석한 쿼리 수 집계 (추가되거나 바뀐 쿼리)
+     */
+    public synchronized void recordAnalyzed() {
+        analyzedStatements++;
+    }
+
+    /**
+     * 삭제된 쿼리의 계보로 정리한 행 수 집계
+     */
+    public synchronized void recordRetired(int count) {
+        retiredLineages += count;
+    }
+
+    /**
+     * 통계 요약 (리포트/콘솔 출력용, 비활성화 시 빈 목록)
+     */
+    public synchronized List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (file == null) {
+            return lines;
+        }
+        lines.add("쿼리 지문 기록: " + segment.getPath() + " (" + index.size() + "개 파일, " + segment.length() + " bytes)");
+        if (reusedStatements > 0 || analyzedStatements > 0) {
+            lines.add("바뀐 파일의 쿼리: 변경 없음 " + reusedStatements + "개 (계보 재사용), 추가/변경 " +
+                analyzedStatements + "개 (분석)");
+        }
+        if (retiredLineages > 0) {
+            lines.add("삭제된 쿼리의 계보 정리: " + retiredLineages + "개");
+        }
+        return lines;
+    }
+
+    private static boolean recordable(String filePath) {
+        return filePath.indexOf('\t') < 0 && filePath.indexOf('\n') < 0 && filePath.indexOf('\r') < 0;
+    }
+
+    private void load() throws IOException {
+        File directory = segment.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("디렉토리를 만들 수 없습니다: " + directory);
+        }
+
+        // 레코드 색인: 줄 단위로 경로와 위치만 읽음, 잘린 레코드를 만나면 그 지점부터 버림
+        long valid = 0;
+        if (segment.exists()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(segment))) {
+                ByteArrayOutputStream path = new ByteArrayOutputStream();
+                boolean inPath = true;
+                int last = -1;
+                int beforeLast = -1;
+                long position = 0;
+                int b;
+                while ((b = in.read()) >= 0) {
+                    position++;
+                    if (b == '\n') {
+                        if (beforeLast != '\t' || last != '$' || path.size() == 0) {
+                            break;
+                        }
+                        int length = (int) (position - valid);
+                        Location previous = index.put(new String(path.toByteArray(), StandardCharsets.UTF_8),
+                            new Location(valid, length));
+                        liveBytes += length - (previous == null ? 0 : previous.length);
+                        valid = position;
+                        path.reset();
+                        inPath = true;
+                        last = beforeLast = -1;
+                        continue;
+                    }
+                    if (inPath) {
+                        if (b == '\t') {
+                            inPath = false;
+                        } else {
+                            path.write(b);
+                        }
+                    }
+                    beforeLast = last;
+                    last = b;
+                }
+            }
+        }
+
+        file = new RandomAccessFile(segment, "rw");
+        if (valid < file.length()) {
+            System.err.println("Warning: 쿼리 지문 기록의 손상된 끝부분(" + (file.length() - valid) + " bytes)을 잘라냅니다.");
+            file.setLength(valid);
+        }
+    }
+
+    /**
+     * 살아 있는 레코드만 새 세그먼트에 옮겨 적고 교체
+     */
+    private void compact() throws IOException {
+        File compacted = new File(segment.getPath() + ".tmp");
+        Map<String, Location> newIndex = new HashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+            out.setLength(0);
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                byte[] record = new byte[entry.getValue().length];
+                file.seek(entry.getValue().offset);
+                file.readFully(record);
+                newIndex.put(entry.getKey(), new Location(out.getFilePointer(), record.length));
+                out.write(record);
+            }
+        }
+
+        file.close();
+        Files.move(compacted.toPath(), segment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file = new RandomAccessFile(segment, "rw");
+        index.clear();
+        index.putAll(newIndex);
+        liveBytes = file.length();
+    }
+
+    private static String encode(String filePath, Snapshot snapshot) {
+        StringBuilder sb = new StringBuilder(filePath).append('\t').append(snapshot.statements.size());
+        for (Map.Entry<String, List<String[]>> statement : snapshot.statements.entrySet()) {
+            sb.append('\t').append(statement.getKey()).append('\t').append(statement.getValue().size());
+            for (String[] lineage : statement.getValue()) {
+                sb.append('\t').append(clean(lineage[0])).append('\t').append(clean(lineage[1]))
+                    .append('\t').append(clean(lineage[2]));
+            }
+        }
+        return sb.append('\t').append(END).append('\n').toString();
+    }
+
+    /**
+     * 레코드 해석 (형식이 맞지 않으면 null)
+     */
+    private static Snapshot decode(String line) {
+        String[] fields = line.split("\t", -1);
+        try {
+            Snapshot snapshot = new Snapshot();
+            int statements = Integer.parseInt(fields[1]);
+            int next = 2;
+            for (int i = 0; i < statements; i++) {
+                String fingerprint = fields[next++];
+                int count = Integer.parseInt(fields[next++]);
+                List<String[]> lineages = new ArrayList<>(count);
+                for (int j = 0; j < count; j++, next += 3) {
+                    lineages.add(new String[] {fields[next], fields[next + 1], fields[next + 2]});
+                }
+                snapshot.statements.put(fingerprint, lineages);
+            }
+            return next == fields.length - 1 && END.equals(fields[next]) ? snapshot : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private void closeQuietly() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // 무시
+            }
+            file = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly();
+    }
+
+    /**
+     * 파일 하나의 쿼리 지문 → 계보 (소스, 타겟, 모델) 목록
+     */
+    public static final class Snapshot {
+        private final Map<String, List<String[]>> statements = new LinkedHashMap<>();
+
+        /**
+         * 쿼리의 결과 추가 (같은 지문이 여러 번 나오면 첫 결과 유지)
+         */
+        public void add(String fingerprint, List<TableLineage> lineages) {
+            if (fingerprint == null || statements.containsKey(fingerprint)) {
+                return;
+            }
+            List<String[]> entries = new ArrayList<>();
+            if (lineages != null) {
+                for (TableLineage lineage : lineages) {
+                    entries.add(new String[] {lineage.getSourceTable(), lineage.getTargetTable(), lineage.getModelUsed()});
+                }
+            }
+            statements.put(fingerprint, entries);
+        }
+
+        /**
+         * 지문이 같은 쿼리의 계보 (소스, 타겟, 모델) 목록 (없으면 null)
+         */
+        public List<String[]> get(String fingerprint) {
+            List<String[]> lineages = statements.get(fingerprint);
+            return lineages == null ? null : Collections.unmodifiableList(lineages);
+        }
+
+        /**
+         * 이 기록에는 있지만 이번 계보에는 없는 (소스, 타겟) 쌍
+         */
+        public List<String[]> retiredBy(List<TableLineage> current) {
+            Set<String> kept = new LinkedHashSet<>();
+            for (TableLineage lineage : current) {
+                kept.add(lineage.getSourceTable() + '\t' + lineage.getTargetTable());
+            }
+            Set<String> seen = new LinkedHashSet<>();
+            List<String[]> retired = new ArrayList<>();
+            for (List<String[]> lineages : statements.values()) {
+                for (String[] lineage : lineages) {
+                    String pair = lineage[0] + '\t' + lineage[1];
+                    if (!kept.contains(pair) && seen.add(pair)) {
+                        retired.add(new String[] {lineage[0], lineage[1]});
+                    }
+                }
+            }
+            return retired;
+        }
+    }
+
+    private static final class Location {
+        final long offset;
+        final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
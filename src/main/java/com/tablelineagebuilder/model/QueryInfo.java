@@ -1,58 +1,76 @@
 package com.tablelineagebuilder.model;
 
+import com.tablelineagebuilder.sql.SqlFingerprint;
+import com.tablelineagebuilder.sql.StatementClassifier;
+import com.tablelineagebuilder.sql.StatementClassifier.SkipReason;
+
 /**
  * 추출된 SQL 쿼리 정보를 담는 모델
+ *
+ * 쿼리 원문은 String 또는 추출 버퍼의 구간(StatementSlice)으로 받으며,
+ * 구간이면 getQueryText()가 처음 불릴 때(프롬프트 생성, 저장 등) String으로 만들어 보관한다.
+ * 분석이 필요 없는 쿼리는 끝까지 String으로 만들지 않는다.
  */
 public class QueryInfo {
     private String filePath;
-    private String queryText;
-    private boolean needsLineageAnalysis;
+    private CharSequence queryText;
+    private SkipReason skipReason;
+    private String fingerprint;
 
     public QueryInfo(String filePath, String queryText) {
+        this(filePath, (CharSequence) queryText);
+    }
+
+    public QueryInfo(String filePath, CharSequence queryText) {
         this.filePath = filePath;
         this.queryText = queryText;
-        this.needsLineageAnalysis = determineIfNeedsAnalysis(queryText);
+        // 계보 분석이 필요한 쿼리 타입: INSERT(VALUES만 있는 경우 제외), UPDATE, MERGE, CREATE … AS SELECT (WITH로 시작해도 동일)
+        this.skipReason = StatementClassifier.classify(queryText);
     }
 
-    /**
-     * 테이블 계보 분석이 필요한 쿼리인지 판단
-     */
-    private boolean determineIfNeedsAnalysis(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return false;
-        }
-
-        String normalized = query.trim().toUpperCase();
+    public String getFilePath() {
+        return filePath;
+    }
 
-        // 계보 분석이 필요한 쿼리 타입
-        // INSERT, UPDATE, MERGE, CREATE TABLE AS SELECT
-        if (normalized.startsWith("INSERT") ||
-            normalized.startsWith("UPDATE") ||
-            normalized.startsWith("MERGE") ||
-            (normalized.startsWith("CREATE") && normalized.contains("AS SELECT"))) {
-            return true;
+    public String getQueryText() {
+        if (queryText != null && !(queryText instanceof String)) {
+            // 처음 필요할 때 한 번만 만들고, 이후로는 추출 버퍼를 붙잡지 않음
+            queryText = queryText.toString();
         }
-
-        // 계보 분석이 불필요한 쿼리 타입
-        // DELETE, SET, TRUNCATE, DROP, ALTER (테이블 구조 변경만), SELECT만 있는 경우
-        return false;
+        return (String) queryText;
     }
 
-    public String getFilePath() {
-        return filePath;
+    /**
+     * 쿼리 길이 (String으로 만들지 않고 확인)
+     */
+    public int getQueryLength() {
+        return queryText.length();
     }
 
-    public String getQueryText() {
-        return queryText;
+    /**
+     * SQL 지문 (처음 필요할 때 한 번만 계산)
+     */
+    public String getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = SqlFingerprint.of(getQueryText());
+        }
+        return fingerprint;
     }
 
     public boolean needsLineageAnalysis() {
-        return needsLineageAnalysis;
+        return skipReason == null;
+    }
+
+    /**
+     * 분석하지 않는 이유 (분석 대상이면 null)
+     */
+    public SkipReason getSkipReason() {
+        return skipReason;
     }
 
     @Override
     public String toString() {
         return "QueryInfo{filePath='" + filePath + "', queryLength=" + queryText.length() +
-               ", needsAnalysis=" + needsLineageAnalysis + "}";
+               ", needsAnalysis=" + needsLineageAnalysis() + "}";
     }
 }
@@ -0,0 +1,122 @@
+package com.tablelineagebuilder.pipeline;
+
+import com.tablelineagebuilder.manifest.FileManifest;
+import com.tablelineagebuilder.manifest.StatementManifest;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.report.FileResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 파이프라인을 통과하는 파일 하나의 작업 상태
+ *
+ * pending은 추출 단계가 쥐고 있는 1개 + 아직 분석이 끝나지 않은 쿼리 수.
+ * 0이 되는 순간 파일의 모든 분석이 끝난 것이므로 저장 단계로 넘긴다.
+ */
+class FileWork {
+
+    static final FileWork END = new FileWork(0, null);
+
+    final FileResult result;
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final Map<Integer, List<TableLineage>> lineagesByOrdinal = new ConcurrentHashMap<>();
+    private volatile String analysisError;
+    private final AtomicInteger failed = new AtomicInteger();
+    FileManifest.Fingerprint fingerprint;  // 추출 전에 뜬 파일 지문 (지문 목록을 쓰지 않으면 null)
+    StatementManifest.Snapshot previousStatements;  // 지난 처리 때의 쿼리 지문별 계보 (없으면 null)
+    private final Map<Integer, String> fingerprintsByOrdinal = new ConcurrentHashMap<>();
+
+    FileWork(int fileIndex, String filePath) {
+        this.result = new FileResult(fileIndex, filePath);
+    }
+
+    String getFilePath() {
+        return result.getFilePath();
+    }
+
+    /**
+     * 분석 단계로 쿼리 하나를 넘기기 전에 호출
+     */
+    void statementSubmitted() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * 분석 대상 쿼리의 SQL 지문 기록 (쿼리 지문 기록을 쓸 때만)
+     */
+    void statementFingerprint(int ordinal, String fingerprint) {
+        fingerprintsByOrdinal.put(ordinal, fingerprint);
+    }
+
+    /**
+     * 쿼리 하나의 분석 결과 기록
+     * @return 이 호출로 파일의 모든 분석이 끝났으면 true
+     */
+    boolean statementCompleted(int ordinal, List<TableLineage> lineages) {
+        lineagesByOrdinal.put(ordinal, lineages);
+        return release();
+    }
+
+    /**
+     * 쿼리 분석 중 예외 기록 (처음 발생한 오류만 유지)
+     * @return 이 호출로 파일의 모든 분석이 끝났으면 true
+     */
+    boolean statementFailed(String errorMessage) {
+        failed.incrementAndGet();
+        if (analysisError == null) {
+            analysisError = errorMessage;
+        }
+        return release();
+    }
+
+    /**
+     * 추출 단계가 쥐고 있던 몫을 반환 (모든 쿼리를 넘긴 뒤 호출)
+     * @return 이 호출로 파일의 모든 분석이 끝났으면 true
+     */
+    boolean extractionCompleted() {
+        return release();
+    }
+
+    private boolean release() {
+        return pending.decrementAndGet() == 0;
+    }
+
+    String getAnalysisError() {
+        return analysisError;
+    }
+
+    /**
+     * 분석에 실패한 쿼리 수
+     */
+    int getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * 쿼리 순서대로 모은 계보 목록
+     */
+    List<TableLineage> collectLineages() {
+        List<TableLineage> all = new ArrayList<>();
+        for (int ordinal = 0; ordinal < result.getAnalyzeCount(); ordinal++) {
+            List<TableLineage> lineages = lineagesByOrdinal.get(ordinal);
+            if (lineages != null) {
+                all.addAll(lineages);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * 쿼리 지문별 계보 기록 (다음에 이 파일이 바뀌었을 때 비교용)
+     */
+    StatementManifest.Snapshot collectStatements() {
+        StatementManifest.Snapshot snapshot = new StatementManifest.Snapshot();
+        for (int ordinal = 0; ordinal < result.getAnalyzeCount(); ordinal++) {
+            snapshot.add(fingerprintsByOrdinal.get(ordinal), lineagesByOrdinal.get(ordinal));
+        }
+        return snapshot;
+    }
+}
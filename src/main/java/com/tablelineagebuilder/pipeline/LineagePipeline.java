@@ -0,0 +1,740 @@
+package com.tablelineagebuilder.pipeline;
+
+import com.tablelineagebuilder.agent.QueryExtractorAgent;
+import com.tablelineagebuilder.agent.TableAnalyzerAgent;
+import com.tablelineagebuilder.client.LLMClient;
+import com.tablelineagebuilder.config.Config;
+import com.tablelineagebuilder.config.RunOptions;
+import com.tablelineagebuilder.journal.RunJournal;
+import com.tablelineagebuilder.manifest.FileManifest;
+import com.tablelineagebuilder.manifest.StatementManifest;
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.report.FileResult;
+import com.tablelineagebuilder.report.ResultReport;
+import com.tablelineagebuilder.report.RunSummary;
+import com.tablelineagebuilder.repository.TableLineageRepository;
+import com.tablelineagebuilder.sql.StatementClassifier.SkipReason;
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 추출 → 분석 → 저장 3단계 파이프라인
+ *
+ * 각 단계는 자체 스레드 수를 갖고, 단계 사이는 크기가 제한된 큐로 연결된다.
+ * 큐가 가득 차면 앞 단계가 대기하므로(backpressure) 메모리 사용량이 제한되며,
+ * 앞선 쿼리가 LLM 응답을 기다리는 동안 다음 파일의 추출이 미리 진행된다.
+ * 분석 결과 콜백에서 끝난 파일은 크기 제한이 없는 finishedFiles에 넣고, 전달 스레드가 writeQueue로 옮긴다
+ * (콜백을 실행하는 HTTP/공용 스레드가 writeQueue에서 대기하지 않도록).
+ * SQL 지문이 같은 쿼리는 파일이 달라도 한 번만 분석하고 결과를 나눠 받는다.
+ * PIPELINE_STREAM_EXTRACT_BYTES보다 큰 파일은 쿼리 목록을 만들지 않고 추출하는 대로 분석 단계로 넘긴다.
+ * 분석이 끝난 쿼리와 저장이 끝난 파일은 체크포인트 저널에 기록하고, --resume이면 기록된 작업을 건너뛴다.
+ * 처리가 끝난 파일은 지문(크기/수정 시각/내용 해시)을 남기고, --incremental이면 내용이 같은 파일을 추출 전에 건너뛴다.
+ * 바뀐 파일은 쿼리 지문별로 비교해 추가/변경된 쿼리만 분석하고, 삭제된 쿼리의 계보는 저장과 같은 트랜잭션에서 정리한다.
+ *
+ * [파일 경로] → fileQueue → 추출(QueryExtractorAgent)
+ *             → statementQueue → 분석(TableAnalyzerAgent, 쿼리 단건 또는 묶음)
+ *             → writeQueue → 저장(TableLineageRepository, 파일 단위)
+ */
+public class LineagePipeline implements AutoCloseable {
+
+    private final RunOptions options;
+    private final ResultReport report;
+    private final RunSummary summary;
+
+    private final QueryExtractorAgent extractor = new QueryExtractorAgent();
+    private final TableAnalyzerAgent analyzer = new TableAnalyzerAgent();  // 분석 스레드가 공유
+    private final List<TableLineageRepository> repositories = new ArrayList<>();  // 저장 스레드별 연결
+    private final StatementDeduplicator deduplicator = new StatementDeduplicator(Config.isSqlFingerprintDedup());
+    private final Map<SkipReason, AtomicInteger> skippedQueries = new EnumMap<>(SkipReason.class);
+    private final RunJournal journal;
+    private final FileManifest manifest = FileManifest.open();
+    private final StatementManifest statementManifest = StatementManifest.open();
+
+    private final BlockingQueue<FileWork> fileQueue;
+    private final BlockingQueue<StatementTask> statementQueue;
+    private final BlockingQueue<FileWork> writeQueue;
+    private final BlockingQueue<FileWork> finishedFiles = new LinkedBlockingQueue<>();  // 분석 콜백에서 끝난 파일 (넣을 때 대기하지 않음)
+
+    private volatile int totalFiles;  // -1: 디렉토리를 탐색하며 받는 중이라 아직 모름
+
+    public LineagePipeline(RunOptions options, ResultReport report, RunSummary summary) throws SQLException {
+        this.options = options;
+        this.report = report;
+        this.summary = summary;
+
+        this.fileQueue = new ArrayBlockingQueue<>(Config.getPipelineFileQueueSize());
+        this.statementQueue = new ArrayBlockingQueue<>(Config.getPipelineStatementQueueSize());
+        this.writeQueue = new ArrayBlockingQueue<>(Config.getPipelineWriteQueueSize());
+        for (SkipReason reason : SkipReason.values()) {
+            skippedQueries.put(reason, new AtomicInteger());
+        }
+
+        // JDBC Connection은 스레드 간 공유하지 않으므로 저장 스레드 수만큼 미리 연결
+        for (int i = 0; i < options.getWriterThreads(); i++) {
+            repositories.add(new TableLineageRepository());
+        }
+        this.journal = RunJournal.open(options.isResume());
+        if (options.isIncremental() && !manifest.isEnabled()) {
+            System.err.println("⚠️  FILE_MANIFEST가 비어 있어 --incremental로 변경 없는 파일을 건너뛸 수 없습니다 " +
+                "(예: FILE_MANIFEST=.lineage-manifest.tsv). 모든 파일을 처리합니다.");
+        }
+        if (options.isIncremental() && !statementManifest.isEnabled()) {
+            System.err.println("⚠️  STATEMENT_MANIFEST가 비어 있어 --incremental로 바뀐 파일의 변경 없는 쿼리를 재사용하거나 " +
+                "삭제된 쿼리의 계보를 정리할 수 없습니다 (예: STATEMENT_MANIFEST=.lineage-statements.seg).");
+        }
+    }
+
+    /**
+     * 파일 목록 전체를 처리하고 모든 단계가 끝날 때까지 대기
+     */
+    public void run(List<String> filePaths) throws InterruptedException {
+        run(filePaths.iterator(), filePaths.size());
+    }
+
+    /**
+     * 파일 경로를 받는 대로 처리하고 모든 단계가 끝날 때까지 대기 (--root 탐색처럼 입력이 늦게 도착해도 됨)
+     *
+     * @param totalFiles 전체 파일 수 (모르면 -1, 입력이 끝나면 확정)
+     */
+    public void run(Iterator<String> filePaths, int totalFiles) throws InterruptedException {
+        this.totalFiles = totalFiles;
+        summary.setTotalFiles(Math.max(0, totalFiles));
+
+        List<Thread> extractThreads = startStage("extract", options.getExtractThreads(), this::runExtractStage);
+        List<Thread> analyzeThreads = Config.isLlmAsync()
+            ? startStage("analyze-dispatch", 1, this::runAsyncAnalyzeStage)
+            : startStage("analyze", options.getConcurrency(), this::runAnalyzeStage);
+        List<Thread> handOffThreads = startStage("write-handoff", 1, this::runHandOffStage);
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int i = 0; i < repositories.size(); i++) {
+            TableLineageRepository repository = repositories.get(i);
+            Thread thread = new Thread(() -> runWriteStage(repository), "writer-" + (writerThreads.size() + 1));
+            thread.start();
+            writerThreads.add(thread);
+        }
+
+        // 입력: 큐가 가득 차면 추출 단계가 따라올 때까지 대기
+        int fileIndex = 0;
+        while (filePaths.hasNext()) {
+            String filePath = filePaths.next();
+            fileIndex++;
+            FileResult restored = journal.restoreFile(fileIndex, filePath);
+            if (restored != null) {
+                restore(restored);
+                continue;
+            }
+            fileQueue.put(new FileWork(fileIndex, filePath));
+        }
+        this.totalFiles = fileIndex;
+        summary.setTotalFiles(fileIndex);
+
+        // 앞 단계가 모두 끝난 뒤에 다음 단계에 종료 신호 전달
+        for (int i = 0; i < extractThreads.size(); i++) {
+            fileQueue.put(FileWork.END);
+        }
+        joinAll(extractThreads);
+
+        for (int i = 0; i < analyzeThreads.size(); i++) {
+            statementQueue.put(StatementTask.END);
+        }
+        joinAll(analyzeThreads);
+
+        // 분석 콜백은 분석 단계가 끝나기 전에 모두 실행되므로 이후에는 finishedFiles에 들어올 파일이 없음
+        finishedFiles.put(FileWork.END);
+        joinAll(handOffThreads);
+
+        for (int i = 0; i < writerThreads.size(); i++) {
+            writeQueue.put(FileWork.END);
+        }
+        joinAll(writerThreads);
+    }
+
+    /**
+     * 이전 실행에서 끝난 파일: 저널의 결과로 집계와 리포트 섹션만 다시 만듦
+     */
+    private void restore(FileResult result) {
+        System.out.println("⏩ 파일 [" + fileLabel(result) + "] 이전 실행에서 완료되어 건너뜁니다: " +
+            result.getFilePath());
+        for (Map.Entry<String, Integer> entry : result.getSkipReasons().entrySet()) {
+            for (SkipReason reason : SkipReason.values()) {
+                if (reason.getLabel().equals(entry.getKey())) {
+                    skippedQueries.get(reason).addAndGet(entry.getValue());
+                }
+            }
+        }
+        record(result);
+    }
+
+    /**
+     * 1단계: 파일에서 쿼리를 추출해 분석 대상 쿼리를 statementQueue로 전달
+     */
+    private void runExtractStage() {
+        try {
+            while (true) {
+                FileWork work = fileQueue.take();
+                if (work == FileWork.END) {
+                    return;
+                }
+                extract(work);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void extract(FileWork work) throws InterruptedException {
+        FileResult result = work.result;
+        String filePath = work.getFilePath();
+
+        if (isUnchanged(work)) {
+            System.out.println("⏩ 파일 [" + fileLabel(result) + "] 변경 없음: " + filePath);
+            summary.recordUnchanged();
+            return;
+        }
+
+        System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        System.out.println("파일 [" + fileLabel(result) + "]: " + filePath);
+        System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        if (options.isIncremental()) {
+            // 지난 계보의 재사용/정리는 증분 처리에서만 (전체 처리는 기록만 새로 남김)
+            work.previousStatements = statementManifest.get(filePath);
+        }
+
+        if (!new File(filePath).exists()) {
+            System.err.println("⚠ 파일을 찾을 수 없습니다. 건너뜁니다.");
+            result.skip("파일 없음");
+            writeQueue.put(work);
+            return;
+        }
+
+        if (new File(filePath).length() > Config.getPipelineStreamExtractBytes()) {
+            extractStreaming(work);
+            return;
+        }
+
+        List<QueryInfo> analyzeQueries = new ArrayList<>();
+        try {
+            System.out.println("[1단계] 쿼리 추출 중...");
+            List<QueryInfo> queries = extractor.extractQueries(filePath);
+
+            // 계보 분석이 필요한 쿼리만 필터링
+            for (QueryInfo query : queries) {
+                if (query.needsLineageAnalysis()) {
+                    analyzeQueries.add(query);
+                } else {
+                    recordSkippedQuery(result, query);
+                }
+            }
+            int skippedQueryCount = queries.size() - analyzeQueries.size();
+            result.setQueryCounts(queries.size(), analyzeQueries.size(), skippedQueryCount);
+
+            System.out.println("추출된 쿼리 개수: " + queries.size() +
+                ", 분석 대상 쿼리: " + analyzeQueries.size() + "개 (건너뜀: " + skippedQueryCount + "개)");
+
+            if (analyzeQueries.isEmpty()) {
+                System.out.println("⚠ 분석할 쿼리가 없습니다. 다음 파일로 이동합니다.");
+                result.skip("분석 대상 없음");
+                writeQueue.put(work);
+                return;
+            }
+        } catch (Exception e) {
+            System.err.println("✗ 파일 처리 중 오류 발생: " + e.getMessage());
+            e.printStackTrace();
+            result.error(e.getMessage());
+            writeQueue.put(work);
+            return;
+        }
+
+        for (int i = 0; i < analyzeQueries.size(); i++) {
+            submit(work, i, analyzeQueries.get(i));
+        }
+        if (work.extractionCompleted()) {
+            writeQueue.put(work);
+        }
+    }
+
+    /**
+     * 추출 전에 파일 지문을 뜨고, --incremental이면 지난 처리 이후 내용이 바뀌지 않았는지 확인
+     */
+    private boolean isUnchanged(FileWork work) {
+        if (!manifest.isEnabled()) {
+            return false;
+        }
+        try {
+            work.fingerprint = manifest.fingerprint(work.getFilePath());
+        } catch (IOException e) {
+            System.err.println("Warning: 파일 지문을 뜰 수 없습니다: " + work.getFilePath() + " (" + e.getMessage() + ")");
+            return false;
+        }
+        return options.isIncremental() && manifest.isUnchanged(work.fingerprint);
+    }
+
+    /**
+     * 대용량 파일 추출: 쿼리를 하나씩 읽어 바로 분석 단계로 넘김
+     * 파일 전체나 쿼리 목록을 메모리에 두지 않으며, 쿼리 개수는 추출이 끝난 뒤에 기록한다.
+     */
+    private void extractStreaming(FileWork work) throws InterruptedException {
+        FileResult result = work.result;
+        int extracted = 0;
+        int analyzeCount = 0;
+
+        System.out.println("[1단계] 쿼리 추출 중... (대용량 파일: " + new File(work.getFilePath()).length() / (1024 * 1024) +
+            "MB, 추출하는 대로 분석)");
+        try (Stream<QueryInfo> queries = extractor.streamQueries(work.getFilePath())) {
+            Iterator<QueryInfo> iterator = queries.iterator();
+            while (iterator.hasNext()) {
+                QueryInfo query = iterator.next();
+                extracted++;
+                if (query.needsLineageAnalysis()) {
+                    submit(work, analyzeCount++, query);
+                } else {
+                    recordSkippedQuery(result, query);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("✗ 파일 처리 중 오류 발생: " + e.getMessage());
+            e.printStackTrace();
+            result.error(e.getMessage());
+        }
+
+        result.setQueryCounts(extracted, analyzeCount, extracted - analyzeCount);
+        System.out.println("추출된 쿼리 개수: " + extracted +
+            ", 분석 대상 쿼리: " + analyzeCount + "개 (건너뜀: " + (extracted - analyzeCount) + "개)");
+        if (analyzeCount == 0 && result.getStatus() == null) {
+            System.out.println("⚠ 분석할 쿼리가 없습니다. 다음 파일로 이동합니다.");
+            result.skip("분석 대상 없음");
+        }
+        if (work.extractionCompleted()) {
+            writeQueue.put(work);
+        }
+    }
+
+    /**
+     * 분석하지 않는 쿼리의 이유를 파일별/실행 전체로 집계
+     */
+    private void recordSkippedQuery(FileResult result, QueryInfo query) {
+        SkipReason reason = query.getSkipReason();
+        result.addSkippedQuery(reason.getLabel());
+        skippedQueries.get(reason).incrementAndGet();
+    }
+
+    /**
+     * 2단계로 전달: statementQueue가 가득 차면 분석 단계가 따라올 때까지 대기
+     * 앞서 같은 지문의 쿼리가 분석 단계로 갔으면 그 결과를 기다림
+     */
+    private void submit(FileWork work, int ordinal, QueryInfo query) throws InterruptedException {
+        work.statementSubmitted();
+        if (statementManifest.isEnabled()) {
+            work.statementFingerprint(ordinal, query.getFingerprint());
+        }
+        List<TableLineage> journaled = journal.restoreStatement(query, ordinal);
+        if (journaled != null) {
+            System.out.println("  [" + work.result.getFileIndex() + "] " + progress(work.result, ordinal) +
+                " 이전 실행의 분석 결과를 사용합니다.");
+            if (work.statementCompleted(ordinal, journaled)) {
+                writeQueue.put(work);
+            }
+            return;
+        }
+        if (work.previousStatements != null) {
+            List<TableLineage> unchanged = unchangedStatement(work.previousStatements, query);
+            if (unchanged != null) {
+                System.out.println("  [" + work.result.getFileIndex() + "] " + progress(work.result, ordinal) +
+                    " 변경 없는 쿼리: 지난 처리의 계보를 사용합니다.");
+                statementManifest.recordReused();
+                if (statementCompleted(work, ordinal, query, unchanged)) {
+                    writeQueue.put(work);
+                }
+                return;
+            }
+            statementManifest.recordAnalyzed();
+        }
+        CompletableFuture<List<TableLineage>> fresh = new CompletableFuture<>();
+        CompletableFuture<List<String[]>> existing = deduplicator.register(query, fresh);
+        if (existing == null) {
+            statementQueue.put(new StatementTask(work, ordinal, query, fresh));
+        } else {
+            System.out.println("  [" + work.result.getFileIndex() + "] " + progress(work.result, ordinal) +
+                " 중복 쿼리: 같은 지문의 분석 결과를 사용합니다.");
+            shareResult(existing, work, ordinal, query);
+        }
+    }
+
+    /**
+     * 지난 처리 때 지문이 같은 쿼리가 있었으면 그 계보를 이 쿼리의 것으로 만듦 (없으면 null)
+     */
+    private static List<TableLineage> unchangedStatement(StatementManifest.Snapshot previous, QueryInfo query) {
+        List<String[]> recorded = previous.get(query.getFingerprint());
+        if (recorded == null) {
+            return null;
+        }
+        List<TableLineage> lineages = new ArrayList<>(recorded.size());
+        for (String[] lineage : recorded) {
+            lineages.add(new TableLineage(lineage[0], lineage[1], query.getFilePath(), query.getQueryText(), lineage[2]));
+        }
+        return lineages;
+    }
+
+    /**
+     * 파일 진행 표시 "순번/전체 파일 수" - 디렉토리 탐색 중에는 전체 수를 모름
+     */
+    private String fileLabel(FileResult result) {
+        int total = totalFiles;
+        return result.getFileIndex() + "/" + (total < 0 ? "…" : String.valueOf(total));
+    }
+
+    /**
+     * 진행 표시 "(순번/분석 대상 수)" - 대용량 파일은 추출이 끝나기 전까지 전체 수를 모름
+     */
+    private static String progress(FileResult result, int ordinal) {
+        return "(" + (ordinal + 1) + "/" + (result.getExtractedCount() < 0 ? "…" : String.valueOf(result.getAnalyzeCount())) + ")";
+    }
+
+    /**
+     * 2단계: 쿼리별 LLM 분석, 파일의 마지막 쿼리가 끝나면 저장 단계로 전달
+     * LLM_PACK_TOKEN_BUDGET이 설정되면 여러 쿼리를 한 요청으로 묶어 분석
+     */
+    private void runAnalyzeStage() {
+        StatementBatcher batcher = new StatementBatcher(statementQueue);
+        try {
+            List<StatementTask> batch;
+            while ((batch = batcher.next()) != null) {
+                printBatch(batch, "분석 중...");
+
+                List<CompletableFuture<List<TableLineage>>> results = analyzeBatch(batch);
+                CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).exceptionally(error -> null).join();
+                completeBatch(batch, results);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 분석 콜백에서 끝난 파일을 writeQueue로 옮김 (writeQueue가 가득 차면 이 스레드만 대기)
+     */
+    private void runHandOffStage() {
+        try {
+            FileWork work;
+            while ((work = finishedFiles.take()) != FileWork.END) {
+                writeQueue.put(work);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 2단계 (LLM_ASYNC=true): 스레드 하나가 비동기 분석을 --concurrency개까지 동시에 유지
+     * 응답을 기다리는 요청이 스레드를 점유하지 않으므로 수백 개의 요청도 소수 스레드로 처리 가능
+     */
+    private void runAsyncAnalyzeStage() {
+        int maxOutstanding = options.getConcurrency();
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        StatementBatcher batcher = new StatementBatcher(statementQueue);
+        try {
+            List<StatementTask> batch;
+            while ((batch = batcher.next()) != null) {
+                outstanding.acquire();
+                printBatch(batch, "분석 요청...");
+
+                List<StatementTask> requested = batch;
+                List<CompletableFuture<List<TableLineage>>> results = analyzeBatch(batch);
+                CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).whenComplete((done, error) -> {
+                    try {
+                        completeBatch(requested, results);
+                    } finally {
+                        outstanding.release();
+                    }
+                });
+            }
+            // 진행 중인 요청이 모두 끝난 뒤 종료
+            outstanding.acquire(maxOutstanding);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printBatch(List<StatementTask> batch, String action) {
+        for (StatementTask task : batch) {
+            FileResult result = task.file.result;
+            System.out.println("  [" + result.getFileIndex() + "] " + progress(result, task.ordinal) + " " + action);
+        }
+    }
+
+    /**
+     * 묶음의 쿼리별 분석 요청 (요청을 만드는 중에 실패하면 모든 쿼리가 그 예외로 완료)
+     */
+    private List<CompletableFuture<List<TableLineage>>> analyzeBatch(List<StatementTask> batch) {
+        List<QueryInfo> queries = new ArrayList<>();
+        for (StatementTask task : batch) {
+            queries.add(task.query);
+        }
+        try {
+            return analyzer.analyzePackedAsync(queries);
+        } catch (RuntimeException e) {
+            List<CompletableFuture<List<TableLineage>>> failed = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<List<TableLineage>> result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+                failed.add(result);
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * 묶음의 쿼리별 결과(모두 완료된 상태)를 각 파일에 반영하고, 마지막 쿼리가 끝난 파일은 저장 단계로 전달
+     * 분석에 실패한 쿼리는 저널에 남기지 않고 파일의 오류로 기록하며, 같은 지문으로 기다리던 쿼리에도 결과를 넘김
+     * 비동기 분석에서는 응답 콜백 스레드에서 실행되므로 대기하지 않는다.
+     */
+    private void completeBatch(List<StatementTask> batch, List<CompletableFuture<List<TableLineage>>> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            StatementTask task = batch.get(i);
+            List<TableLineage> lineages = null;
+            Throwable error = null;
+            try {
+                lineages = results.get(i).join();
+            } catch (RuntimeException e) {
+                error = LLMClient.unwrap(e);
+                System.err.println("✗ 쿼리 분석 중 오류 발생: " + task.file.getFilePath() + " - " + error.getMessage());
+            }
+            boolean fileDone = error == null
+                ? statementCompleted(task.file, task.ordinal, task.query, lineages)
+                : task.file.statementFailed(error.getMessage());
+            if (fileDone) {
+                finishedFiles.add(task.file);
+            }
+            if (error == null) {
+                task.result.complete(lineages);
+            } else {
+                task.result.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * 같은 지문의 쿼리가 분석되면 그 계보를 이 쿼리의 결과로 기록
+     */
+    private void shareResult(CompletableFuture<List<String[]>> original, FileWork work, int ordinal, QueryInfo query) {
+        original.whenComplete((records, error) -> {
+            boolean fileDone = error == null
+                ? statementCompleted(work, ordinal, query, StatementDeduplicator.rebase(records, query))
+                : work.statementFailed(LLMClient.unwrap(error).getMessage());
+            if (fileDone) {
+                finishedFiles.add(work);
+            }
+        });
+    }
+
+    /**
+     * 쿼리의 분석 결과를 저널에 남기고 파일에 반영 (파일의 마지막 쿼리면 true)
+     */
+    private boolean statementCompleted(FileWork work, int ordinal, QueryInfo query, List<TableLineage> lineages) {
+        journal.recordStatement(query, ordinal, lineages);
+        return work.statementCompleted(ordinal, lineages);
+    }
+
+    /**
+     * 건너뛴 쿼리의 이유별 개수 (건너뛴 쿼리가 없으면 빈 목록)
+     */
+    public List<String> describeSkippedQueries() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<SkipReason, AtomicInteger> entry : skippedQueries.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                lines.add(entry.getKey().getLabel() + ": " + entry.getValue().get() + "개");
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 분석 경로(로컬 파서/LLM) 통계
+     */
+    public List<String> describeAnalysis() {
+        return analyzer.describe();
+    }
+
+    /**
+     * 크기별 모델 라우팅 통계 (비활성화 시 빈 목록)
+     */
+    public List<String> describeModelRouting() {
+        return analyzer.describeRouting();
+    }
+
+    /**
+     * SQL 지문 중복 제거 통계 (비활성화 시 빈 목록)
+     */
+    public List<String> describeDeduplication() {
+        return deduplicator.describe();
+    }
+
+    /**
+     * 체크포인트 저널 통계 (비활성화 시 빈 목록)
+     */
+    public List<String> describeCheckpoint() {
+        return journal.describe();
+    }
+
+    /**
+     * 파일 지문 목록(증분 처리) 통계 (비활성화 시 빈 목록)
+     */
+    public List<String> describeManifest() {
+        List<String> lines = new ArrayList<>(manifest.describe());
+        lines.addAll(statementManifest.describe());
+        return lines;
+    }
+
+    /**
+     * 3단계: 파일 단위로 계보를 DB에 저장하고 리포트에 기록
+     */
+    private void runWriteStage(TableLineageRepository repository) {
+        try {
+            while (true) {
+                FileWork work = writeQueue.take();
+                if (work == FileWork.END) {
+                    return;
+                }
+                write(work, repository);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(FileWork work, TableLineageRepository repository) {
+        FileResult result = work.result;
+
+        if (result.getStatus() == null && work.getAnalysisError() != null) {
+            // 분석에 실패한 쿼리가 있으면 파일 전체를 저장하지 않음 (성공한 쿼리는 저널에 남아 다음 실행에서 재사용)
+            result.error("쿼리 " + work.getFailedCount() + "개 분석 실패: " + work.getAnalysisError());
+        }
+
+        if (result.getStatus() == null) {
+            try {
+                List<TableLineage> allLineages = work.collectLineages();
+
+                System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+                System.out.println("파일 [" + fileLabel(result) + "] 분석 완료: " + work.getFilePath());
+                for (TableLineage lineage : allLineages) {
+                    String relation = lineage.getSourceTable() + " → " + lineage.getTargetTable();
+                    System.out.println("    -> " + relation);
+                    result.addRelation(relation);
+                }
+                System.out.println("이 파일의 추출된 계보: " + allLineages.size() + "개");
+
+                System.out.println("[3단계] 데이터베이스 저장 중...");
+                List<String[]> retired = saveFileLineages(work, repository, allLineages);
+                int savedCount = allLineages.size();
+
+                System.out.println("✓ 저장 완료: " + savedCount + "개" +
+                    (retired.isEmpty() ? "" : " (삭제된 쿼리의 계보 " + retired.size() + "개 정리)"));
+                System.out.println();
+
+                result.success(savedCount);
+
+            } catch (Exception e) {
+                System.err.println("✗ 파일 처리 중 오류 발생: " + e.getMessage());
+                e.printStackTrace();
+                result.error(e.getMessage());
+            }
+        } else if (result.getStatus() == FileResult.Status.SKIP && result.getExtractedCount() >= 0
+                && work.previousStatements != null) {
+            // 분석 대상 쿼리가 모두 없어진 파일: 지난 처리 때의 계보를 모두 정리
+            try {
+                List<String[]> retired = saveFileLineages(work, repository, new ArrayList<>());
+                if (!retired.isEmpty()) {
+                    System.out.println("✓ 삭제된 쿼리의 계보 " + retired.size() + "개 정리: " + work.getFilePath());
+                }
+            } catch (Exception e) {
+                System.err.println("✗ 삭제된 쿼리의 계보 정리 중 오류 발생: " + e.getMessage());
+                result.error(e.getMessage());
+            }
+        }
+
+        journal.recordFile(result);
+        // 끝까지 읽고 모든 쿼리 분석이 끝난 파일만 지문을 남김 (오류, 분석 실패, 파일 없음은 다음 실행에서 다시 처리)
+        if (result.getStatus() != FileResult.Status.ERROR && result.getExtractedCount() >= 0
+                && work.getFailedCount() == 0) {
+            manifest.record(work.fingerprint);
+        }
+        record(result);
+    }
+
+    /**
+     * 계보를 저장하면서 지난 처리 때에는 있었지만 이번에 어느 쿼리에서도 나오지 않은 계보를 같은 트랜잭션에서 삭제하고,
+     * 저장이 끝나면 이번 쿼리 지문 기록으로 교체
+     * 삭제는 증분 처리(--incremental)에서 파일의 모든 쿼리 분석이 끝났을 때만 한다 (실패한 쿼리의 계보를 지우지 않도록).
+     * @return 정리한 (소스, 타겟) 쌍 목록
+     */
+    private List<String[]> saveFileLineages(FileWork work, TableLineageRepository repository, List<TableLineage> lineages)
+            throws SQLException {
+        List<String[]> retired = work.previousStatements == null || work.getFailedCount() > 0
+            ? new ArrayList<>()
+            : work.previousStatements.retiredBy(lineages);
+        repository.saveAll(lineages, work.getFilePath(), retired);
+        statementManifest.recordRetired(retired.size());
+        statementManifest.put(work.getFilePath(), work.collectStatements());
+        return retired;
+    }
+
+    /**
+     * 요약 집계와 리포트에 파일 결과 반영
+     */
+    private void record(FileResult result) {
+        switch (result.getStatus()) {
+            case SUCCESS:
+                summary.recordSuccess(result.getAnalyzeCount(), result.getSavedCount());
+                break;
+            case SKIP:
+                summary.recordSkip(result.getFilePath());
+                break;
+            case ERROR:
+                summary.recordError(result.getFilePath(), result.getMessage());
+                break;
+        }
+        report.writeFile(result, totalFiles);
+    }
+
+    private static List<Thread> startStage(String name, int threadCount, Runnable body) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(body, name + "-" + (i + 1));
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (TableLineageRepository repository : repositories) {
+            repository.close();
+        }
+        journal.close();
+        manifest.close();
+        statementManifest.close();
+    }
+}
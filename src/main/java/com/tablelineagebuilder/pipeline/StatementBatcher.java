@@ -0,0 +1,85 @@
+package com.tablelineagebuilder.pipeline;
+
+import com.tablelineagebuilder.agent.TableAnalyzerAgent;
+import com.tablelineagebuilder.config.Config;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * statementQueue에서 한 번의 LLM 요청으로 보낼 쿼리 묶음을 꺼내는 도우미
+ *
+ * LLM_PACK_TOKEN_BUDGET이 0이면 항상 쿼리 하나씩 꺼낸다.
+ * 양수면 쿼리 토큰 합이 예산과 LLM_PACK_MAX_STATEMENTS를 넘지 않는 동안, 최대 LLM_PACK_WAIT_MS까지
+ * 다음 쿼리를 기다려 묶는다. 큐에는 여러 파일의 쿼리가 섞여 있으므로 파일 경계와 무관하게 묶인다.
+ * 혼자서 예산을 넘는 쿼리는 단독 묶음이 되어 단건 호출로 처리된다.
+ *
+ * 분석 스레드마다 하나씩 사용한다 (다음 묶음으로 넘길 쿼리를 보관하므로 공유 불가).
+ */
+class StatementBatcher {
+
+    private final BlockingQueue<StatementTask> queue;
+    private final int tokenBudget;
+    private final int maxStatements;
+    private final long waitNanos;
+
+    private StatementTask carry;  // 예산을 넘겨 다음 묶음의 첫 쿼리가 될 작업
+    private boolean ended;
+
+    StatementBatcher(BlockingQueue<StatementTask> queue) {
+        this.queue = queue;
+        this.tokenBudget = Config.getLlmPackTokenBudget();
+        this.maxStatements = Math.max(1, Config.getLlmPackMaxStatements());
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(Config.getLlmPackWaitMs());
+    }
+
+    /**
+     * 다음 묶음 (종료 신호를 받고 남은 작업이 없으면 null)
+     */
+    List<StatementTask> next() throws InterruptedException {
+        StatementTask first;
+        if (carry != null) {
+            first = carry;
+            carry = null;
+        } else if (ended) {
+            return null;
+        } else {
+            first = queue.take();
+        }
+        if (first == StatementTask.END) {
+            ended = true;
+            return null;
+        }
+
+        List<StatementTask> batch = new ArrayList<>();
+        batch.add(first);
+
+        int tokens = TableAnalyzerAgent.estimateTokens(first.query);
+        if (tokenBudget <= 0 || tokens > tokenBudget) {
+            return batch;
+        }
+
+        long deadline = System.nanoTime() + waitNanos;
+        while (!ended && batch.size() < maxStatements) {
+            long remaining = deadline - System.nanoTime();
+            StatementTask next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            if (next == StatementTask.END) {
+                ended = true;
+                break;
+            }
+
+            int nextTokens = TableAnalyzerAgent.estimateTokens(next.query);
+            if (tokens + nextTokens > tokenBudget) {
+                carry = next;
+                break;
+            }
+            batch.add(next);
+            tokens += nextTokens;
+        }
+        return batch;
+    }
+}
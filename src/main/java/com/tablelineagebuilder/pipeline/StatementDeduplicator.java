@@ -0,0 +1,103 @@
+package com.tablelineagebuilder.pipeline;
+
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 실행 전체에서 SQL 지문이 같은 쿼리를 한 번만 분석하도록 묶는 등록부
+ *
+ * 지문별로 처음 등록된 쿼리만 분석 단계로 보내고, 이후 같은 지문의 쿼리는
+ * 그 분석 결과를 받아 자신의 파일 경로와 쿼리 원문으로 계보를 만든다.
+ * 분석 중에는 결과 future를, 분석이 끝나면 (소스, 타겟, 모델)만 지문별로 보관한다 (쿼리 원문은 보관하지 않음).
+ * 분석에 실패한 지문은 잊으므로 다음에 나오는 같은 지문의 쿼리가 다시 분석된다.
+ */
+class StatementDeduplicator {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, CompletableFuture<List<String[]>>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<String[]>> completed = new ConcurrentHashMap<>();
+    private final AtomicInteger duplicates = new AtomicInteger();
+
+    StatementDeduplicator(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 쿼리의 분석 결과를 받을 future 등록
+     *
+     * @param fresh 이 쿼리가 처음이면 분석 결과로 완료해야 할 future
+     * @return 같은 지문의 쿼리가 이미 있으면 그 결과의 (소스, 타겟, 모델) 목록 future, 처음이면 null
+     */
+    CompletableFuture<List<String[]>> register(QueryInfo query, CompletableFuture<List<TableLineage>> fresh) {
+        if (!enabled) {
+            return null;
+        }
+        String fingerprint = query.getFingerprint();
+        List<String[]> done = completed.get(fingerprint);
+        if (done != null) {
+            duplicates.incrementAndGet();
+            return CompletableFuture.completedFuture(done);
+        }
+
+        CompletableFuture<List<String[]>> shared = fresh.thenApply(StatementDeduplicator::records);
+        CompletableFuture<List<String[]>> existing = inFlight.putIfAbsent(fingerprint, shared);
+        if (existing != null) {
+            duplicates.incrementAndGet();
+            return existing;
+        }
+        // 첫 조회 뒤에 같은 지문의 분석이 끝났으면 그 결과를 사용 (완료 기록을 먼저 남기고 진행 목록에서 빠지므로 여기서 보임)
+        done = completed.get(fingerprint);
+        if (done != null) {
+            inFlight.remove(fingerprint, shared);
+            duplicates.incrementAndGet();
+            return CompletableFuture.completedFuture(done);
+        }
+        shared.whenComplete((records, error) -> {
+            if (error == null) {
+                completed.put(fingerprint, records);
+            }
+            inFlight.remove(fingerprint, shared);
+        });
+        return null;
+    }
+
+    /**
+     * 계보의 (소스, 타겟, 모델) 목록
+     */
+    private static List<String[]> records(List<TableLineage> lineages) {
+        List<String[]> records = new ArrayList<>(lineages.size());
+        for (TableLineage lineage : lineages) {
+            records.add(new String[] {lineage.getSourceTable(), lineage.getTargetTable(), lineage.getModelUsed()});
+        }
+        return records;
+    }
+
+    /**
+     * (소스, 타겟, 모델) 목록을 이 쿼리의 계보로 만듦
+     */
+    static List<TableLineage> rebase(List<String[]> records, QueryInfo query) {
+        List<TableLineage> lineages = new ArrayList<>(records.size());
+        for (String[] record : records) {
+            lineages.add(new TableLineage(record[0], record[1], query.getFilePath(), query.getQueryText(), record[2]));
+        }
+        return lineages;
+    }
+
+    /**
+     * 중복 제거 통계 (리포트/콘솔 출력용, 비활성화 시 빈 목록)
+     */
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!enabled) {
+            return lines;
+        }
+        lines.add("고유 쿼리 지문: " + (completed.size() + inFlight.size()) + "개");
+        lines.add("중복 쿼리: " + duplicates.get() + "개 (절약한 LLM 분석 " + duplicates.get() + "회)");
+        return lines;
+    }
+}
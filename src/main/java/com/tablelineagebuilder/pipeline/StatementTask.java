@@ -0,0 +1,27 @@
+package com.tablelineagebuilder.pipeline;
+
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 분석 단계로 넘기는 쿼리 하나
+ * result는 같은 지문을 가진 다른 쿼리들이 기다리는 분석 결과
+ */
+class StatementTask {
+
+    static final StatementTask END = new StatementTask(null, -1, null, null);
+
+    final FileWork file;
+    final int ordinal;
+    final QueryInfo query;
+    final CompletableFuture<List<TableLineage>> result;
+
+    StatementTask(FileWork file, int ordinal, QueryInfo query, CompletableFuture<List<TableLineage>> result) {
+        this.file = file;
+        this.ordinal = ordinal;
+        this.query = query;
+        this.result = result;
+    }
+}
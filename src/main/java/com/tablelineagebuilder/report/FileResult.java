@@ -0,0 +1,107 @@
+package com.tablelineagebuilder.report;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 파일 하나의 처리 결과
+ * 리포트 파일의 파일별 섹션을 구성하는 데 사용
+ */
+public class FileResult {
+
+    public enum Status { SUCCESS, SKIP, ERROR }
+
+    private final int fileIndex;
+    private final String filePath;
+
+    private Status status;
+    private String message;
+
+    private int extractedCount = -1;  // -1: 추출 전 종료
+    private int analyzeCount;
+    private int skippedQueryCount;
+    private final Map<String, Integer> skipReasons = new LinkedHashMap<>();  // 건너뛴 이유 → 쿼리 수
+    private int savedCount;
+    private final List<String> relations = new ArrayList<>();
+
+    public FileResult(int fileIndex, String filePath) {
+        this.fileIndex = fileIndex;
+        this.filePath = filePath;
+    }
+
+    public void setQueryCounts(int extractedCount, int analyzeCount, int skippedQueryCount) {
+        this.extractedCount = extractedCount;
+        this.analyzeCount = analyzeCount;
+        this.skippedQueryCount = skippedQueryCount;
+    }
+
+    public void addSkippedQuery(String reason) {
+        addSkippedQueries(reason, 1);
+    }
+
+    public void addSkippedQueries(String reason, int count) {
+        Integer previous = skipReasons.get(reason);
+        skipReasons.put(reason, previous == null ? count : previous + count);
+    }
+
+    public void addRelation(String relation) {
+        relations.add(relation);
+    }
+
+    public void success(int savedCount) {
+        this.status = Status.SUCCESS;
+        this.savedCount = savedCount;
+    }
+
+    public void skip(String reason) {
+        this.status = Status.SKIP;
+        this.message = reason;
+    }
+
+    public void error(String errorMessage) {
+        this.status = Status.ERROR;
+        this.message = errorMessage;
+    }
+
+    public int getFileIndex() {
+        return fileIndex;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getExtractedCount() {
+        return extractedCount;
+    }
+
+    public int getAnalyzeCount() {
+        return analyzeCount;
+    }
+
+    public int getSkippedQueryCount() {
+        return skippedQueryCount;
+    }
+
+    public Map<String, Integer> getSkipReasons() {
+        return skipReasons;
+    }
+
+    public int getSavedCount() {
+        return savedCount;
+    }
+
+    public List<String> getRelations() {
+        return relations;
+    }
+}
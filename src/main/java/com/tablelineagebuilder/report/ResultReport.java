@@ -0,0 +1,151 @@
+package com.tablelineagebuilder.report;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 작업 결과 리포트 파일(result_report_*.txt) 작성기
+ */
+public class ResultReport implements AutoCloseable {
+
+    private static final String DOUBLE_LINE = "================================================================================";
+    private static final String SINGLE_LINE = "--------------------------------------------------------------------------------";
+
+    private final String fileName;
+    private final PrintWriter writer;
+
+    public ResultReport() throws IOException {
+        this.fileName = "result_report_" +
+            new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".txt";
+        this.writer = new PrintWriter(new BufferedWriter(new FileWriter(fileName)));
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * 리포트 머리말 (totalFiles < 0: 디렉토리를 탐색하며 처리해 아직 모름)
+     */
+    public synchronized void writeHeader(int totalFiles) {
+        writer.println(DOUBLE_LINE);
+        writer.println("                     테이블 계보 추출 작업 결과 보고서");
+        writer.println(DOUBLE_LINE);
+        writer.println("작업 시작 시간: " + now());
+        writer.println("총 대상 파일: " + (totalFiles < 0 ? "디렉토리 탐색 중 (전체 작업 요약 참조)" : totalFiles + "개"));
+        writer.println(DOUBLE_LINE);
+        writer.println();
+    }
+
+    /**
+     * 파일별 처리 결과 섹션
+     */
+    public synchronized void writeFile(FileResult result, int totalFiles) {
+        writer.println(SINGLE_LINE);
+        writer.println("[" + result.getFileIndex() + "/" + (totalFiles < 0 ? "…" : String.valueOf(totalFiles)) + "] " +
+            result.getFilePath());
+        writer.println(SINGLE_LINE);
+
+        if (result.getExtractedCount() >= 0) {
+            writer.println("추출된 쿼리 개수: " + result.getExtractedCount());
+            writer.println("분석 대상 쿼리: " + result.getAnalyzeCount() + "개");
+            writer.println("건너뛴 쿼리: " + result.getSkippedQueryCount() + "개");
+            for (Map.Entry<String, Integer> reason : result.getSkipReasons().entrySet()) {
+                writer.println("  - " + reason.getKey() + ": " + reason.getValue() + "개");
+            }
+        }
+
+        for (String relation : result.getRelations()) {
+            writer.println("  계보: " + relation);
+        }
+
+        switch (result.getStatus()) {
+            case SUCCESS:
+                writer.println("저장된 계보: " + result.getSavedCount() + "개");
+                writer.println("상태: SUCCESS");
+                break;
+            case SKIP:
+                writer.println("상태: SKIP (" + result.getMessage() + ")");
+                break;
+            case ERROR:
+                writer.println("상태: ERROR");
+                writer.println("오류 메시지: " + result.getMessage());
+                break;
+        }
+        writer.println();
+    }
+
+    /**
+     * 전체 작업 요약 및 건너뜀/오류 파일 목록
+     */
+    public synchronized void writeSummary(RunSummary summary) {
+        writer.println(DOUBLE_LINE);
+        writer.println("                           전체 작업 요약");
+        writer.println(DOUBLE_LINE);
+        writer.println("작업 종료 시간: " + now());
+        writer.println();
+        writer.println("총 대상 파일: " + summary.getTotalFiles() + "개");
+        writer.println("  - 처리 성공: " + summary.getFilesProcessed() + "개");
+        writer.println("  - 건너뜀: " + summary.getFilesSkipped() + "개");
+        writer.println("  - 오류: " + summary.getFilesError() + "개");
+        if (summary.getFilesUnchanged() > 0) {
+            writer.println("  - 변경 없음 (증분 실행): " + summary.getFilesUnchanged() + "개");
+        }
+        writer.println();
+        writer.println("처리된 쿼리 수: " + summary.getQueriesProcessed() + "개");
+        writer.println("저장된 계보 수: " + summary.getLineagesSaved() + "개");
+        writer.println(DOUBLE_LINE);
+
+        writeFileList("[ 건너뛴 파일 목록 ]", summary.getSkippedFiles());
+        writeFileList("[ 오류 발생 파일 목록 ]", summary.getErrorFiles());
+    }
+
+    /**
+     * 요약 뒤에 붙는 부가 통계 섹션 (LLM 호출 제어 등)
+     */
+    public synchronized void writeSection(String title, List<String> lines) {
+        writer.println();
+        writer.println("[ " + title + " ]");
+        writer.println(SINGLE_LINE);
+        for (String line : lines) {
+            writer.println("  " + line);
+        }
+    }
+
+    /**
+     * 리포트 끝맺음
+     */
+    public synchronized void writeFooter() {
+        writer.println();
+        writer.println(DOUBLE_LINE);
+        writer.println("리포트 종료");
+        writer.println(DOUBLE_LINE);
+    }
+
+    private void writeFileList(String title, List<String> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        writer.println();
+        writer.println(title);
+        writer.println(SINGLE_LINE);
+        for (String file : files) {
+            writer.println("  - " + file);
+        }
+    }
+
+    private static String now() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+    }
+
+    @Override
+    public synchronized void close() {
+        writer.close();
+    }
+}
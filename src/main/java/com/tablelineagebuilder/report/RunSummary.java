@@ -0,0 +1,85 @@
+package com.tablelineagebuilder.report;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 전체 실행의 파일/쿼리/계보 집계
+ * 여러 스레드에서 기록할 수 있도록 동기화
+ */
+public class RunSummary {
+
+    private int totalFiles;
+    private int filesProcessed;
+    private int filesSkipped;
+    private int filesError;
+    private int filesUnchanged;
+    private int queriesProcessed;
+    private int lineagesSaved;
+
+    private final List<String> skippedFiles = new ArrayList<>();
+    private final List<String> errorFiles = new ArrayList<>();
+
+    public synchronized void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public synchronized void recordSuccess(int queryCount, int savedCount) {
+        filesProcessed++;
+        queriesProcessed += queryCount;
+        lineagesSaved += savedCount;
+    }
+
+    public synchronized void recordSkip(String filePath) {
+        filesSkipped++;
+        skippedFiles.add(filePath);
+    }
+
+    /**
+     * --incremental에서 내용이 바뀌지 않아 건너뛴 파일 (목록이 매우 길 수 있어 개수만 기록)
+     */
+    public synchronized void recordUnchanged() {
+        filesUnchanged++;
+    }
+
+    public synchronized void recordError(String filePath, String message) {
+        filesError++;
+        errorFiles.add(filePath + " (" + message + ")");
+    }
+
+    public synchronized int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public synchronized int getFilesProcessed() {
+        return filesProcessed;
+    }
+
+    public synchronized int getFilesSkipped() {
+        return filesSkipped;
+    }
+
+    public synchronized int getFilesError() {
+        return filesError;
+    }
+
+    public synchronized int getFilesUnchanged() {
+        return filesUnchanged;
+    }
+
+    public synchronized int getQueriesProcessed() {
+        return queriesProcessed;
+    }
+
+    public synchronized int getLineagesSaved() {
+        return lineagesSaved;
+    }
+
+    public synchronized List<String> getSkippedFiles() {
+        return new ArrayList<>(skippedFiles);
+    }
+
+    public synchronized List<String> getErrorFiles() {
+        return new ArrayList<>(errorFiles);
+    }
+}
@@ -118,6 +118,43 @@ public class TableLineageRepository {
         }
     }
 
+    /**
+     * 파일의 계보를 저장하면서 더 이상 나오지 않는 (소스, 타겟) 계보를 같은 트랜잭션에서 삭제
+     * 정리할 계보가 없으면 saveAll과 같음
+     *
+     * @param retired 삭제할 (소스, 타겟) 쌍 목록 (이 파일 경로의 행만 삭제)
+     */
+    public void saveAll(List<TableLineage> lineages, String filePath, List<String[]> retired) throws SQLException {
+        if (retired == null || retired.isEmpty()) {
+            saveAll(lineages);
+            return;
+        }
+
+        String sql = "DELETE FROM midp_project.table_lineage " +
+                     "WHERE source_table = ? AND target_table = ? AND file_path = ?";
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            saveAll(lineages);
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (String[] pair : retired) {
+                    pstmt.setString(1, pair[0]);
+                    pstmt.setString(2, pair[1]);
+                    pstmt.setString(3, filePath);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
     /**
      * 연결 종료
      */
@@ -0,0 +1,139 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 문장 하나에 나오는 식별자 색인 (LLM이 돌려준 테이블명이 SQL에 실제로 있는지 검증용)
+ *
+ * 문장을 한 번만 훑어 단어(문자/숫자/_ 연속)와 점으로 바로 이어진 이름(SCHEMA.TABLE, DB.SCHEMA.TABLE)을
+ * 대문자로 해시 집합에 담아 두고, 테이블명마다 O(1)로 확인한다.
+ * 판정은 정규식 \bTABLE\b 와 같다 (MMAP_COMM_CD_D는 MMAP_COMM_CD_DTL과 일치하지 않음, SCHEMA.TABLE의 TABLE은 일치).
+ * 단어와 점 외의 문자가 든 이름이나 점으로 이어진 부분이 아주 많은 이름은 정규식으로 직접 찾는다.
+ * 스레드 간 공유하지 않는다.
+ */
+public final class IdentifierIndex {
+
+    // 색인에 담는 점 이름의 최대 부분 수 (DB.SCHEMA.TABLE.COLUMN)
+    private static final int MAX_PARTS = 4;
+
+    private final String sql;
+    private final Set<String> identifiers = new HashSet<>();
+    private String upperSql;
+
+    private IdentifierIndex(String sql) {
+        this.sql = sql;
+    }
+
+    public static IdentifierIndex of(String sql) {
+        IdentifierIndex index = new IdentifierIndex(sql);
+        index.build();
+        return index;
+    }
+
+    /**
+     * 이름이 단어 경계로 구분되어 SQL에 나오는지 (대소문자 무시)
+     */
+    public boolean contains(String name) {
+        if (name == null || sql == null) {
+            return false;
+        }
+        String upper = name.toUpperCase();
+        if (indexable(upper)) {
+            return identifiers.contains(upper);
+        }
+        return containsByPattern(upper);
+    }
+
+    private void build() {
+        if (sql == null) {
+            return;
+        }
+        String[] chain = new String[MAX_PARTS];
+        int parts = 0;
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            if (!isWord(sql.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && isWord(sql.charAt(i))) {
+                i++;
+            }
+            // 점 바로 앞의 단어에 이어지면 같은 점 이름의 다음 부분
+            boolean continued = parts > 0 && start > 0 && sql.charAt(start - 1) == '.';
+            if (!continued) {
+                parts = 0;
+            }
+            if (parts == MAX_PARTS) {
+                System.arraycopy(chain, 1, chain, 0, MAX_PARTS - 1);
+                parts--;
+            }
+            chain[parts++] = sql.substring(start, i).toUpperCase();
+            addSuffixes(chain, parts);
+            if (i >= n - 1 || sql.charAt(i) != '.' || !isWord(sql.charAt(i + 1))) {
+                parts = 0;
+            }
+        }
+    }
+
+    /**
+     * 새 부분으로 끝나는 이름을 모두 추가 (A.B.C 에서 C, B.C, A.B.C)
+     */
+    private void addSuffixes(String[] chain, int parts) {
+        String name = chain[parts - 1];
+        identifiers.add(name);
+        for (int k = parts - 2; k >= 0; k--) {
+            name = chain[k] + "." + name;
+            identifiers.add(name);
+        }
+    }
+
+    /**
+     * 색인으로 판정할 수 있는 이름인지 (단어를 점 하나로 이은 형태, 부분 수 MAX_PARTS 이하)
+     */
+    private static boolean indexable(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        int parts = 1;
+        boolean wordBefore = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '.') {
+                if (!wordBefore) {
+                    return false;
+                }
+                parts++;
+                wordBefore = false;
+            } else if (isWord(c)) {
+                wordBefore = true;
+            } else {
+                return false;
+            }
+        }
+        return wordBefore && parts <= MAX_PARTS;
+    }
+
+    /**
+     * 색인으로 판정할 수 없는 이름은 정규식으로 찾음 (단어 경계, 또는 점 바로 뒤)
+     */
+    private boolean containsByPattern(String upperName) {
+        if (upperSql == null) {
+            upperSql = sql.toUpperCase();
+        }
+        String quoted = Pattern.quote(upperName);
+        return Pattern.compile("\\b" + quoted + "\\b").matcher(upperSql).find()
+            || Pattern.compile("\\." + quoted + "\\b").matcher(upperSql).find();
+    }
+
+    /**
+     * 정규식 \b 의 단어 문자와 같은 기준
+     */
+    private static boolean isWord(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
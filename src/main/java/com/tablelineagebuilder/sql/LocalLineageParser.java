@@ -0,0 +1,478 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * LLM 없이 SQL 문장에서 타겟/소스 테이블을 뽑는 결정적 파서
+ *
+ * 지원 형태: INSERT INTO ... SELECT/VALUES, UPDATE ... SET, MERGE INTO ... USING,
+ * CREATE TABLE ... AS SELECT, 앞뒤의 WITH 절.
+ * - 별칭, CTE 이름, 인라인 뷰/서브쿼리는 테이블로 보지 않음
+ * - 스키마 접두어와 @dblink는 떼고 테이블명만 사용
+ * - DUAL 제외
+ * - Hive의 INSERT INTO TABLE, CREATE TABLE IF NOT EXISTS의 키워드는 건너뜀
+ * - 테이블명 자리에 키워드나 셸 변수(${SCHEMA}.T, T_${DT})가 오면 해석하지 않음
+ * - EXTRACT(YEAR FROM ...)처럼 함수 안의 FROM은 무시 (서브쿼리 괄호 안의 FROM만 인정)
+ *
+ * 확실히 해석할 수 없는 문장(INSERT ALL, 테이블 함수, 괄호로 묶은 조인, PL/SQL 블록 등)은
+ * null을 반환하여 LLM 분석으로 넘긴다. 틀린 답보다 모른다고 하는 쪽을 택한다.
+ */
+public final class LocalLineageParser {
+
+    // 별칭 자리에 와도 별칭이 아닌 키워드
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+        "WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "OUTER", "NATURAL", "ON", "USING",
+        "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "MINUS", "EXCEPT", "CONNECT", "START",
+        "WHEN", "THEN", "SET", "PARTITION", "SAMPLE", "LOG", "RETURNING", "RETURN", "FETCH", "OFFSET",
+        "LIMIT", "WINDOW", "QUALIFY", "PIVOT", "UNPIVOT", "MODEL", "FOR", "SELECT", "VALUES", "WITH",
+        "AS", "FROM", "INTO", "APPLY", "MATCH_RECOGNIZE", "VERSIONS", "OUTPUT"
+    ));
+
+    // FROM 절을 끝내는 키워드
+    private static final Set<String> FROM_CLAUSE_END = new HashSet<>(Arrays.asList(
+        "WHERE", "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "MINUS", "EXCEPT", "CONNECT",
+        "START", "SET", "WHEN", "RETURNING", "FETCH", "LIMIT", "OFFSET", "WINDOW", "QUALIFY", "MODEL",
+        "SELECT", "VALUES"
+    ));
+
+    // 이 키워드가 있으면 해석하지 않음 (동적 SQL, PL/SQL, 다중 테이블 INSERT 등)
+    private static final Set<String> UNSUPPORTED = new HashSet<>(Arrays.asList(
+        "EXECUTE", "IMMEDIATE", "BEGIN", "DECLARE", "CURSOR", "LOOP", "PROCEDURE", "FUNCTION",
+        "TRIGGER", "LATERAL", "UNNEST", "APPLY", "MATCH_RECOGNIZE", "XMLTABLE", "JSON_TABLE"
+    ));
+
+    // 테이블명 자리에 왔다면 구문을 잘못 읽은 것으로 보는 키워드 (CLAUSE_KEYWORDS 외)
+    private static final Set<String> NAME_KEYWORDS = new HashSet<>(Arrays.asList(
+        "TABLE", "IF", "NOT", "EXISTS", "ONLY", "OR", "REPLACE", "TEMPORARY", "TEMP", "GLOBAL", "EXTERNAL",
+        "VIEW", "OVERWRITE", "INSERT", "UPDATE", "DELETE", "MERGE", "CREATE", "NULL", "ALL", "FIRST"
+    ));
+
+    private LocalLineageParser() {
+    }
+
+    /**
+     * 파싱 결과 (테이블명은 대문자, 스키마 제외, 등장 순서 유지)
+     */
+    public static final class Result {
+        private final Set<String> targets;
+        private final Set<String> sources;
+
+        Result(Set<String> targets, Set<String> sources) {
+            this.targets = targets;
+            this.sources = sources;
+        }
+
+        public Set<String> getTargets() {
+            return targets;
+        }
+
+        public Set<String> getSources() {
+            return sources;
+        }
+    }
+
+    /**
+     * SQL 문장 파싱
+     *
+     * @return 확실히 해석한 경우 결과, 아니면 null
+     */
+    public static Result parse(String sql) {
+        List<SqlToken> tokens = SqlTokenizer.tokenize(sql);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        for (SqlToken token : tokens) {
+            if (token.getType() == SqlToken.Type.WORD && UNSUPPORTED.contains(upper(token))) {
+                return null;
+            }
+        }
+
+        Set<String> cteNames = collectCteNames(tokens);
+        if (cteNames == null) {
+            return null;
+        }
+
+        // 문장 앞의 WITH 절 건너뛰기 (WITH ... INSERT/MERGE 형태, 본문은 아래에서 따로 훑음)
+        int pos = 0;
+        if (tokens.get(0).is("WITH")) {
+            pos = skipWithClause(tokens, 0);
+            if (pos < 0) {
+                return null;
+            }
+        }
+        if (pos >= tokens.size()) {
+            return null;
+        }
+
+        Set<String> targets = new LinkedHashSet<>();
+        Set<String> sources = new LinkedHashSet<>();
+        SqlToken head = tokens.get(pos);
+        int scanFrom;
+        boolean expectTableFirst = false;
+
+        if (head.is("INSERT")) {
+            pos++;
+            if (pos >= tokens.size() || !tokens.get(pos).is("INTO")) {
+                return null;  // INSERT ALL / INSERT FIRST
+            }
+            int[] next = new int[1];
+            String target = readTableName(tokens, skipTargetPrefix(tokens, pos + 1), next);
+            if (target == null) {
+                return null;
+            }
+            targets.add(target);
+            scanFrom = next[0];
+
+        } else if (head.is("UPDATE")) {
+            int[] next = new int[1];
+            String target = readTableName(tokens, pos + 1, next);
+            if (target == null) {
+                return null;
+            }
+            targets.add(target);
+            scanFrom = next[0];
+
+        } else if (head.is("MERGE")) {
+            pos++;
+            if (pos >= tokens.size() || !tokens.get(pos).is("INTO")) {
+                return null;
+            }
+            int[] next = new int[1];
+            String target = readTableName(tokens, pos + 1, next);
+            if (target == null) {
+                return null;
+            }
+            targets.add(target);
+            // 별칭을 건너뛰고 USING 다음을 FROM과 같이 처리
+            int i = skipAlias(tokens, next[0]);
+            if (i >= tokens.size() || !tokens.get(i).is("USING")) {
+                return null;
+            }
+            scanFrom = i + 1;
+            expectTableFirst = true;
+
+        } else if (head.is("CREATE")) {
+            int i = pos + 1;
+            while (i < tokens.size() && !tokens.get(i).is("TABLE")) {
+                if (tokens.get(i).getType() != SqlToken.Type.WORD) {
+                    return null;
+                }
+                i++;
+            }
+            int[] next = new int[1];
+            String target = readTableName(tokens, skipTargetPrefix(tokens, i + 1), next);
+            if (target == null) {
+                return null;
+            }
+            targets.add(target);
+            int as = findTopLevelAs(tokens, next[0]);
+            if (as < 0) {
+                return null;  // 컬럼 정의만 있는 CREATE TABLE
+            }
+            scanFrom = as + 1;
+
+        } else {
+            return null;
+        }
+
+        if (pos > 0 && !scanSources(tokens, 0, pos, false, cteNames, sources)) {
+            return null;
+        }
+        if (!scanSources(tokens, scanFrom, tokens.size(), expectTableFirst, cteNames, sources)) {
+            return null;
+        }
+        return new Result(targets, sources);
+    }
+
+    /**
+     * FROM/JOIN(MERGE의 USING 포함) 뒤의 테이블을 모두 수집
+     * 괄호마다 "서브쿼리인지"와 "FROM 절 안인지"를 따로 추적한다.
+     */
+    private static boolean scanSources(List<SqlToken> tokens, int start, int end, boolean expectTableFirst,
+                                       Set<String> cteNames, Set<String> sources) {
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(true, false));
+        boolean expectTable = expectTableFirst;
+
+        for (int i = start; i < end; i++) {
+            SqlToken token = tokens.get(i);
+            Frame frame = frames.peek();
+
+            if (expectTable) {
+                expectTable = false;
+                if (token.isSymbol('(')) {
+                    // 인라인 뷰만 허용 (괄호로 묶은 조인 등은 해석하지 않음)
+                    if (!startsQuery(tokens, i + 1)) {
+                        return false;
+                    }
+                    Frame view = new Frame(true, false);
+                    view.inlineView = true;
+                    frames.push(view);
+                    continue;
+                }
+                if (!token.isIdentifier() || (token.getType() == SqlToken.Type.WORD && CLAUSE_KEYWORDS.contains(upper(token)))
+                        || token.is("TABLE") || token.is("ONLY")) {
+                    return false;
+                }
+                int[] next = new int[1];
+                String name = readTableName(tokens, i, next);
+                if (name == null || (next[0] < tokens.size() && tokens.get(next[0]).isSymbol('('))) {
+                    return false;  // 테이블 함수 호출
+                }
+                if (!"DUAL".equals(name) && !(cteNames.contains(name) && !isQualified(tokens, i, next[0]))) {
+                    sources.add(name);
+                }
+                i = skipAlias(tokens, next[0]) - 1;
+                continue;
+            }
+
+            if (token.isSymbol('(')) {
+                frames.push(new Frame(startsQuery(tokens, i + 1), false));
+            } else if (token.isSymbol(')')) {
+                if (frames.size() == 1) {
+                    return false;
+                }
+                Frame closed = frames.pop();
+                if (closed.inlineView) {
+                    // 인라인 뷰 별칭 건너뛰기
+                    i = skipAlias(tokens, i + 1) - 1;
+                }
+            } else if (frame.query && token.getType() == SqlToken.Type.WORD) {
+                String word = upper(token);
+                if ("FROM".equals(word) || "JOIN".equals(word)) {
+                    frame.inFrom = true;
+                    expectTable = true;
+                } else if (FROM_CLAUSE_END.contains(word)) {
+                    frame.inFrom = false;
+                }
+            } else if (frame.query && frame.inFrom && token.isSymbol(',')) {
+                expectTable = true;
+            }
+        }
+        return frames.size() == 1 && !expectTable;
+    }
+
+    /**
+     * WITH 절에 정의된 CTE 이름 (문장 어디에 있든), 해석할 수 없으면 null
+     */
+    static Set<String> collectCteNames(List<SqlToken> tokens) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!tokens.get(i).is("WITH")) {
+                continue;
+            }
+            int j = i + 1;
+            if (j < tokens.size() && tokens.get(j).is("RECURSIVE")) {
+                j++;
+            }
+            while (j + 1 < tokens.size() && tokens.get(j).isIdentifier()) {
+                int afterName = j + 1;
+                if (tokens.get(afterName).isSymbol('(')) {
+                    afterName = matchParen(tokens, afterName);
+                    if (afterName < 0) {
+                        return null;
+                    }
+                    afterName++;
+                }
+                if (afterName + 1 >= tokens.size() || !tokens.get(afterName).is("AS")
+                        || !tokens.get(afterName + 1).isSymbol('(')) {
+                    break;  // START WITH, WITH READ ONLY 등
+                }
+                names.add(tokens.get(j).getText().toUpperCase(Locale.ROOT));
+                int close = matchParen(tokens, afterName + 1);
+                if (close < 0) {
+                    return null;
+                }
+                if (close + 1 < tokens.size() && tokens.get(close + 1).isSymbol(',')) {
+                    j = close + 2;
+                } else {
+                    break;
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 문장 앞 WITH 절의 끝 다음 위치 (CTE 본문은 scanSources가 따로 훑도록 위치만 계산)
+     */
+    static int skipWithClause(List<SqlToken> tokens, int start) {
+        int i = start + 1;
+        if (i < tokens.size() && tokens.get(i).is("RECURSIVE")) {
+            i++;
+        }
+        while (i < tokens.size()) {
+            if (!tokens.get(i).isIdentifier()) {
+                return -1;
+            }
+            i++;
+            if (i < tokens.size() && tokens.get(i).isSymbol('(')) {
+                i = matchParen(tokens, i);
+                if (i < 0) {
+                    return -1;
+                }
+                i++;
+            }
+            if (i + 1 >= tokens.size() || !tokens.get(i).is("AS") || !tokens.get(i + 1).isSymbol('(')) {
+                return -1;
+            }
+            i = matchParen(tokens, i + 1);
+            if (i < 0) {
+                return -1;
+            }
+            i++;
+            if (i < tokens.size() && tokens.get(i).isSymbol(',')) {
+                i++;
+                continue;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * INTO/CREATE … TABLE 뒤의 선택 키워드(TABLE, IF NOT EXISTS)를 건너뛴 위치
+     */
+    static int skipTargetPrefix(List<SqlToken> tokens, int i) {
+        if (i < tokens.size() && tokens.get(i).is("TABLE")) {
+            i++;
+        }
+        if (i + 2 < tokens.size() && tokens.get(i).is("IF") && tokens.get(i + 1).is("NOT") && tokens.get(i + 2).is("EXISTS")) {
+            i += 3;
+        }
+        return i;
+    }
+
+    /**
+     * [스키마.]테이블[@dblink] 을 읽어 테이블명(대문자) 반환, next[0]에 다음 위치
+     * 이름이 키워드이거나 셸 변수가 섞여 있으면 null
+     */
+    static String readTableName(List<SqlToken> tokens, int start, int[] next) {
+        if (start >= tokens.size() || !tokens.get(start).isIdentifier() || isVariablePart(tokens, start)) {
+            return null;
+        }
+        int i = start;
+        SqlToken nameToken = tokens.get(i);
+        i++;
+        while (i + 1 < tokens.size() && tokens.get(i).isSymbol('.') && tokens.get(i + 1).isIdentifier()) {
+            if (isVariablePart(tokens, i + 1)) {
+                return null;
+            }
+            nameToken = tokens.get(i + 1);
+            i += 2;
+        }
+        if (i < tokens.size() && tokens.get(i).isSymbol('{')) {
+            return null;  // T_${DT}
+        }
+        if (nameToken.getType() == SqlToken.Type.WORD
+                && (CLAUSE_KEYWORDS.contains(upper(nameToken)) || NAME_KEYWORDS.contains(upper(nameToken)))) {
+            return null;
+        }
+        String name = nameToken.getText();
+        if (i + 1 < tokens.size() && tokens.get(i).isSymbol('@') && tokens.get(i + 1).isIdentifier()) {
+            i += 2;
+            while (i + 1 < tokens.size() && tokens.get(i).isSymbol('.') && tokens.get(i + 1).isIdentifier()) {
+                i += 2;
+            }
+        }
+        next[0] = i;
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 셸 변수로 시작하는 이름 부분인지 ($VAR, ${VAR}, {VAR})
+     */
+    private static boolean isVariablePart(List<SqlToken> tokens, int i) {
+        SqlToken token = tokens.get(i);
+        return token.getText().startsWith("$") || token.getText().startsWith("{")
+            || (i > 0 && tokens.get(i - 1).isSymbol('{'));
+    }
+
+    private static boolean isQualified(List<SqlToken> tokens, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (tokens.get(i).isSymbol('.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * [AS] 별칭이 있으면 건너뛴 위치
+     */
+    private static int skipAlias(List<SqlToken> tokens, int i) {
+        if (i < tokens.size() && tokens.get(i).is("AS")) {
+            return i + 1 < tokens.size() && tokens.get(i + 1).isIdentifier() ? i + 2 : i + 1;
+        }
+        if (i < tokens.size() && tokens.get(i).isIdentifier()
+                && !(tokens.get(i).getType() == SqlToken.Type.WORD && CLAUSE_KEYWORDS.contains(upper(tokens.get(i))))) {
+            return i + 1;
+        }
+        return i;
+    }
+
+    /**
+     * 괄호 깊이 0에서 처음 나오는 AS (CREATE TABLE ... AS SELECT)
+     */
+    static int findTopLevelAs(List<SqlToken> tokens, int start) {
+        int depth = 0;
+        for (int i = start; i < tokens.size(); i++) {
+            SqlToken token = tokens.get(i);
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && token.is("AS") && startsQuery(tokens, i + 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean startsQuery(List<SqlToken> tokens, int i) {
+        while (i < tokens.size() && tokens.get(i).isSymbol('(')) {
+            i++;
+        }
+        return i < tokens.size() && (tokens.get(i).is("SELECT") || tokens.get(i).is("WITH"));
+    }
+
+    static int matchParen(List<SqlToken> tokens, int open) {
+        int depth = 0;
+        for (int i = open; i < tokens.size(); i++) {
+            if (tokens.get(i).isSymbol('(')) {
+                depth++;
+            } else if (tokens.get(i).isSymbol(')')) {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String upper(SqlToken token) {
+        return token.getText().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 괄호 한 단계의 상태
+     */
+    private static final class Frame {
+        final boolean query;   // SELECT/WITH로 시작하는 서브쿼리 (문장 최상위 포함)
+        boolean inFrom;        // FROM 절 안 (쉼표 뒤에 테이블이 옴)
+        boolean inlineView;    // FROM 절의 인라인 뷰 (닫힌 뒤 별칭이 올 수 있음)
+
+        Frame(boolean query, boolean inFrom) {
+            this.query = query;
+            this.inFrom = inFrom;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * LLM에 보내기 전에 계보와 무관한 부분을 줄이는 SQL 압축기
+ *
+ * 테이블 참조(INSERT INTO/UPDATE/MERGE INTO/FROM/JOIN/USING)와 서브쿼리 구조는 그대로 두고 나머지를 줄인다.
+ * - 주석, 힌트, 줄바꿈/들여쓰기 제거
+ * - SELECT 목록 → * (목록 안의 스칼라 서브쿼리는 유지)
+ * - WHERE/ON/HAVING/CONNECT BY/START WITH 조건 → 1=1 (조건 안의 서브쿼리는 EXISTS (...)로 유지)
+ * - GROUP BY/ORDER BY 제거, UPDATE SET/VALUES 목록과 INSERT 컬럼 목록 축약
+ * - 문자열 리터럴 → '' (동적 SQL처럼 FROM/INTO/JOIN/TABLE이 들어 있는 문자열은 유지)
+ *
+ * 결과는 원문과 같은 테이블만 참조하므로 계보 검증(isTableInQuery)은 원문 SQL로 그대로 할 수 있다.
+ */
+public final class SqlCompressor {
+
+    // 식 영역(SELECT 목록, 조건 등)을 시작하는 키워드
+    private static final Set<String> REGION_START = new HashSet<>(Arrays.asList(
+        "SELECT", "WHERE", "ON", "HAVING", "CONNECT", "START", "QUALIFY", "GROUP", "ORDER", "SET", "VALUES"
+    ));
+
+    // 식 영역을 끝내는 키워드 (CASE 밖, 괄호 밖에서만)
+    private static final Set<String> REGION_END = new HashSet<>(Arrays.asList(
+        "FROM", "WHERE", "GROUP", "HAVING", "ORDER", "UNION", "INTERSECT", "MINUS", "EXCEPT", "CONNECT", "START",
+        "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "WINDOW", "QUALIFY", "FETCH", "LIMIT",
+        "OFFSET", "WHEN", "INSERT", "UPDATE", "DELETE", "RETURNING", "LOG", "INTO", "MODEL"
+    ));
+
+    private SqlCompressor() {
+    }
+
+    public static String compress(String sql) {
+        List<SqlToken> tokens = SqlTokenizer.tokenize(sql);
+        Emitter out = new Emitter();
+        compressBlock(sql, tokens, 0, tokens.size(), out);
+        return out.toString();
+    }
+
+    /**
+     * [from, to) 범위의 쿼리 블록 (문장 최상위 또는 서브쿼리 괄호 안) 압축
+     */
+    private static void compressBlock(String sql, List<SqlToken> tokens, int from, int to, Emitter out) {
+        int depth = 0;
+        int i = from;
+        while (i < to) {
+            SqlToken token = tokens.get(i);
+
+            if (token.isSymbol('(')) {
+                int close = LocalLineageParser.matchParen(tokens, i);
+                if (close > i && close < to) {
+                    if (LocalLineageParser.startsQuery(tokens, i + 1)) {
+                        out.append("(");
+                        compressBlock(sql, tokens, i + 1, close, out);
+                        out.append(")");
+                        i = close + 1;
+                        continue;
+                    }
+                    if (isInsertColumnList(tokens, from, i)) {
+                        i = close + 1;
+                        continue;
+                    }
+                }
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && isRegionStart(tokens, i, to)) {
+                i = compressRegion(sql, tokens, i, to, out);
+                continue;
+            }
+
+            out.append(textOf(sql, token));
+            i++;
+        }
+    }
+
+    /**
+     * 식 영역 하나를 압축하고 영역 다음 위치 반환
+     * 영역 안의 서브쿼리만 (재귀적으로 압축해) 남긴다.
+     */
+    private static int compressRegion(String sql, List<SqlToken> tokens, int start, int to, Emitter out) {
+        String keyword = upper(tokens.get(start));
+        int i = start + 1;
+        if ("GROUP".equals(keyword) || "ORDER".equals(keyword) || "CONNECT".equals(keyword) || "START".equals(keyword)) {
+            keyword = keyword + " " + upper(tokens.get(i));  // BY, WITH
+            i++;
+        }
+
+        List<String> subqueries = new ArrayList<>();
+        int depth = 0;
+        int caseDepth = 0;
+        while (i < to) {
+            SqlToken token = tokens.get(i);
+            if (token.isSymbol('(')) {
+                int close = LocalLineageParser.matchParen(tokens, i);
+                if (close > i && close < to && LocalLineageParser.startsQuery(tokens, i + 1)) {
+                    Emitter subquery = new Emitter();
+                    compressBlock(sql, tokens, i + 1, close, subquery);
+                    subqueries.add(subquery.toString());
+                    i = close + 1;
+                    continue;
+                }
+                depth++;
+            } else if (token.isSymbol(')')) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            } else if (depth == 0) {
+                if (token.is("CASE")) {
+                    caseDepth++;
+                } else if (token.is("END") && caseDepth > 0) {
+                    caseDepth--;
+                } else if (caseDepth == 0 && isRegionEnd(tokens, i, keyword)) {
+                    break;
+                }
+            }
+            i++;
+        }
+
+        switch (keyword) {
+            case "SELECT":
+                out.append("SELECT").append(subqueries.isEmpty() ? "*" : join(subqueries, "(", ")", ","));
+                break;
+            case "SET":
+                out.append("SET").append(subqueries.isEmpty() ? "C=NULL" : join(subqueries, "C=(", ")", ","));
+                break;
+            case "VALUES":
+                out.append("VALUES").append("(" + (subqueries.isEmpty() ? "NULL" : join(subqueries, "(", ")", ",")) + ")");
+                break;
+            case "GROUP BY":
+            case "ORDER BY":
+                if (!subqueries.isEmpty()) {
+                    out.append(keyword).append(join(subqueries, "(", ")", ","));
+                }
+                break;
+            default:
+                out.append(keyword).append(subqueries.isEmpty() ? "1=1" : join(subqueries, "EXISTS (", ")", " AND "));
+                break;
+        }
+        return i;
+    }
+
+    private static boolean isRegionStart(List<SqlToken> tokens, int i, int to) {
+        SqlToken token = tokens.get(i);
+        if (token.getType() != SqlToken.Type.WORD || !REGION_START.contains(upper(token))) {
+            return false;
+        }
+        if (token.is("GROUP") || token.is("ORDER") || token.is("CONNECT")) {
+            return i + 1 < to && tokens.get(i + 1).is("BY");
+        }
+        if (token.is("START")) {
+            return i + 1 < to && tokens.get(i + 1).is("WITH");
+        }
+        return true;
+    }
+
+    private static boolean isRegionEnd(List<SqlToken> tokens, int i, String keyword) {
+        SqlToken token = tokens.get(i);
+        if (token.isSymbol(',')) {
+            return "ON".equals(keyword);  // FROM a JOIN b ON ..., c
+        }
+        if (token.getType() != SqlToken.Type.WORD || !REGION_END.contains(upper(token))) {
+            return false;
+        }
+        // LEFT(...), RIGHT(...) 함수
+        return !((token.is("LEFT") || token.is("RIGHT")) && i + 1 < tokens.size() && tokens.get(i + 1).isSymbol('('));
+    }
+
+    /**
+     * INSERT INTO 타겟 (컬럼 목록) 또는 MERGE의 INSERT (컬럼 목록)
+     */
+    private static boolean isInsertColumnList(List<SqlToken> tokens, int from, int open) {
+        int k = open - 1;
+        if (k < from) {
+            return false;
+        }
+        if (tokens.get(k).is("INSERT")) {
+            return true;
+        }
+        if (!tokens.get(k).isIdentifier()) {
+            return false;
+        }
+        while (k - 2 >= from && tokens.get(k - 1).isSymbol('.') && tokens.get(k - 2).isIdentifier()) {
+            k -= 2;
+        }
+        return k - 2 >= from && tokens.get(k - 1).is("INTO") && tokens.get(k - 2).is("INSERT");
+    }
+
+    private static String textOf(String sql, SqlToken token) {
+        if (token.getType() == SqlToken.Type.STRING) {
+            // 동적 SQL 문자열은 테이블명이 들어 있을 수 있으므로 유지
+            String upper = token.getText().toUpperCase(Locale.ROOT);
+            if (upper.contains("FROM ") || upper.contains("INTO ") || upper.contains("JOIN ") || upper.contains("TABLE ")) {
+                return token.getText();
+            }
+            return "''";
+        }
+        return sql.substring(token.getStart(), token.getEnd());
+    }
+
+    private static String join(List<String> parts, String prefix, String suffix, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(prefix).append(part).append(suffix);
+        }
+        return sb.toString();
+    }
+
+    private static String upper(SqlToken token) {
+        return token.getText().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 토큰을 공백 하나로 이어 붙임 (괄호 안쪽, 점, 쉼표 앞은 붙여 씀)
+     */
+    private static final class Emitter {
+        private final StringBuilder sb = new StringBuilder();
+
+        Emitter append(String text) {
+            if (text.isEmpty()) {
+                return this;
+            }
+            if (sb.length() > 0 && needsSpace(sb.charAt(sb.length() - 1), text.charAt(0))) {
+                sb.append(' ');
+            }
+            sb.append(text);
+            return this;
+        }
+
+        private static boolean needsSpace(char last, char next) {
+            if (last == '(' || last == '.' || last == '@') {
+                return false;
+            }
+            if (next == ')' || next == ',' || next == '.' || next == '@') {
+                return false;
+            }
+            // 함수 호출과 테이블명 뒤 괄호는 붙여 씀
+            return !(next == '(' && SqlTokenizer.isWordChar(last));
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
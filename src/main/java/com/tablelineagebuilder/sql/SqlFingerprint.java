@@ -0,0 +1,225 @@
+package com.tablelineagebuilder.sql;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 복사-붙여넣기로 생긴 사실상 같은 쿼리를 찾기 위한 SQL 지문
+ *
+ * 계보 결과에 영향이 없는 차이만 무시한다.
+ * - 공백, 줄바꿈, 주석(--, 블록 주석, 힌트)
+ * - 따옴표 밖의 대소문자
+ * - 날짜 형태 리터럴: '2024-01-01', '20240101', DATE '2024-01-01', 20240101 (YYYYMMDD/YYYYMM 숫자)
+ * - 셸 변수: ${BATCH_DT}, $BATCH_DT ('${BATCH_DT}'처럼 따옴표 안에 있어도 동일)
+ *   단, INTO/FROM/JOIN/UPDATE/USING/TABLE 뒤 테이블명 자리(${SCHEMA}.T, T_${DT} 포함)의 변수는 이름을 그대로 둠
+ *   (INSERT INTO ${TGT_A} 와 INSERT INTO ${TGT_B} 는 타겟이 다른 쿼리)
+ *
+ * 그 밖의 문자열 리터럴과 "따옴표 식별자"는 그대로 둔다 (동적 SQL의 테이블명이 들어 있을 수 있음).
+ */
+public final class SqlFingerprint {
+
+    private static final String VARIABLE = "?V";
+    private static final String DATE = "?D";
+
+    // 바로 뒤에 테이블명이 오는 키워드
+    private static final Set<String> TABLE_CONTEXT = new HashSet<>(Arrays.asList(
+        "INTO", "FROM", "JOIN", "UPDATE", "USING", "TABLE", "EXISTS"
+    ));
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * 정규화한 SQL의 SHA-256 (16진수)
+     */
+    public static String of(String sql) {
+        return sha256Hex(canonicalize(sql));
+    }
+
+    /**
+     * 지문 계산에 쓰는 정규형
+     */
+    public static String canonicalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        boolean pendingSpace = false;
+        // 테이블명 자리: nameStart는 키워드 바로 다음, inName은 이름 조각이 공백 없이 이어지는 중
+        boolean nameStart = false;
+        boolean inName = false;
+        int i = 0;
+        int n = sql.length();
+
+        while (i < n) {
+            char c = sql.charAt(i);
+
+            // 공백과 주석은 구분자 하나로 취급
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? n : end + 1;
+                pendingSpace = true;
+                continue;
+            }
+            if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+
+            String token;
+            if (c == '\'') {
+                int end = SqlTokenizer.skipQuoted(sql, i, '\'');
+                token = canonicalLiteral(sql.substring(i + 1, Math.max(i + 1, end - 1)));
+                i = end;
+            } else if (c == '"') {
+                int end = SqlTokenizer.skipQuoted(sql, i, '"');
+                token = sql.substring(i, end);
+                i = end;
+            } else if (c == '$' && (out.length() == 0 || !isWordChar(out.charAt(out.length() - 1)) || pendingSpace)) {
+                int end = skipVariable(sql, i);
+                if (end > i + 1) {
+                    token = nameStart || (inName && !pendingSpace) ? sql.substring(i, end) : VARIABLE;
+                    i = end;
+                } else {
+                    token = "$";
+                    i++;
+                }
+            } else if (isWordChar(c)) {
+                int end = i;
+                while (end < n && isWordChar(sql.charAt(end))) {
+                    end++;
+                }
+                String word = sql.substring(i, end);
+                // 날짜 숫자는 따옴표 날짜 리터럴과 같은 표시로 (DT = 20240101 과 DT = '20240101')
+                token = isDateNumber(word) ? "'" + DATE + "'" : word.toUpperCase();
+                i = end;
+            } else {
+                token = String.valueOf(c);
+                i++;
+            }
+
+            // 단어끼리 붙는 경우에만 공백을 남김 ("a , b"와 "a,b"는 같은 지문)
+            if (pendingSpace && out.length() > 0 && isWordChar(out.charAt(out.length() - 1)) && isWordChar(token.charAt(0))) {
+                out.append(' ');
+            }
+            boolean namePiece = isNamePiece(token);
+            if (TABLE_CONTEXT.contains(token)) {
+                nameStart = true;
+                inName = false;
+            } else {
+                inName = namePiece && (nameStart || (inName && !pendingSpace));
+                nameStart = false;
+            }
+            pendingSpace = false;
+            out.append(token);
+        }
+
+        // DATE '2024-01-01' 과 '2024-01-01'을 같게 취급
+        return out.toString().replace("DATE'" + DATE + "'", "'" + DATE + "'");
+    }
+
+    /**
+     * 문자열 리터럴 정규화
+     * 셸 변수를 치환한 뒤 숫자/구분자/치환 표시만 남으면 날짜(또는 배치 변수) 값으로 보고 하나로 묶음
+     */
+    private static String canonicalLiteral(String content) {
+        StringBuilder replaced = new StringBuilder(content.length());
+        for (int i = 0; i < content.length(); ) {
+            char c = content.charAt(i);
+            if (c == '$') {
+                int end = skipVariable(content, i);
+                if (end > i + 1) {
+                    replaced.append(VARIABLE);
+                    i = end;
+                    continue;
+                }
+            }
+            replaced.append(c);
+            i++;
+        }
+
+        String value = replaced.toString();
+        String rest = value.replace(VARIABLE, "");
+        boolean dateLike = rest.length() < value.length();
+        for (int i = 0; i < rest.length(); i++) {
+            char c = rest.charAt(i);
+            if (Character.isDigit(c)) {
+                dateLike = true;
+            } else if ("-/:. ".indexOf(c) < 0) {
+                dateLike = false;
+                break;
+            }
+        }
+        if (dateLike) {
+            return "'" + DATE + "'";
+        }
+        return "'" + value + "'";
+    }
+
+    /**
+     * YYYYMMDD 또는 YYYYMM 형태의 숫자
+     */
+    private static boolean isDateNumber(String word) {
+        if (word.length() != 8 && word.length() != 6) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return word.startsWith("19") || word.startsWith("20");
+    }
+
+    /**
+     * ${NAME}, ${NAME:-default}, $NAME 의 끝 위치 (변수가 아니면 start + 1)
+     */
+    private static int skipVariable(String s, int start) {
+        int i = start + 1;
+        if (i < s.length() && s.charAt(i) == '{') {
+            int end = s.indexOf('}', i);
+            return end < 0 ? start + 1 : end + 1;
+        }
+        while (i < s.length() && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '_')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 테이블명을 이루는 조각 (단어, 변수, 따옴표 식별자, 스키마 구분 '.', @dblink)
+     */
+    private static boolean isNamePiece(String token) {
+        char c = token.charAt(0);
+        return (isWordChar(c) && !token.equals(VARIABLE)) || c == '"' || c == '.' || c == '@';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '?';
+    }
+
+    /**
+     * 문자열의 SHA-256 (16진수)
+     */
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+}
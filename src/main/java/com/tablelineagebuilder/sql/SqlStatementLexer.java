@@ -0,0 +1,391 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.function.Consumer;
+
+/**
+ * 스크립트 파일을 한 번 훑으면서 SQL 문장을 잘라내는 문자 단위 렉서
+ *
+ * 파일을 줄 단위 문자열로 나누지 않고 읽은 버퍼를 그대로 받아(feed) 상태 기계 하나로 처리한다.
+ * - 주석 제거: 블록 주석(여러 줄 포함), -- 줄 주석, '#'으로 시작하는 줄
+ * - 따옴표(', ", `) 안의 --, /*, ; 는 주석/문장 끝으로 보지 않음
+ * - SQL 키워드(SELECT, INSERT, ... WITH)로 시작하는 줄부터 문장을 시작하고, 따옴표 밖의 ; 에서 끝냄
+ * - 문장 안에서 주석을 지운 뒤 빈 줄은 버리고, 줄은 줄바꿈(System.lineSeparator())으로 이어 앞뒤 공백을 잘라 넘김
+ * 문장이 아닌 줄(쉘 명령 등)에서 닫히지 않은 따옴표는 줄이 끝나면 버린다 (echo it's 같은 줄이 이후를 삼키지 않도록).
+ * 문장 안의 따옴표는 여러 줄 문자열로 이어 가되, 따옴표 안에서 ; 로 끝나는 줄이나 빈 줄을 만나면
+ * 닫히지 않은 따옴표로 보고 그 줄까지로 문장을 끝낸다 (따옴표 하나가 파일 나머지를 삼키지 않도록).
+ *
+ * 메모리는 현재 줄과 현재 문장 크기만큼만 사용하며, 한 파일에 하나씩 만들어 쓰고 스레드 간 공유하지 않는다.
+ *
+ * 슬라이스 모드에서는 문장마다 String을 만들지 않고, 문장들을 큰 문자 블록에 이어 담아
+ * 블록의 구간(StatementSlice)으로 넘긴다. 문장 수가 아주 많을 때 객체 수와 GC 부담을 줄인다.
+ */
+public final class SqlStatementLexer {
+
+    private static final String[] START_KEYWORDS = {
+        "SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "CREATE", "ALTER", "DROP", "TRUNCATE", "WITH"
+    };
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int SLICE_BLOCK_CHARS = 256 * 1024;
+
+    private static final int NORMAL = 0;
+    private static final int QUOTED = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int BLOCK_COMMENT = 3;
+    private static final int SKIPPED_LINE = 4;  // '#' 줄
+
+    private final Consumer<CharSequence> onStatement;
+    private final boolean slices;
+    // 현재 문장 (문장 밖이면 현재 줄만). 주석을 지운 현재 줄은 lineStart부터
+    private final StringBuilder text = new StringBuilder();
+    private int lineStart;
+
+    private int state = NORMAL;
+    private char quote;
+    private boolean inStatement;
+    private boolean lineBlank = true;    // 현재 줄에서 공백 외 문자를 아직 보지 못함 (주석 포함)
+    private boolean pendingSlash;        // 직전 문자가 / (블록 주석 시작 후보)
+    private boolean pendingDash;         // 직전 문자가 - (줄 주석 시작 후보)
+    private boolean pendingStar;         // 블록 주석 안에서 직전 문자가 *
+    private boolean lastWasCarriageReturn;
+
+    // 슬라이스 모드의 현재 블록
+    private char[] block;
+    private int blockUsed;
+
+    public SqlStatementLexer(Consumer<CharSequence> onStatement) {
+        this(onStatement, false);
+    }
+
+    /**
+     * @param slices true면 문장을 String 대신 공유 블록의 StatementSlice로 넘김
+     */
+    public SqlStatementLexer(Consumer<CharSequence> onStatement, boolean slices) {
+        this.onStatement = onStatement;
+        this.slices = slices;
+    }
+
+    /**
+     * 읽은 문자 추가 (완성된 문장이 있으면 등장 순서대로 onStatement 호출)
+     * 특수 문자가 아닌 문자는 연속 구간을 한 번에 복사하고, 주석 안은 복사 없이 건너뜀
+     */
+    public void feed(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            // 빠른 경로: 일반 문자 구간을 한 번에 처리
+            if (state == NORMAL && !pendingDash && !pendingSlash) {
+                int run = i;
+                while (i < end && !isSpecial(buffer[i])) {
+                    if (lineBlank && buffer[i] > ' ') {
+                        lineBlank = false;
+                    }
+                    i++;
+                }
+                if (i > run) {
+                    text.append(buffer, run, i - run);
+                    lastWasCarriageReturn = false;
+                    if (i == end) {
+                        break;
+                    }
+                }
+            } else if (state == QUOTED) {
+                int run = i;
+                while (i < end && buffer[i] != quote && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+                if (i > run) {
+                    text.append(buffer, run, i - run);
+                    lineBlank = false;
+                    lastWasCarriageReturn = false;
+                    if (i == end) {
+                        break;
+                    }
+                }
+            } else if (state == LINE_COMMENT || state == SKIPPED_LINE) {
+                while (i < end && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+            }
+
+            char c = buffer[i++];
+
+            if (c == '\n' || c == '\r') {
+                if (c == '\n' && lastWasCarriageReturn) {
+                    lastWasCarriageReturn = false;
+                    if (state == QUOTED) {
+                        text.append(c);
+                    }
+                    continue;
+                }
+                lastWasCarriageReturn = c == '\r';
+                endOfLine(c);
+                continue;
+            }
+            lastWasCarriageReturn = false;
+
+            switch (state) {
+                case QUOTED:
+                    text.append(c);
+                    if (c == quote) {
+                        state = NORMAL;  // '' 이스케이프는 바로 다시 열림
+                    }
+                    break;
+                case LINE_COMMENT:
+                case SKIPPED_LINE:
+                    break;
+                case BLOCK_COMMENT:
+                    if (pendingStar && c == '/') {
+                        state = NORMAL;
+                        pendingStar = false;
+                    } else {
+                        pendingStar = c == '*';
+                    }
+                    break;
+                default:
+                    normal(c);
+                    break;
+            }
+            if (c > ' ') {
+                lineBlank = false;
+            }
+        }
+    }
+
+    /**
+     * 파일 끝 처리 (마지막 줄과 ; 없이 끝난 마지막 문장을 넘김)
+     */
+    public void finish() {
+        flushPending();
+        if (state != BLOCK_COMMENT) {
+            flushLine();
+        }
+        if (inStatement) {
+            emit();
+        }
+        state = NORMAL;
+    }
+
+    private void normal(char c) {
+        if (pendingDash) {
+            pendingDash = false;
+            if (c == '-') {
+                state = LINE_COMMENT;
+                return;
+            }
+            text.append('-');
+        } else if (pendingSlash) {
+            pendingSlash = false;
+            if (c == '*') {
+                state = BLOCK_COMMENT;
+                pendingStar = false;
+                return;
+            }
+            text.append('/');
+        }
+
+        switch (c) {
+            case '-':
+                pendingDash = true;
+                break;
+            case '/':
+                pendingSlash = true;
+                break;
+            case '#':
+                if (lineBlank) {
+                    state = SKIPPED_LINE;
+                    text.setLength(lineStart);
+                } else {
+                    text.append(c);
+                }
+                break;
+            case '\'':
+            case '"':
+            case '`':
+                text.append(c);
+                quote = c;
+                state = QUOTED;
+                break;
+            case ';':
+                text.append(c);
+                endOfStatement();
+                break;
+            default:
+                text.append(c);
+                break;
+        }
+    }
+
+    private void endOfLine(char c) {
+        flushPending();
+        switch (state) {
+            case QUOTED:
+                if (inStatement || startsStatement(text, lineStart)) {
+                    if (unterminatedQuote()) {
+                        state = NORMAL;
+                        emit();
+                        lineBlank = true;
+                        return;
+                    }
+                    text.append(c);  // 여러 줄 문자열
+                    return;
+                }
+                state = NORMAL;
+                break;
+            case LINE_COMMENT:
+            case SKIPPED_LINE:
+                state = NORMAL;
+                break;
+            default:
+                break;
+        }
+        if (state != BLOCK_COMMENT) {
+            pendingStar = false;
+        }
+        flushLine();
+        lineBlank = true;
+    }
+
+    /**
+     * 따옴표 안에서 줄이 끝날 때 닫히지 않은 따옴표로 볼지 (줄이 ; 로 끝나거나, 따옴표 안의 빈 줄)
+     */
+    private boolean unterminatedQuote() {
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == ' ' || text.charAt(end - 1) == '\t')) {
+            end--;
+        }
+        if (end == 0) {
+            return false;
+        }
+        char last = text.charAt(end - 1);
+        return last == ';' || last == '\n' || last == '\r';
+    }
+
+    /**
+     * 따옴표 밖의 ; - 현재 줄까지로 문장을 끝냄 (문장이 아닌 줄이면 버림)
+     */
+    private void endOfStatement() {
+        if (!inStatement && startsStatement(text, lineStart)) {
+            inStatement = true;
+        }
+        if (inStatement) {
+            emit();
+        } else {
+            text.setLength(lineStart);
+        }
+    }
+
+    /**
+     * 줄 끝 - 빈 줄이 아니면 현재 문장에 남김 (문장이 아닌데 키워드로 시작하면 새 문장 시작)
+     */
+    private void flushLine() {
+        if (!isBlank(text, lineStart) && (inStatement || startsStatement(text, lineStart))) {
+            inStatement = true;
+            text.append(LINE_SEPARATOR);
+            lineStart = text.length();
+        } else {
+            text.setLength(lineStart);
+        }
+    }
+
+    private void flushPending() {
+        if (pendingDash) {
+            text.append('-');
+            pendingDash = false;
+        } else if (pendingSlash) {
+            text.append('/');
+            pendingSlash = false;
+        }
+    }
+
+    private void emit() {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start < end) {
+            onStatement.accept(slices ? slice(start, end) : text.substring(start, end));
+        }
+        text.setLength(0);
+        lineStart = 0;
+        inStatement = false;
+    }
+
+    /**
+     * 현재 문장의 [start, end)를 블록에 이어 담고 그 구간을 반환 (블록이 모자라면 새 블록)
+     */
+    private StatementSlice slice(int start, int end) {
+        int length = end - start;
+        if (block == null || block.length - blockUsed < length) {
+            block = new char[Math.max(SLICE_BLOCK_CHARS, length)];
+            blockUsed = 0;
+        }
+        text.getChars(start, end, block, blockUsed);
+        StatementSlice slice = new StatementSlice(block, blockUsed, length);
+        blockUsed += length;
+        return slice;
+    }
+
+    /**
+     * 일반 상태에서 따로 처리해야 하는 문자 (줄바꿈, 주석 시작 후보, #, 따옴표, ;)
+     */
+    private static boolean isSpecial(char c) {
+        switch (c) {
+            case '\n':
+            case '\r':
+            case '-':
+            case '/':
+            case '#':
+            case '\'':
+            case '"':
+            case '`':
+            case ';':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isBlank(CharSequence text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 앞 공백을 뺀 줄이 SQL 시작 키워드로 시작하는지 (대소문자 무시, 접두어 일치)
+     */
+    private static boolean startsStatement(CharSequence text, int from) {
+        int start = from;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        for (String keyword : START_KEYWORDS) {
+            if (regionMatches(text, start, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String keyword) {
+        if (text.length() - start < keyword.length()) {
+            return false;
+        }
+        for (int k = 0; k < keyword.length(); k++) {
+            if (Character.toUpperCase(text.charAt(start + k)) != keyword.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tablelineagebuilder.sql;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 파일 채널을 조금씩 읽어 SQL 문장을 하나씩 꺼내는 반복자
+ *
+ * 다음 문장이 필요할 때만 64K 단위로 읽어 SqlStatementLexer에 넘기므로,
+ * 파일 전체를 메모리에 올리지 않고 가장 큰 문장 하나 크기의 메모리만 사용한다.
+ * 읽기 오류는 UncheckedIOException으로 전달되며, 다 쓰면 close()로 채널을 닫아야 한다.
+ */
+public final class SqlStatementReader implements Iterator<CharSequence>, Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+    private final ArrayDeque<CharSequence> ready = new ArrayDeque<>();
+    private final SqlStatementLexer lexer;
+    private boolean finished;
+
+    public SqlStatementReader(Path path, Charset charset) throws IOException {
+        this(path, charset, false);
+    }
+
+    /**
+     * @param slices true면 문장을 String 대신 StatementSlice로 반환 (SqlStatementLexer 참고)
+     */
+    public SqlStatementReader(Path path, Charset charset, boolean slices) throws IOException {
+        this.lexer = new SqlStatementLexer(ready::add, slices);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        // FileReader와 같이 잘못된 바이트는 대체 문자로 바꿈
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (ready.isEmpty() && !finished) {
+                readChunk();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    /**
+     * 한 번 읽어 디코딩한 문자를 렉서에 넘김 (파일 끝이면 마지막 문장까지 넘기고 종료)
+     */
+    private void readChunk() throws IOException {
+        boolean endOfInput = channel.read(bytes) < 0;
+        bytes.flip();
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            feedChars();
+        } while (result.isOverflow());
+        bytes.compact();
+
+        if (endOfInput) {
+            do {
+                result = decoder.flush(chars);
+                feedChars();
+            } while (result.isOverflow());
+            lexer.finish();
+            finished = true;
+            close();
+        }
+    }
+
+    private void feedChars() {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            lexer.feed(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+        chars.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tablelineagebuilder.sql;
+
+/**
+ * SqlTokenizer가 만드는 토큰 하나
+ * 위치는 원문 기준 [start, end)
+ */
+public final class SqlToken {
+
+    public enum Type {
+        WORD,       // 식별자/키워드 (영숫자, _, $, #)
+        QUOTED,     // "따옴표 식별자" (text는 따옴표를 뗀 값)
+        STRING,     // '문자열' (text는 따옴표를 포함한 원문)
+        NUMBER,
+        SYMBOL      // 그 밖의 한 글자 기호
+    }
+
+    private final Type type;
+    private final String text;
+    private final int start;
+    private final int end;
+
+    SqlToken(Type type, String text, int start, int end) {
+        this.type = type;
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * 키워드 비교 (대소문자 무시, WORD 토큰만)
+     */
+    public boolean is(String keyword) {
+        return type == Type.WORD && text.equalsIgnoreCase(keyword);
+    }
+
+    public boolean isSymbol(char symbol) {
+        return type == Type.SYMBOL && text.charAt(0) == symbol;
+    }
+
+    /**
+     * 테이블명 등으로 쓸 수 있는 식별자 (WORD 또는 따옴표 식별자)
+     */
+    public boolean isIdentifier() {
+        return type == Type.WORD || type == Type.QUOTED;
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + text;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 문장을 토큰으로 나누는 단순 토크나이저
+ *
+ * 주석(--, 블록 주석, 힌트)과 공백은 버리고, 문자열/따옴표 식별자는 한 토큰으로 묶는다.
+ * ''나 ""처럼 두 번 쓴 따옴표는 이스케이프로 본다.
+ * 문법 검사는 하지 않으므로 닫히지 않은 따옴표나 주석은 문장 끝까지로 처리한다.
+ */
+public final class SqlTokenizer {
+
+    private SqlTokenizer() {
+    }
+
+    public static List<SqlToken> tokenize(String sql) {
+        List<SqlToken> tokens = new ArrayList<>();
+        int n = sql.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == '\'') {
+                int end = skipQuoted(sql, i, '\'');
+                tokens.add(new SqlToken(SqlToken.Type.STRING, sql.substring(i, end), i, end));
+                i = end;
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                String name = sql.substring(i + 1, Math.max(i + 1, end - 1)).replace("\"\"", "\"");
+                tokens.add(new SqlToken(SqlToken.Type.QUOTED, name, i, end));
+                i = end;
+            } else if (Character.isDigit(c)) {
+                int end = i;
+                while (end < n && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new SqlToken(SqlToken.Type.NUMBER, sql.substring(i, end), i, end));
+                i = end;
+            } else if (isWordChar(c)) {
+                int end = i;
+                while (end < n && isWordChar(sql.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new SqlToken(SqlToken.Type.WORD, sql.substring(i, end), i, end));
+                i = end;
+            } else {
+                tokens.add(new SqlToken(SqlToken.Type.SYMBOL, String.valueOf(c), i, i + 1));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 식별자를 이루는 문자 (Oracle의 $, # 포함)
+     */
+    public static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+    }
+
+    /**
+     * 따옴표로 둘러싼 구간의 끝 다음 위치 (닫히지 않으면 문자열 끝)
+     */
+    static int skipQuoted(String s, int start, char quote) {
+        int i = start + 1;
+        while (i < s.length()) {
+            if (s.charAt(i) == quote) {
+                if (i + 1 < s.length() && s.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return s.length();
+    }
+}
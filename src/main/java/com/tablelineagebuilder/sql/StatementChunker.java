@@ -0,0 +1,279 @@
+package com.tablelineagebuilder.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 컨텍스트에 들어가지 않는 긴 쿼리를 구조 단위로 나누는 분할기
+ *
+ * 쿼리 본문(SELECT 부분)을 UNION 등 집합 연산 가지, CTE 정의, 서브쿼리 경계에서 재귀적으로 나누고,
+ * 작은 조각은 다시 UNION ALL로 묶어 조각 수를 줄인다. 모든 조각 앞에는 타겟 절(INSERT INTO 타겟)을 붙여
+ * 조각마다 독립적으로 "타겟 ← 소스" 계보를 얻을 수 있게 한다.
+ * - 떼어낸 서브쿼리 자리는 (SELECT NULL FROM DUAL)로 바꿔 바깥 쿼리의 문법을 유지
+ * - MERGE는 USING 이후를 SELECT * FROM 뒤에 붙여 본문으로 사용
+ * - 조각에 CTE 이름이 소스로 나올 수 있으므로 병합 시 getCteNames()로 걸러야 함
+ *
+ * 타겟 앞의 TABLE, IF NOT EXISTS는 건너뛰고, 타겟명이 키워드거나 셸 변수면 나누지 않는다.
+ *
+ * 나눌 수 없는 형태(UPDATE, INSERT ... VALUES, INSERT ALL 등)거나 나눠도 조각이 하나면 null.
+ */
+public final class StatementChunker {
+
+    private static final String SUBQUERY_PLACEHOLDER = "(SELECT NULL FROM DUAL)";
+    private static final String CHUNK_SEPARATOR = "\nUNION ALL\n";
+
+    private StatementChunker() {
+    }
+
+    /**
+     * 분할 결과
+     */
+    public static final class Chunks {
+        private final List<String> chunks;
+        private final Set<String> cteNames;
+
+        Chunks(List<String> chunks, Set<String> cteNames) {
+            this.chunks = chunks;
+            this.cteNames = cteNames;
+        }
+
+        /**
+         * 조각별 SQL (타겟 절 포함)
+         */
+        public List<String> getChunks() {
+            return chunks;
+        }
+
+        /**
+         * 원문에 정의된 CTE 이름 (대문자)
+         */
+        public Set<String> getCteNames() {
+            return cteNames;
+        }
+    }
+
+    /**
+     * 쿼리를 조각당 최대 maxChars자 안팎으로 분할
+     * 더 나눌 수 없는 조각(거대한 단일 SELECT 등)은 maxChars를 넘을 수 있다.
+     */
+    public static Chunks split(String sql, int maxChars) {
+        List<SqlToken> tokens = SqlTokenizer.tokenize(sql);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        int pos = 0;
+        if (tokens.get(0).is("WITH")) {
+            pos = LocalLineageParser.skipWithClause(tokens, 0);
+            if (pos < 0 || pos >= tokens.size()) {
+                return null;
+            }
+        }
+        String withClause = pos > 0 ? sql.substring(tokens.get(0).getStart(), tokens.get(pos).getStart()) : "";
+
+        SqlToken head = tokens.get(pos);
+        int targetStart;
+        int[] next = new int[1];
+        String body;
+
+        if (head.is("INSERT") || head.is("MERGE")) {
+            if (pos + 1 >= tokens.size() || !tokens.get(pos + 1).is("INTO")) {
+                return null;
+            }
+            targetStart = LocalLineageParser.skipTargetPrefix(tokens, pos + 2);
+            if (LocalLineageParser.readTableName(tokens, targetStart, next) == null) {
+                return null;
+            }
+            int i = next[0];
+            if (head.is("INSERT")) {
+                // 컬럼 목록 건너뛰기
+                if (i < tokens.size() && tokens.get(i).isSymbol('(') && !LocalLineageParser.startsQuery(tokens, i + 1)) {
+                    i = LocalLineageParser.matchParen(tokens, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                    i++;
+                }
+                if (!LocalLineageParser.startsQuery(tokens, i) && !(i < tokens.size() && tokens.get(i).isSymbol('('))) {
+                    return null;  // VALUES 등
+                }
+                body = withClause + textFrom(sql, tokens, i);
+            } else {
+                while (i < tokens.size() && !tokens.get(i).is("USING")) {
+                    i++;
+                }
+                if (i + 1 >= tokens.size()) {
+                    return null;
+                }
+                body = withClause + "SELECT * FROM " + textFrom(sql, tokens, i + 1);
+            }
+
+        } else if (head.is("CREATE")) {
+            int i = pos + 1;
+            while (i < tokens.size() && !tokens.get(i).is("TABLE")) {
+                i++;
+            }
+            targetStart = LocalLineageParser.skipTargetPrefix(tokens, i + 1);
+            if (LocalLineageParser.readTableName(tokens, targetStart, next) == null) {
+                return null;
+            }
+            int as = LocalLineageParser.findTopLevelAs(tokens, next[0]);
+            if (as < 0) {
+                return null;
+            }
+            body = withClause + textFrom(sql, tokens, as + 1);
+
+        } else {
+            return null;
+        }
+
+        String header = "INSERT INTO " + sql.substring(tokens.get(targetStart).getStart(), tokens.get(next[0] - 1).getEnd()) + "\n";
+        int bodyChars = Math.max(1, maxChars - header.length());
+
+        List<String> pieces = new ArrayList<>();
+        splitBody(stripSemicolon(body), bodyChars, pieces);
+
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String piece : pieces) {
+            if (current.length() > 0 && current.length() + CHUNK_SEPARATOR.length() + piece.length() > bodyChars) {
+                chunks.add(header + current);
+                current.setLength(0);
+            }
+            if (current.length() > 0) {
+                current.append(CHUNK_SEPARATOR);
+            }
+            current.append(piece);
+        }
+        if (current.length() > 0) {
+            chunks.add(header + current);
+        }
+        if (chunks.size() <= 1) {
+            return null;
+        }
+
+        Set<String> cteNames = LocalLineageParser.collectCteNames(tokens);
+        return new Chunks(chunks, cteNames == null ? Collections.<String>emptySet() : cteNames);
+    }
+
+    /**
+     * 쿼리 본문을 재귀적으로 나눔 (WITH → 집합 연산 가지 → 서브쿼리 순)
+     */
+    private static void splitBody(String body, int maxChars, List<String> out) {
+        body = body.trim();
+        if (body.length() <= maxChars) {
+            out.add(body);
+            return;
+        }
+        List<SqlToken> tokens = SqlTokenizer.tokenize(body);
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        // 전체를 감싼 괄호
+        if (tokens.get(0).isSymbol('(') && LocalLineageParser.matchParen(tokens, 0) == tokens.size() - 1) {
+            splitBody(body.substring(tokens.get(0).getEnd(), tokens.get(tokens.size() - 1).getStart()), maxChars, out);
+            return;
+        }
+
+        // CTE 정의마다, 그리고 본 쿼리
+        if (tokens.get(0).is("WITH")) {
+            int i = 1;
+            if (i < tokens.size() && tokens.get(i).is("RECURSIVE")) {
+                i++;
+            }
+            while (i < tokens.size() && tokens.get(i).isIdentifier()) {
+                int as = i + 1;
+                if (as < tokens.size() && tokens.get(as).isSymbol('(')) {
+                    as = LocalLineageParser.matchParen(tokens, as) + 1;
+                }
+                if (as <= 0 || as + 1 >= tokens.size() || !tokens.get(as).is("AS") || !tokens.get(as + 1).isSymbol('(')) {
+                    out.add(body);
+                    return;
+                }
+                int close = LocalLineageParser.matchParen(tokens, as + 1);
+                if (close < 0) {
+                    out.add(body);
+                    return;
+                }
+                splitBody(body.substring(tokens.get(as + 1).getEnd(), tokens.get(close).getStart()), maxChars, out);
+                i = close + 1;
+                if (i < tokens.size() && tokens.get(i).isSymbol(',')) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (i < tokens.size()) {
+                splitBody(textFrom(body, tokens, i), maxChars, out);
+            }
+            return;
+        }
+
+        // 괄호 밖의 UNION/INTERSECT/MINUS/EXCEPT 가지
+        List<String> branches = new ArrayList<>();
+        int depth = 0;
+        int branchStart = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            SqlToken token = tokens.get(i);
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && (token.is("UNION") || token.is("INTERSECT") || token.is("MINUS") || token.is("EXCEPT"))) {
+                branches.add(body.substring(tokens.get(branchStart).getStart(), token.getStart()));
+                branchStart = i + 1;
+                if (branchStart < tokens.size() && (tokens.get(branchStart).is("ALL") || tokens.get(branchStart).is("DISTINCT"))) {
+                    branchStart++;
+                }
+            }
+        }
+        if (!branches.isEmpty() && branchStart < tokens.size()) {
+            branches.add(textFrom(body, tokens, branchStart));
+            for (String branch : branches) {
+                splitBody(branch, maxChars, out);
+            }
+            return;
+        }
+
+        // 서브쿼리를 떼어내고 그 자리는 DUAL 조회로 대체
+        StringBuilder outer = new StringBuilder();
+        List<String> subqueries = new ArrayList<>();
+        int copied = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).isSymbol('(') && LocalLineageParser.startsQuery(tokens, i + 1)) {
+                int close = LocalLineageParser.matchParen(tokens, i);
+                if (close < 0) {
+                    break;
+                }
+                subqueries.add(body.substring(tokens.get(i).getEnd(), tokens.get(close).getStart()));
+                outer.append(body, copied, tokens.get(i).getStart()).append(SUBQUERY_PLACEHOLDER);
+                copied = tokens.get(close).getEnd();
+                i = close;
+            }
+        }
+        if (subqueries.isEmpty()) {
+            out.add(body);  // 더 나눌 수 없음
+            return;
+        }
+        outer.append(body, copied, body.length());
+        out.add(outer.toString().trim());
+        for (String subquery : subqueries) {
+            splitBody(subquery, maxChars, out);
+        }
+    }
+
+    private static String textFrom(String sql, List<SqlToken> tokens, int index) {
+        return sql.substring(tokens.get(index).getStart());
+    }
+
+    private static String stripSemicolon(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,240 @@
+package com.tablelineagebuilder.sql;
+
+/**
+ * 계보 분석이 필요한 문장인지 판단하는 분류기
+ *
+ * 문장을 복사하지 않고 앞쪽 토큰과 최상위 절만 읽는다 (주석, 문자열, 따옴표 식별자는 건너뜀).
+ * - INSERT/UPDATE/MERGE: 분석 (WITH … INSERT/UPDATE/MERGE 포함)
+ * - CREATE … AS SELECT/WITH (CTAS, 뷰): 분석
+ * - VALUES만 있고 SELECT가 없는 INSERT: 소스 테이블이 없으므로 건너뜀
+ * - 그 밖의 문장은 건너뛴 이유(SkipReason)를 돌려줌
+ */
+public final class StatementClassifier {
+
+    /**
+     * 분석하지 않는 이유
+     */
+    public enum SkipReason {
+        EMPTY("빈 문장"),
+        SELECT_ONLY("조회 전용 (SELECT, WITH … SELECT)"),
+        VALUES_ONLY("VALUES만 있는 INSERT (소스 테이블 없음)"),
+        DELETE("DELETE"),
+        DDL("DDL (CREATE/ALTER/DROP/TRUNCATE, AS SELECT 없음)"),
+        OTHER("기타 (SET, GRANT, 프로시저 호출 등)");
+
+        private final String label;
+
+        SkipReason(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private StatementClassifier() {
+    }
+
+    /**
+     * 건너뛸 이유 (계보 분석이 필요하면 null)
+     */
+    public static SkipReason classify(CharSequence sql) {
+        if (sql == null) {
+            return SkipReason.EMPTY;
+        }
+        Cursor cursor = new Cursor(sql);
+        if (!cursor.next()) {
+            return SkipReason.EMPTY;
+        }
+        if (cursor.is("WITH")) {
+            // CTE 정의는 괄호 안이므로 최상위에서 처음 나오는 DML/SELECT가 본문
+            while (cursor.next()) {
+                if (cursor.depth == 0 && (cursor.is("SELECT") || cursor.is("INSERT") || cursor.is("UPDATE")
+                        || cursor.is("MERGE") || cursor.is("DELETE"))) {
+                    break;
+                }
+            }
+            if (cursor.type == Cursor.END) {
+                return SkipReason.OTHER;
+            }
+        }
+
+        if (cursor.is("INSERT")) {
+            return classifyInsert(cursor);
+        }
+        if (cursor.is("UPDATE") || cursor.is("MERGE")) {
+            return null;
+        }
+        if (cursor.is("CREATE")) {
+            return createsFromQuery(cursor) ? null : SkipReason.DDL;
+        }
+        if (cursor.is("SELECT")) {
+            return SkipReason.SELECT_ONLY;
+        }
+        if (cursor.is("DELETE")) {
+            return SkipReason.DELETE;
+        }
+        if (cursor.is("ALTER") || cursor.is("DROP") || cursor.is("TRUNCATE")) {
+            return SkipReason.DDL;
+        }
+        return SkipReason.OTHER;
+    }
+
+    /**
+     * SELECT가 한 번도 없고 VALUES가 있는 INSERT는 리터럴만 넣는 문장 (서브쿼리가 있으면 SELECT가 보임)
+     */
+    private static SkipReason classifyInsert(Cursor cursor) {
+        boolean values = false;
+        while (cursor.next()) {
+            if (cursor.is("SELECT")) {
+                return null;
+            }
+            if (cursor.is("VALUES")) {
+                values = true;
+            }
+        }
+        return values ? SkipReason.VALUES_ONLY : null;
+    }
+
+    /**
+     * CREATE … AS [(] SELECT|WITH 인지 (최상위 AS 바로 뒤만 확인)
+     */
+    private static boolean createsFromQuery(Cursor cursor) {
+        while (cursor.next()) {
+            if (cursor.depth != 0 || !cursor.is("AS")) {
+                continue;
+            }
+            if (!cursor.next()) {
+                return false;
+            }
+            while (cursor.type == Cursor.SYMBOL && cursor.symbol() == '(') {
+                if (!cursor.next()) {
+                    return false;
+                }
+            }
+            if (cursor.is("SELECT") || cursor.is("WITH")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 문장 위를 움직이는 토큰 커서 (토큰 문자열을 만들지 않음)
+     * depth는 현재 토큰이 들어 있는 괄호 깊이 (여는 괄호 토큰 자체는 바깥 깊이)
+     */
+    private static final class Cursor {
+        static final int END = 0;
+        static final int WORD = 1;
+        static final int SYMBOL = 2;
+        static final int QUOTED = 3;
+
+        private final CharSequence sql;
+        private final int length;
+        private int pos;
+        int type;
+        int start;
+        int end;
+        int depth;
+        private int pendingDepth;
+
+        Cursor(CharSequence sql) {
+            this.sql = sql;
+            this.length = sql.length();
+        }
+
+        /**
+         * 다음 토큰으로 이동 (문장 끝이면 false)
+         */
+        boolean next() {
+            depth = pendingDepth;
+            skipTrivia();
+            if (pos >= length) {
+                type = END;
+                start = end = length;
+                return false;
+            }
+            start = pos;
+            char c = sql.charAt(pos);
+            if (SqlTokenizer.isWordChar(c)) {
+                while (pos < length && SqlTokenizer.isWordChar(sql.charAt(pos))) {
+                    pos++;
+                }
+                type = WORD;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                pos = skipQuoted(c);
+                type = QUOTED;
+            } else {
+                pos++;
+                type = SYMBOL;
+                if (c == '(') {
+                    pendingDepth++;
+                } else if (c == ')' && pendingDepth > 0) {
+                    pendingDepth--;
+                    depth = pendingDepth;
+                }
+            }
+            end = pos;
+            return true;
+        }
+
+        /**
+         * 현재 토큰이 키워드인지 (대소문자 무시, keyword는 대문자)
+         */
+        boolean is(String keyword) {
+            if (type != WORD || end - start != keyword.length()) {
+                return false;
+            }
+            for (int k = 0; k < keyword.length(); k++) {
+                if (Character.toUpperCase(sql.charAt(start + k)) != keyword.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        char symbol() {
+            return sql.charAt(start);
+        }
+
+        private void skipTrivia() {
+            while (pos < length) {
+                char c = sql.charAt(pos);
+                if (Character.isWhitespace(c)) {
+                    pos++;
+                } else if (c == '-' && pos + 1 < length && sql.charAt(pos + 1) == '-') {
+                    while (pos < length && sql.charAt(pos) != '\n') {
+                        pos++;
+                    }
+                } else if (c == '/' && pos + 1 < length && sql.charAt(pos + 1) == '*') {
+                    pos += 2;
+                    while (pos < length && !(sql.charAt(pos) == '*' && pos + 1 < length && sql.charAt(pos + 1) == '/')) {
+                        pos++;
+                    }
+                    pos = Math.min(length, pos + 2);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 따옴표 구간의 끝 다음 위치 (두 번 쓴 따옴표는 이스케이프, 닫히지 않으면 문장 끝)
+         */
+        private int skipQuoted(char quote) {
+            int i = pos + 1;
+            while (i < length) {
+                if (sql.charAt(i) == quote) {
+                    if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                        i += 2;
+                        continue;
+                    }
+                    return i + 1;
+                }
+                i++;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tablelineagebuilder.sql;
+
+/**
+ * 여러 문장이 함께 쓰는 문자 블록의 한 구간 (문장 원문의 복사 없는 보기)
+ *
+ * SqlStatementLexer의 슬라이스 모드에서 만들어지며, toString()을 호출할 때만 String을 새로 만든다.
+ * 블록은 이 구간을 가리키는 슬라이스가 모두 사라지면 함께 수거된다.
+ */
+public final class StatementSlice implements CharSequence {
+
+    private final char[] block;
+    private final int offset;
+    private final int length;
+
+    StatementSlice(char[] block, int offset, int length) {
+        this.block = block;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return block[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new StatementSlice(block, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(block, offset, length);
+    }
+}
@@ -0,0 +1,191 @@
+package com.tablelineagebuilder.client;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * java.net.http 기반 비동기 전송 계층 (Java 11 이상)
+ *
+ * 프로세스 전체가 하나의 HttpClient를 공유한다. HTTP/2로 협상되면 한 연결에서 요청을 다중화하고,
+ * 응답 대기 중에는 스레드를 점유하지 않으므로 소수의 스레드로 수백 개의 요청을 동시에 유지할 수 있다.
+ * HTTP 버전은 JDK 기본값을 따르며, LLM_HTTP_VERSION으로 1.1 또는 2로 고정할 수 있다.
+ * LLMTransport.createAsync()가 리플렉션으로 생성하므로 public 기본 생성자가 필요하다.
+ */
+public class HttpClientTransport implements LLMTransport {
+
+    private static final HttpClient HTTP_CLIENT = createHttpClient();
+
+    private static HttpClient createHttpClient() {
+        HttpConnectionPool.configure();
+        ExecutorService executor = Executors.newFixedThreadPool(Config.getLlmAsyncThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "llm-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(Config.getLlmTimeout()))
+            .executor(executor);
+        String version = Config.getLlmHttpVersion();
+        if ("1.1".equals(version)) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        } else if ("2".equals(version)) {
+            builder.version(HttpClient.Version.HTTP_2);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public CompletableFuture<String> postAsync(String url, String body, int timeoutMs) {
+        HttpRequest request;
+        try {
+            HttpCompression.RequestBody payload = HttpCompression.encodeRequest(body);
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", HttpCompression.GZIP)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload.bytes));
+            if (payload.gzipped) {
+                builder.header("Content-Encoding", HttpCompression.GZIP);
+            }
+            request = builder.build();
+        } catch (IOException | IllegalArgumentException e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("LLM 요청 생성 실패: " + url, e));
+            return failed;
+        }
+
+        // java.net.http는 gzip을 자동으로 풀지 않으므로 바이트로 받아 직접 변환
+        // 요청의 timeout()은 응답 헤더까지만 적용되므로, 본문 수신까지 포함한 전체 시간을 orTimeout으로 제한
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .handle((response, error) -> {
+                if (error != null) {
+                    throw new CompletionException(translate(error));
+                }
+                String responseBody;
+                try {
+                    responseBody = HttpCompression.decode(response.body(),
+                        response.headers().firstValue("Content-Encoding").orElse(null));
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                int code = response.statusCode();
+                if (code < 200 || code >= 300) {
+                    throw new CompletionException(new LLMHttpException(code, "HTTP " + code + " | " + responseBody));
+                }
+                return responseBody;
+            });
+    }
+
+    @Override
+    public CompletableFuture<Void> postStreamAsync(String url, String body, int timeoutMs, Consumer<String> onLine) {
+        HttpRequest request;
+        try {
+            // 타임아웃은 응답 헤더 수신까지만 적용되고, 이후 조각은 도착하는 대로 처리
+            request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        } catch (IllegalArgumentException e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("LLM 요청 생성 실패: " + url, e));
+            return failed;
+        }
+
+        LineForwarder forwarder = new LineForwarder(onLine);
+        // 2xx 응답만 줄 단위로 흘려보내고, 오류 응답은 본문 전체를 모아 예외 메시지로 사용
+        HttpResponse.BodyHandler<String> handler = info -> {
+            int code = info.statusCode();
+            if (code >= 200 && code < 300) {
+                return HttpResponse.BodySubscribers.fromLineSubscriber(forwarder, f -> "", StandardCharsets.UTF_8, null);
+            }
+            return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        };
+
+        return HTTP_CLIENT.sendAsync(request, handler)
+            .handle((response, error) -> {
+                if (error != null) {
+                    throw new CompletionException(translate(error));
+                }
+                int code = response.statusCode();
+                if (code < 200 || code >= 300) {
+                    throw new CompletionException(new LLMHttpException(code, "HTTP " + code + " | " + response.body()));
+                }
+                if (forwarder.failure != null) {
+                    throw new CompletionException(forwarder.failure);
+                }
+                return null;
+            });
+    }
+
+    /**
+     * 수신한 줄을 그대로 전달하는 구독자
+     * 콜백 예외로 스트림이 멈추지 않도록 첫 예외만 기록하고 나머지 줄은 버림
+     */
+    private static final class LineForwarder implements Flow.Subscriber<String> {
+        private final Consumer<String> onLine;
+        private volatile RuntimeException failure;
+
+        LineForwarder(Consumer<String> onLine) {
+            this.onLine = onLine;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                onLine.accept(line);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // sendAsync의 예외로 전달됨
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * 동시 호출 제어기가 HttpURLConnection 경로와 같은 기준으로 판단하도록 예외 변환
+     */
+    private static Throwable translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+            SocketTimeoutException timeout = new SocketTimeoutException(cause.getMessage());
+            timeout.initCause(cause);
+            return timeout;
+        }
+        return cause;
+    }
+}
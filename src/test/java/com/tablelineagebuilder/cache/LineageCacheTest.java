@@ -0,0 +1,128 @@
+package com.tablelineagebuilder.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LineageCacheTest {
+
+    private static final long LARGE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LineageCache open(long maxBytes, boolean invalidate) throws Exception {
+        return LineageCache.open(new File(folder.getRoot(), "cache"), maxBytes, 1, invalidate);
+    }
+
+    private static List<String[]> pairs(String... tables) {
+        String[][] pairs = new String[tables.length / 2][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new String[] {tables[i * 2], tables[i * 2 + 1]};
+        }
+        return Arrays.asList(pairs);
+    }
+
+    private static String key(int i) {
+        return LineageCache.keyOf("gpt-4", "v1", "INSERT INTO t SELECT * FROM s" + i);
+    }
+
+    @Test
+    public void keyIgnoresWhitespaceButNotModelOrPrompt() {
+        String key = LineageCache.keyOf("gpt-4", "v1", "INSERT INTO t\n  SELECT *   FROM s");
+        assertEquals(key, LineageCache.keyOf("gpt-4", "v1", "  INSERT INTO t SELECT * FROM s \n"));
+        assertNotEquals(key, LineageCache.keyOf("o3", "v1", "INSERT INTO t SELECT * FROM s"));
+        assertNotEquals(key, LineageCache.keyOf("gpt-4", "v2", "INSERT INTO t SELECT * FROM s"));
+        assertNotEquals(key, LineageCache.keyOf("gpt-4", "v1", "insert into t select * from s"));
+    }
+
+    @Test
+    public void storedPairsSurviveReopen() throws Exception {
+        try (LineageCache cache = open(LARGE, false)) {
+            cache.put(key(1), pairs("S1", "T", "S2", "T"));
+            cache.put(key(2), Collections.<String[]>emptyList());
+            assertNull(cache.get(key(3)));
+        }
+        try (LineageCache cache = open(LARGE, false)) {
+            List<String[]> cached = cache.get(key(1));
+            assertNotNull(cached);
+            assertEquals(2, cached.size());
+            assertArrayEquals(new String[] {"S2", "T"}, cached.get(1));
+            assertEquals(0, cache.get(key(2)).size());
+            assertEquals(2, cache.getHits());
+            assertNull(cache.get(key(3)));
+            assertEquals(1, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void laterPutReplacesEarlierRecord() throws Exception {
+        try (LineageCache cache = open(LARGE, false)) {
+            cache.put(key(1), pairs("OLD", "T"));
+            cache.put(key(1), pairs("NEW", "T"));
+        }
+        try (LineageCache cache = open(LARGE, false)) {
+            assertEquals("NEW", cache.get(key(1)).get(0)[0]);
+        }
+    }
+
+    @Test
+    public void truncatedTailIsDropped() throws Exception {
+        try (LineageCache cache = open(LARGE, false)) {
+            cache.put(key(1), pairs("S", "T"));
+        }
+        File segment = new File(folder.getRoot(), "cache/lineage.seg");
+        long valid = segment.length();
+        try (FileOutputStream out = new FileOutputStream(segment, true)) {
+            out.write((key(2) + "\t2\tS").getBytes(StandardCharsets.UTF_8));
+        }
+        try (LineageCache cache = open(LARGE, false)) {
+            assertEquals(valid, segment.length());
+            assertNotNull(cache.get(key(1)));
+            assertNull(cache.get(key(2)));
+        }
+    }
+
+    @Test
+    public void compactionKeepsRecentlyUsedRecords() throws Exception {
+        int record = (key(0) + "\t1\tS\tT\n").length();
+        try (LineageCache cache = open(record * 5 + record / 2, false)) {
+            for (int i = 0; i < 5; i++) {
+                cache.put(key(i), pairs("S", "T"));
+            }
+            cache.get(key(0));
+            // 6번째 레코드로 최대 크기를 넘으면 최근에 쓰인 레코드만 목표 크기(75%)까지 남김
+            cache.put(key(5), pairs("S", "T"));
+            assertNotNull(cache.get(key(0)));
+            assertNotNull(cache.get(key(5)));
+            assertNull(cache.get(key(1)));
+            assertNull(cache.get(key(2)));
+        }
+        try (LineageCache cache = open(LARGE, false)) {
+            assertNotNull(cache.get(key(0)));
+            assertNull(cache.get(key(1)));
+        }
+    }
+
+    @Test
+    public void invalidateStartsEmpty() throws Exception {
+        try (LineageCache cache = open(LARGE, false)) {
+            cache.put(key(1), pairs("S", "T"));
+        }
+        try (LineageCache cache = open(LARGE, true)) {
+            assertNull(cache.get(key(1)));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tablelineagebuilder.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TableCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TableCatalog catalog(String... names) {
+        return TableCatalog.build("test", Arrays.asList(names));
+    }
+
+    @Test
+    public void normalizesAndDeduplicatesNames() {
+        TableCatalog catalog = catalog("dw.cust_m", "\"CUST_M\"", "[ods].[src_cust]", "bad name", "", "x.");
+        assertEquals(2, catalog.size());
+        assertEquals("CUST_M", catalog.canonicalize("\"dw\".\"cust_m\""));
+        assertEquals("SRC_CUST", catalog.canonicalize("ODS.SRC_CUST"));
+        assertNull(catalog.canonicalize("CUST"));
+        assertNull(catalog.canonicalize("CUST_M_HIST"));
+    }
+
+    @Test
+    public void scanClassifiesTargetsAndSources() {
+        TableCatalog catalog = catalog("CUST_M", "CUST", "SRC_CUST", "ORDERS", "CODES");
+        TableCatalog.Scan scan = catalog.scan(
+            "INSERT INTO dw.cust_m SELECT * FROM ods.\"SRC_CUST\" s JOIN orders o ON s.id = o.id " +
+            "WHERE s.cd IN (SELECT cd FROM codes) AND s.cust_hist = 1");
+        assertEquals(new LinkedHashSet<>(Arrays.asList("CUST_M", "SRC_CUST", "ORDERS", "CODES")), scan.getTables());
+        assertEquals(Collections.singleton("CUST_M"), scan.getTargets());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("SRC_CUST", "ORDERS", "CODES")), scan.getSources());
+    }
+
+    @Test
+    public void scanIgnoresQualifiersAndPartialWords() {
+        TableCatalog catalog = catalog("CUST", "DW");
+        TableCatalog.Scan scan = catalog.scan("SELECT cust_id FROM dw.customer c, custx WHERE c.id = 1");
+        assertTrue(scan.getTables().isEmpty());
+        assertTrue(catalog.scan("UPDATE cust SET x = 1").getTargets().contains("CUST"));
+    }
+
+    @Test
+    public void largeCatalogKeepsEveryName() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add("SCHEMA_" + (i % 7) + ".TABLE_" + i + "_D");
+        }
+        TableCatalog catalog = TableCatalog.build("test", names);
+        assertEquals(5000, catalog.size());
+        for (int i = 0; i < 5000; i += 97) {
+            assertEquals("TABLE_" + i + "_D", catalog.canonicalize("table_" + i + "_d"));
+        }
+        assertNull(catalog.canonicalize("TABLE_5000_D"));
+        assertNull(catalog.canonicalize("TABLE_1"));
+    }
+
+    @Test
+    public void emptyCatalogIsDisabled() {
+        TableCatalog catalog = TableCatalog.build("", Collections.<String>emptyList());
+        assertFalse(catalog.isEnabled());
+        assertTrue(catalog.scan("SELECT * FROM t").getTables().isEmpty());
+    }
+
+    @Test
+    public void loadSkipsCommentsAndTrailingColumns() throws Exception {
+        File file = folder.newFile("tables.txt");
+        Files.write(file.toPath(), Arrays.asList("# exported", "", "dw.cust_m, 120 rows", "  orders\tcomment"),
+            StandardCharsets.UTF_8);
+        TableCatalog catalog = TableCatalog.load(file.getPath());
+        assertEquals(2, catalog.size());
+        assertEquals("CUST_M", catalog.canonicalize("cust_m"));
+        assertEquals("ORDERS", catalog.canonicalize("orders"));
+        assertEquals(file.getPath(), catalog.getSource());
+    }
+}
@@ -0,0 +1,105 @@
+package com.tablelineagebuilder.discovery;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SourceWalkerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file(String relative, String content) throws Exception {
+        Path path = folder.getRoot().toPath().resolve(relative);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    /**
+     * 탐색 결과를 루트 기준 상대 경로로 정렬해 반환
+     */
+    private List<String> walk(String includes, String excludes, boolean followSymlinks, long maxFileBytes) throws Exception {
+        Path root = folder.getRoot().toPath();
+        List<String> found = new ArrayList<>();
+        try (SourceWalker walker = SourceWalker.start(root, includes, excludes, 4, followSymlinks, maxFileBytes)) {
+            while (walker.hasNext()) {
+                found.add(root.relativize(root.getFileSystem().getPath(walker.next())).toString().replace(File.separatorChar, '/'));
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    @Test
+    public void findsMatchingFilesInNestedDirectories() throws Exception {
+        file("a.sql", "SELECT 1;");
+        file("x/b.hql", "SELECT 1;");
+        file("x/y/z/c.sql", "SELECT 1;");
+        file("x/readme.txt", "text");
+        assertEquals(Arrays.asList("a.sql", "x/b.hql", "x/y/z/c.sql"), walk("*.sql,*.hql", "", false, 0));
+    }
+
+    @Test
+    public void excludedDirectoriesAreSkippedWithChildren() throws Exception {
+        file("a.sql", "SELECT 1;");
+        file(".git/objects/b.sql", "SELECT 1;");
+        file("x/tmp_c.sql", "SELECT 1;");
+        file("x/d.sql", "SELECT 1;");
+        assertEquals(Arrays.asList("a.sql", "x/d.sql"), walk("*.sql", ".git, tmp_*", false, 0));
+    }
+
+    @Test
+    public void patternsWithSlashMatchRelativePath() throws Exception {
+        file("etl/a.sql", "SELECT 1;");
+        file("etl/sub/b.sql", "SELECT 1;");
+        file("other/c.sql", "SELECT 1;");
+        assertEquals(Arrays.asList("etl/a.sql"), walk("etl/*.sql", "", false, 0));
+        assertEquals(Arrays.asList("etl/a.sql", "other/c.sql"), walk("*.sql", "etl/sub", false, 0));
+    }
+
+    @Test
+    public void oversizedFilesAreSkipped() throws Exception {
+        file("small.sql", "SELECT 1;");
+        file("large.sql", "INSERT INTO t SELECT * FROM s WHERE a = 1;");
+        assertEquals(Arrays.asList("small.sql"), walk("*.sql", "", false, 20));
+        assertEquals(Arrays.asList("large.sql", "small.sql"), walk("*.sql", "", false, 0));
+    }
+
+    @Test
+    public void symlinksAreSkippedOrVisitedOnce() throws Exception {
+        Path target = file("real/a.sql", "SELECT 1;").getParent();
+        Path root = folder.getRoot().toPath();
+        try {
+            Files.createSymbolicLink(root.resolve("link"), target);
+            // 순환 링크: 따라가도 한 번만 방문해야 함
+            Files.createSymbolicLink(target.resolve("loop"), root);
+        } catch (UnsupportedOperationException | IOException e) {
+            return;
+        }
+        assertEquals(Arrays.asList("real/a.sql"), walk("*.sql", "", false, 0));
+        List<String> followed = walk("*.sql", "", true, 0);
+        assertEquals(1, followed.size());
+    }
+
+    @Test
+    public void emptyRootFinishes() throws Exception {
+        assertEquals(Collections.<String>emptyList(), walk("*.sql", "", false, 0));
+    }
+
+    @Test(expected = IOException.class)
+    public void rootMustBeDirectory() throws Exception {
+        SourceWalker.start(file("a.sql", "SELECT 1;").toString(), "*.sql", "");
+    }
+}
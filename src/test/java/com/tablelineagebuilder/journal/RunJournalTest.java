@@ -0,0 +1,180 @@
+package com.tablelineagebuilder.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.tablelineagebuilder.model.QueryInfo;
+import com.tablelineagebuilder.model.TableLineage;
+import com.tablelineagebuilder.report.FileResult;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RunJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "journal.log");
+    }
+
+    private RunJournal open(boolean resume) throws Exception {
+        return RunJournal.open(file, resume, 64, 1000);
+    }
+
+    private static List<TableLineage> lineages(QueryInfo query, String... pairs) {
+        TableLineage[] lineages = new TableLineage[pairs.length / 2];
+        for (int i = 0; i < lineages.length; i++) {
+            lineages[i] = new TableLineage(pairs[i * 2], pairs[i * 2 + 1], query.getFilePath(), query.getQueryText(), "gpt-4");
+        }
+        return Arrays.asList(lineages);
+    }
+
+    private static FileResult succeeded(String path) {
+        FileResult result = new FileResult(1, path);
+        result.setQueryCounts(3, 2, 1);
+        result.addSkippedQuery("DELETE");
+        result.addRelation("S -> T");
+        result.success(2);
+        return result;
+    }
+
+    @Test
+    public void replaysCompletedFilesAndStatements() throws Exception {
+        QueryInfo done = new QueryInfo("a.sql", "INSERT INTO t SELECT * FROM s");
+        QueryInfo pending = new QueryInfo("b.sql", "INSERT INTO u SELECT * FROM v");
+        try (RunJournal journal = open(false)) {
+            journal.recordStatement(done, 0, lineages(done, "S", "T"));
+            journal.recordFile(succeeded("a.sql"));
+            journal.recordStatement(pending, 1, lineages(pending, "V", "U", "W", "U"));
+        }
+
+        try (RunJournal journal = open(true)) {
+            FileResult restored = journal.restoreFile(7, "a.sql");
+            assertNotNull(restored);
+            assertEquals(7, restored.getFileIndex());
+            assertEquals(FileResult.Status.SUCCESS, restored.getStatus());
+            assertEquals(3, restored.getExtractedCount());
+            assertEquals(2, restored.getAnalyzeCount());
+            assertEquals(2, restored.getSavedCount());
+            assertEquals(Integer.valueOf(1), restored.getSkipReasons().get("DELETE"));
+            assertEquals(Collections.singletonList("S -> T"), restored.getRelations());
+            // 완료된 파일의 쿼리 기록은 필요 없으므로 남기지 않음
+            assertNull(journal.restoreStatement(done, 0));
+
+            assertNull(journal.restoreFile(2, "b.sql"));
+            List<TableLineage> replayed = journal.restoreStatement(pending, 1);
+            assertNotNull(replayed);
+            assertEquals(2, replayed.size());
+            assertEquals("W", replayed.get(1).getSourceTable());
+            assertEquals("U", replayed.get(1).getTargetTable());
+            assertEquals("gpt-4", replayed.get(1).getModelUsed());
+        }
+    }
+
+    @Test
+    public void changedStatementIsNotReplayed() throws Exception {
+        QueryInfo query = new QueryInfo("a.sql", "INSERT INTO t SELECT * FROM s");
+        try (RunJournal journal = open(false)) {
+            journal.recordStatement(query, 0, lineages(query, "S", "T"));
+        }
+        try (RunJournal journal = open(true)) {
+            assertNull(journal.restoreStatement(new QueryInfo("a.sql", "INSERT INTO t SELECT * FROM s2"), 0));
+            assertNull(journal.restoreStatement(query, 1));
+            assertNotNull(journal.restoreStatement(query, 0));
+        }
+    }
+
+    @Test
+    public void errorAndUnextractedFilesAreRetried() throws Exception {
+        QueryInfo query = new QueryInfo("err.sql", "INSERT INTO t SELECT * FROM s");
+        FileResult failed = new FileResult(1, "err.sql");
+        failed.setQueryCounts(2, 2, 0);
+        failed.error("쿼리 1개 분석 실패: timeout");
+        FileResult missing = new FileResult(2, "missing.sql");
+        missing.skip("파일 없음");
+        try (RunJournal journal = open(false)) {
+            journal.recordStatement(query, 0, lineages(query, "S", "T"));
+            journal.recordFile(failed);
+            journal.recordFile(missing);
+        }
+        try (RunJournal journal = open(true)) {
+            assertNull(journal.restoreFile(1, "err.sql"));
+            assertNull(journal.restoreFile(2, "missing.sql"));
+            // 오류로 끝난 파일도 분석이 끝난 쿼리는 다시 분석하지 않음
+            assertNotNull(journal.restoreStatement(query, 0));
+        }
+    }
+
+    @Test
+    public void laterRecordOverridesEarlierFailure() throws Exception {
+        FileResult failed = new FileResult(1, "a.sql");
+        failed.error("boom");
+        try (RunJournal journal = open(false)) {
+            journal.recordFile(failed);
+            journal.recordFile(succeeded("a.sql"));
+        }
+        try (RunJournal journal = open(true)) {
+            assertNotNull(journal.restoreFile(1, "a.sql"));
+        }
+    }
+
+    @Test
+    public void truncatedTailIsDroppedOnResume() throws Exception {
+        try (RunJournal journal = open(false)) {
+            journal.recordFile(succeeded("a.sql"));
+        }
+        long valid = file.length();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("F\tb.sql\tSUCCESS\t1".getBytes(StandardCharsets.UTF_8));
+        }
+        try (RunJournal journal = open(true)) {
+            assertEquals(valid, file.length());
+            assertNotNull(journal.restoreFile(1, "a.sql"));
+            assertNull(journal.restoreFile(2, "b.sql"));
+            journal.recordFile(succeeded("b.sql"));
+        }
+        try (RunJournal journal = open(true)) {
+            assertNotNull(journal.restoreFile(1, "a.sql"));
+            assertNotNull(journal.restoreFile(2, "b.sql"));
+        }
+    }
+
+    @Test
+    public void escapesSeparatorsInFields() throws Exception {
+        String path = "dir\twith\\tabs\nand lines.sql";
+        try (RunJournal journal = open(false)) {
+            journal.recordFile(succeeded(path));
+        }
+        try (RunJournal journal = open(true)) {
+            FileResult restored = journal.restoreFile(1, path);
+            assertNotNull(restored);
+            assertEquals(path, restored.getFilePath());
+        }
+    }
+
+    @Test
+    public void runWithoutResumeStartsOver() throws Exception {
+        try (RunJournal journal = open(false)) {
+            journal.recordFile(succeeded("a.sql"));
+        }
+        try (RunJournal journal = open(false)) {
+            assertNull(journal.restoreFile(1, "a.sql"));
+        }
+        try (RunJournal journal = open(true)) {
+            assertNull(journal.restoreFile(1, "a.sql"));
+        }
+    }
+}
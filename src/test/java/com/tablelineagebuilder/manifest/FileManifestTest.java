@@ -0,0 +1,140 @@
+package com.tablelineagebuilder.manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.tablelineagebuilder.config.Config;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File manifestFile;
+
+    @Before
+    public void setUp() {
+        manifestFile = new File(folder.getRoot(), "state/manifest.tsv");
+    }
+
+    private File script(String name, String content) throws Exception {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void record(FileManifest manifest, File file) throws Exception {
+        manifest.record(manifest.fingerprint(file.getPath()));
+    }
+
+    @Test
+    public void unchangedFileIsDetectedOnNextRun() throws Exception {
+        File same = script("same.sql", "INSERT INTO t SELECT * FROM s;");
+        File edited = script("edited.sql", "INSERT INTO t SELECT * FROM s;");
+        FileManifest first = FileManifest.open(manifestFile);
+        record(first, same);
+        record(first, edited);
+        first.close();
+
+        Files.write(edited.toPath(), "INSERT INTO t SELECT * FROM s2;".getBytes(StandardCharsets.UTF_8));
+        FileManifest second = FileManifest.open(manifestFile);
+        assertEquals(2, second.size());
+        assertTrue(second.isUnchanged(second.fingerprint(same.getPath())));
+        assertFalse(second.isUnchanged(second.fingerprint(edited.getPath())));
+    }
+
+    @Test
+    public void touchedFileKeepsRecordedHash() throws Exception {
+        File file = script("a.sql", "DELETE FROM t;");
+        FileManifest first = FileManifest.open(manifestFile);
+        record(first, file);
+        first.close();
+
+        assertTrue(file.setLastModified(file.lastModified() - 60000));
+        FileManifest second = FileManifest.open(manifestFile);
+        FileManifest.Fingerprint touched = second.fingerprint(file.getPath());
+        assertTrue(second.isUnchanged(touched));
+        second.close();
+
+        // 새 수정 시각이 기록되어 다음에는 해시하지 않고 기록된 지문을 그대로 씀
+        FileManifest third = FileManifest.open(manifestFile);
+        FileManifest.Fingerprint again = third.fingerprint(file.getPath());
+        assertSame(again, third.fingerprint(file.getPath()));
+        assertEquals(touched.getHash(), again.getHash());
+        assertTrue(third.isUnchanged(again));
+    }
+
+    @Test
+    public void recordsAreAppendedBeforeClose() throws Exception {
+        int records = Math.max(1, Config.getCheckpointSyncRecords());
+        FileManifest running = FileManifest.open(manifestFile);
+        for (int i = 0; i < records; i++) {
+            record(running, script("f" + i + ".sql", "UPDATE t SET a = " + i + ";"));
+        }
+        // 실행이 끝나지 않은 상태에서도 비운 기록은 다음 실행이 읽음
+        FileManifest next = FileManifest.open(manifestFile);
+        assertEquals(records, next.size());
+        running.close();
+    }
+
+    @Test
+    public void closeCompactsToLastRecordPerPath() throws Exception {
+        File file = script("a.sql", "DELETE FROM t;");
+        FileManifest manifest = FileManifest.open(manifestFile);
+        record(manifest, file);
+        Files.write(file.toPath(), "DELETE FROM u;".getBytes(StandardCharsets.UTF_8));
+        FileManifest.Fingerprint latest = manifest.fingerprint(file.getPath());
+        manifest.record(latest);
+        manifest.close();
+
+        List<String> lines = Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\t" + latest.getHash() + "\t" + file.getPath()));
+    }
+
+    @Test
+    public void brokenLinesAreIgnored() throws Exception {
+        File file = script("a.sql", "DELETE FROM t;");
+        FileManifest first = FileManifest.open(manifestFile);
+        record(first, file);
+        first.close();
+        List<String> lines = Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8);
+        Files.write(manifestFile.toPath(), Arrays.asList("garbage", "x\ty\tz\tb.sql", lines.get(0), "12\t34"),
+            StandardCharsets.UTF_8);
+
+        FileManifest second = FileManifest.open(manifestFile);
+        assertEquals(1, second.size());
+        assertTrue(second.isUnchanged(second.fingerprint(file.getPath())));
+    }
+
+    @Test
+    public void missingFileHasNoFingerprint() throws Exception {
+        FileManifest manifest = FileManifest.open(manifestFile);
+        assertNull(manifest.fingerprint(new File(folder.getRoot(), "missing.sql").getPath()));
+        assertFalse(manifest.isUnchanged(null));
+    }
+
+    @Test
+    public void disabledManifestRecordsNothing() throws Exception {
+        FileManifest manifest = FileManifest.open((File) null);
+        assertFalse(manifest.isEnabled());
+        FileManifest.Fingerprint fingerprint = manifest.fingerprint(script("a.sql", "DELETE FROM t;").getPath());
+        assertNotNull(fingerprint);
+        manifest.record(fingerprint);
+        manifest.close();
+        assertEquals(0, manifest.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.tablelineagebuilder.manifest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.tablelineagebuilder.model.TableLineage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StatementManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File segment;
+
+    @Before
+    public void setUp() {
+        segment = new File(folder.getRoot(), "state/statements.seg");
+    }
+
+    private static List<TableLineage> lineages(String... pairs) {
+        List<TableLineage> lineages = new ArrayList<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            lineages.add(new TableLineage(pairs[i], pairs[i + 1], "a.sql", "sql", "gpt-4"));
+        }
+        return lineages;
+    }
+
+    private static StatementManifest.Snapshot snapshot(String fingerprint, String... pairs) {
+        StatementManifest.Snapshot snapshot = new StatementManifest.Snapshot();
+        snapshot.add(fingerprint, lineages(pairs));
+        return snapshot;
+    }
+
+    @Test
+    public void recordsSurviveReopen() throws Exception {
+        StatementManifest.Snapshot written = new StatementManifest.Snapshot();
+        written.add("fp1", lineages("S1", "T", "S2", "T"));
+        written.add("fp2", Collections.<TableLineage>emptyList());
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            manifest.put("a.sql", written);
+            manifest.put("b.sql", snapshot("fp3", "X", "Y"));
+            manifest.put("a.sql", written);
+        }
+
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            StatementManifest.Snapshot read = manifest.get("a.sql");
+            assertNotNull(read);
+            assertEquals(2, read.get("fp1").size());
+            assertArrayEquals(new String[] {"S2", "T", "gpt-4"}, read.get("fp1").get(1));
+            assertTrue(read.get("fp2").isEmpty());
+            assertNull(read.get("fp3"));
+            assertArrayEquals(new String[] {"X", "Y", "gpt-4"}, manifest.get("b.sql").get("fp3").get(0));
+            assertNull(manifest.get("c.sql"));
+        }
+    }
+
+    @Test
+    public void laterRecordWins() throws Exception {
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            manifest.put("a.sql", snapshot("old", "S", "T"));
+            manifest.put("a.sql", snapshot("new", "S", "U"));
+            assertNull(manifest.get("a.sql").get("old"));
+        }
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            assertNull(manifest.get("a.sql").get("old"));
+            assertNotNull(manifest.get("a.sql").get("new"));
+        }
+    }
+
+    @Test
+    public void snapshotKeepsFirstResultPerFingerprint() {
+        StatementManifest.Snapshot snapshot = new StatementManifest.Snapshot();
+        snapshot.add("fp", lineages("S", "T"));
+        snapshot.add("fp", lineages("X", "Y"));
+        snapshot.add(null, lineages("N", "M"));
+        assertEquals(1, snapshot.get("fp").size());
+        assertEquals("S", snapshot.get("fp").get(0)[0]);
+    }
+
+    @Test
+    public void retiredPairsAreThoseNoLongerProduced() {
+        StatementManifest.Snapshot previous = new StatementManifest.Snapshot();
+        previous.add("fp1", lineages("A", "T", "B", "T"));
+        previous.add("fp2", lineages("B", "T", "C", "U"));
+        List<String[]> retired = previous.retiredBy(lineages("A", "T", "D", "T"));
+        assertEquals(2, retired.size());
+        assertArrayEquals(new String[] {"B", "T"}, retired.get(0));
+        assertArrayEquals(new String[] {"C", "U"}, retired.get(1));
+    }
+
+    @Test
+    public void truncatedTailIsDropped() throws Exception {
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            manifest.put("a.sql", snapshot("fp", "S", "T"));
+        }
+        long valid = segment.length();
+        try (FileOutputStream out = new FileOutputStream(segment, true)) {
+            out.write("b.sql\t1\tfp\t1\tS\tT".getBytes(StandardCharsets.UTF_8));
+        }
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            assertEquals(valid, segment.length());
+            assertNotNull(manifest.get("a.sql"));
+            assertNull(manifest.get("b.sql"));
+        }
+    }
+
+    @Test
+    public void pathsWithSeparatorsAreNotRecorded() throws Exception {
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            manifest.put("a\tb.sql", snapshot("fp", "S", "T"));
+            assertNull(manifest.get("a\tb.sql"));
+            assertEquals(0, segment.length());
+        }
+    }
+
+    @Test
+    public void rewrittenRecordsAreCompacted() throws Exception {
+        char[] longName = new char[100 * 1024];
+        Arrays.fill(longName, 'X');
+        String source = new String(longName);
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            for (int i = 0; i < 30; i++) {
+                manifest.put("a.sql", snapshot("fp" + i, source, "T"));
+            }
+            manifest.put("b.sql", snapshot("fp", "S", "T"));
+            // 압축하지 않았다면 30개 레코드가 모두 남음 (압축은 1MB를 넘고 살아 있는 레코드의 2배를 넘을 때)
+            assertTrue(segment.length() < 15L * longName.length);
+            assertNotNull(manifest.get("a.sql").get("fp29"));
+        }
+        try (StatementManifest manifest = StatementManifest.open(segment)) {
+            assertNotNull(manifest.get("a.sql").get("fp29"));
+            assertNotNull(manifest.get("b.sql").get("fp"));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class IdentifierIndexTest {
+
+    private static final String SQL =
+        "INSERT INTO dw.mmap_comm_cd_dtl (cd, nm)\n" +
+        "SELECT a.cd, b.nm FROM ods.src_cust a JOIN prod.dw.CUST_M b ON a.id = b.id\n" +
+        "LEFT JOIN \"Quoted Table\" q ON q.id = a.id, cust$hist h WHERE a.dt = '2024-01-01'";
+
+    /**
+     * 색인을 쓰기 전의 판정 (단어 경계, 또는 점 바로 뒤)
+     */
+    private static boolean regexContains(String sql, String name) {
+        String upperSql = sql.toUpperCase();
+        String quoted = Pattern.quote(name.toUpperCase());
+        return Pattern.compile("\\b" + quoted + "\\b").matcher(upperSql).find()
+            || Pattern.compile("\\." + quoted + "\\b").matcher(upperSql).find();
+    }
+
+    @Test
+    public void matchesWordBoundaryRegex() {
+        IdentifierIndex index = IdentifierIndex.of(SQL);
+        String[] names = {
+            "MMAP_COMM_CD_DTL", "mmap_comm_cd_dtl", "MMAP_COMM_CD_D", "DW.MMAP_COMM_CD_DTL", "MMAP_COMM",
+            "SRC_CUST", "ODS.SRC_CUST", "CUST_M", "DW.CUST_M", "PROD.DW.CUST_M", "PROD.CUST_M",
+            "CUST", "CUST$HIST", "HIST", "Quoted Table", "QUOTED", "2024", "NM", "A.CD", "MISSING", "DW."
+        };
+        for (String name : names) {
+            assertEquals(name, regexContains(SQL, name), index.contains(name));
+        }
+    }
+
+    @Test
+    public void prefixOfLongerNameDoesNotMatch() {
+        IdentifierIndex index = IdentifierIndex.of("INSERT INTO MMAP_COMM_CD_DTL SELECT * FROM SRC");
+        assertFalse(index.contains("MMAP_COMM_CD_D"));
+        assertTrue(index.contains("MMAP_COMM_CD_DTL"));
+    }
+
+    @Test
+    public void qualifiedNameMatchesItsSuffixes() {
+        IdentifierIndex index = IdentifierIndex.of("SELECT * FROM a.b.c.d.e");
+        assertTrue(index.contains("E"));
+        assertTrue(index.contains("D.E"));
+        assertTrue(index.contains("B.C.D.E"));
+        assertEquals(regexContains("SELECT * FROM a.b.c.d.e", "A.B.C.D.E"), index.contains("A.B.C.D.E"));
+        assertFalse(index.contains("A.C"));
+    }
+
+    @Test
+    public void nullInputsDoNotMatch() {
+        assertFalse(IdentifierIndex.of(null).contains("T"));
+        assertFalse(IdentifierIndex.of("SELECT 1").contains(null));
+    }
+}
@@ -0,0 +1,44 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class LocalLineageParserTest {
+
+    @Test
+    public void insertIntoTableSkipsTableKeyword() {
+        LocalLineageParser.Result result = LocalLineageParser.parse("INSERT INTO TABLE tgt SELECT * FROM src");
+        assertNotNull(result);
+        assertEquals(Collections.singletonList("TGT"), new ArrayList<>(result.getTargets()));
+        assertEquals(Collections.singletonList("SRC"), new ArrayList<>(result.getSources()));
+    }
+
+    @Test
+    public void createTableIfNotExistsSkipsClause() {
+        LocalLineageParser.Result result = LocalLineageParser.parse(
+            "CREATE TABLE IF NOT EXISTS dw.tgt AS SELECT a.id FROM src_a a JOIN src_b b ON a.id = b.id");
+        assertNotNull(result);
+        assertEquals(Collections.singletonList("TGT"), new ArrayList<>(result.getTargets()));
+        assertEquals(Arrays.asList("SRC_A", "SRC_B"), new ArrayList<>(result.getSources()));
+    }
+
+    @Test
+    public void variableSchemaIsLeftToLlm() {
+        assertNull(LocalLineageParser.parse("INSERT INTO tgt SELECT * FROM ${SCHEMA}.src"));
+        assertNull(LocalLineageParser.parse("INSERT INTO ${SCHEMA}.tgt SELECT * FROM src"));
+        assertNull(LocalLineageParser.parse("INSERT INTO tgt_${DT} SELECT * FROM src"));
+        assertNull(LocalLineageParser.parse("INSERT INTO tgt SELECT * FROM $SRC"));
+    }
+
+    @Test
+    public void keywordNameIsLeftToLlm() {
+        assertNull(LocalLineageParser.parse("INSERT INTO IF SELECT * FROM src"));
+        assertNull(LocalLineageParser.parse("CREATE TABLE IF NOT EXISTS AS SELECT * FROM src"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SqlCompressorTest {
+
+    @Test
+    public void stripsCommentsHintsAndExpressions() {
+        assertEquals("INSERT INTO dw.t SELECT * FROM src.s s JOIN src.u u ON 1=1 WHERE 1=1",
+            SqlCompressor.compress("INSERT /*+ append */ INTO dw.t (a, b)\n  SELECT s.a, -- c\n max(s.b)"
+                + " FROM src.s s JOIN src.u u ON s.id = u.id AND u.x = 'abc' WHERE s.d > 1 GROUP BY s.a ORDER BY 1"));
+    }
+
+    @Test
+    public void keepsSubqueriesInsideRegions() {
+        assertEquals("UPDATE t SET C=(SELECT * FROM s) WHERE EXISTS (SELECT * FROM k)",
+            SqlCompressor.compress("UPDATE t SET a = (SELECT max(a) FROM s), b = 2 WHERE id IN (SELECT id FROM k)"));
+        assertEquals("SELECT(SELECT * FROM s) FROM t LEFT JOIN u ON 1=1, v",
+            SqlCompressor.compress("SELECT CASE WHEN a IN (SELECT a FROM s) THEN 1 END FROM t LEFT JOIN u ON LEFT(t.a, 2) = u.a, v"));
+    }
+
+    @Test
+    public void keepsCteAndMergeStructure() {
+        assertEquals("WITH x AS(SELECT * FROM s WHERE 1=1) INSERT INTO t SELECT * FROM x",
+            SqlCompressor.compress("WITH x AS (SELECT a, b FROM s WHERE c = 1) INSERT INTO t SELECT * FROM x"));
+        assertEquals("MERGE INTO t USING(SELECT * FROM s WHERE 1=1) s ON 1=1 WHEN MATCHED THEN UPDATE SET C=NULL"
+                + " WHEN NOT MATCHED THEN INSERT VALUES(NULL)",
+            SqlCompressor.compress("MERGE INTO t USING (SELECT * FROM s WHERE x = 1) s ON (t.id = s.id)"
+                + " WHEN MATCHED THEN UPDATE SET t.a = s.a WHEN NOT MATCHED THEN INSERT (id, a) VALUES (s.id, s.a)"));
+    }
+
+    @Test
+    public void valuesKeepOnlySubqueries() {
+        assertEquals("INSERT INTO t VALUES(NULL)", SqlCompressor.compress("INSERT INTO t VALUES (1, 'a', sysdate)"));
+        String compressed = SqlCompressor.compress("INSERT INTO t VALUES ((SELECT max(id) FROM s), 'x')");
+        assertTrue(compressed, compressed.contains("(SELECT * FROM s)"));
+        assertFalse(compressed, compressed.contains("max"));
+    }
+
+    @Test
+    public void dynamicSqlStringsAreKept() {
+        assertEquals("EXECUTE IMMEDIATE 'INSERT INTO t SELECT * FROM s'",
+            SqlCompressor.compress("EXECUTE IMMEDIATE 'INSERT INTO t SELECT * FROM s'"));
+        assertEquals("INSERT INTO t SELECT * FROM s WHERE 1=1",
+            SqlCompressor.compress("INSERT INTO t SELECT 'label' FROM s WHERE name = 'from here'"));
+    }
+}
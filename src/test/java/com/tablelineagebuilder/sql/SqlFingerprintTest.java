@@ -0,0 +1,36 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class SqlFingerprintTest {
+
+    @Test
+    public void variableValuesCollapse() {
+        assertEquals(
+            SqlFingerprint.of("INSERT INTO tgt SELECT * FROM src WHERE dt = '${BATCH_DT}' AND seq = $SEQ"),
+            SqlFingerprint.of("insert into TGT\n  select * from SRC where DT = '20240101' and SEQ = ${OTHER}"));
+    }
+
+    @Test
+    public void variableTableNamesStayDistinct() {
+        assertNotEquals(
+            SqlFingerprint.of("INSERT INTO ${TGT_A} SELECT * FROM src"),
+            SqlFingerprint.of("INSERT INTO ${TGT_B} SELECT * FROM src"));
+        assertNotEquals(
+            SqlFingerprint.of("INSERT INTO tgt SELECT * FROM ${SCHEMA_A}.src a JOIN ${SCHEMA_A}.dim d ON a.id = d.id"),
+            SqlFingerprint.of("INSERT INTO tgt SELECT * FROM ${SCHEMA_A}.src a JOIN ${SCHEMA_B}.dim d ON a.id = d.id"));
+        assertNotEquals(
+            SqlFingerprint.of("INSERT INTO TABLE ${TGT_A} SELECT * FROM src"),
+            SqlFingerprint.of("INSERT INTO TABLE ${TGT_B} SELECT * FROM src"));
+    }
+
+    @Test
+    public void sameVariableTableNameMatches() {
+        assertEquals(
+            SqlFingerprint.of("INSERT INTO ${TGT} SELECT * FROM src WHERE dt = '${DT}'"),
+            SqlFingerprint.of("insert into ${TGT}\nselect * from src where dt = '20240102'"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SqlStatementLexerTest {
+
+    private static List<String> lex(String script) {
+        List<String> statements = new ArrayList<>();
+        SqlStatementLexer lexer = new SqlStatementLexer(statement -> statements.add(statement.toString()));
+        char[] chars = script.toCharArray();
+        lexer.feed(chars, 0, chars.length);
+        lexer.finish();
+        return statements;
+    }
+
+    private static List<CharSequence> lexSlices(String script, int chunkSize) {
+        List<CharSequence> statements = new ArrayList<>();
+        SqlStatementLexer lexer = new SqlStatementLexer(statements::add, true);
+        char[] chars = script.toCharArray();
+        for (int offset = 0; offset < chars.length; offset += chunkSize) {
+            lexer.feed(chars, offset, Math.min(chunkSize, chars.length - offset));
+        }
+        lexer.finish();
+        return statements;
+    }
+
+    private static String lines(String... lines) {
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    @Test
+    public void splitsStatementsAndDropsComments() {
+        List<String> statements = lex("-- header\nINSERT INTO t /* note */ SELECT * FROM s;\necho done\nDELETE FROM t;\n");
+        assertEquals(2, statements.size());
+        assertEquals("INSERT INTO t  SELECT * FROM s;", statements.get(0));
+        assertEquals("DELETE FROM t;", statements.get(1));
+    }
+
+    @Test
+    public void keepsSemicolonAndCommentMarkersInsideQuotes() {
+        List<String> statements = lex("INSERT INTO t SELECT 'a;b -- c' FROM s;\n");
+        assertEquals(1, statements.size());
+        assertEquals("INSERT INTO t SELECT 'a;b -- c' FROM s;", statements.get(0));
+    }
+
+    @Test
+    public void keepsMultiLineString() {
+        List<String> statements = lex("INSERT INTO t SELECT 'line one\nline two' FROM s;\nDELETE FROM t;\n");
+        assertEquals(2, statements.size());
+        assertEquals("INSERT INTO t SELECT 'line one\nline two' FROM s;", statements.get(0));
+    }
+
+    @Test
+    public void unmatchedQuoteEndsAtSemicolonLine() {
+        List<String> statements = lex("INSERT INTO t SELECT 'oops FROM s;\nDELETE FROM t;\nUPDATE u SET x = 1;\n");
+        assertEquals(3, statements.size());
+        assertEquals("INSERT INTO t SELECT 'oops FROM s;", statements.get(0));
+        assertEquals("DELETE FROM t;", statements.get(1));
+        assertEquals("UPDATE u SET x = 1;", statements.get(2));
+    }
+
+    @Test
+    public void unmatchedQuoteEndsAtBlankLine() {
+        List<String> statements = lex("INSERT INTO t SELECT 'oops\nFROM s\n\nDELETE FROM t;\n");
+        assertEquals(2, statements.size());
+        assertEquals("INSERT INTO t SELECT 'oops\nFROM s", statements.get(0));
+        assertEquals("DELETE FROM t;", statements.get(1));
+    }
+
+    @Test
+    public void unmatchedQuoteOnShellLineIsDropped() {
+        List<String> statements = lex("echo it's done\nDELETE FROM t;\n");
+        assertEquals(1, statements.size());
+        assertEquals("DELETE FROM t;", statements.get(0));
+    }
+
+    @Test
+    public void joinsStatementLinesWithLineSeparator() {
+        List<String> statements = lex("INSERT INTO t\n\nSELECT *\nFROM s;");
+        assertEquals(1, statements.size());
+        assertEquals(lines("INSERT INTO t", "SELECT *", "FROM s;"), statements.get(0));
+    }
+
+    @Test
+    public void slicesMatchStringStatements() {
+        String script = "INSERT INTO t SELECT 'a;b' FROM s; -- tail\n/* c */ DELETE FROM t WHERE x = 1;\nUPDATE u SET y = 2";
+        List<String> expected = lex(script);
+        List<CharSequence> slices = lexSlices(script, 7);
+        assertEquals(expected.size(), slices.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(slices.get(i) instanceof StatementSlice);
+            assertEquals(expected.get(i), slices.get(i).toString());
+        }
+    }
+
+    @Test
+    public void slicesSpanSeveralBlocks() {
+        StringBuilder script = new StringBuilder();
+        StringBuilder longSource = new StringBuilder("src");
+        for (int i = 0; i < 100000; i++) {
+            longSource.append('x');
+        }
+        for (int i = 0; i < 5; i++) {
+            script.append("INSERT INTO t").append(i).append(" SELECT * FROM ").append(longSource).append(";\n");
+        }
+        List<CharSequence> slices = lexSlices(script.toString(), 4096);
+        assertEquals(5, slices.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("INSERT INTO t" + i + " SELECT * FROM " + longSource + ";", slices.get(i).toString());
+        }
+    }
+
+    @Test
+    public void sliceSubSequenceAndCharAt() {
+        CharSequence slice = lexSlices("DELETE FROM t; DROP TABLE x;", 64).get(1);
+        assertEquals("DROP TABLE x;", slice.toString());
+        assertEquals('D', slice.charAt(0));
+        assertEquals("TABLE", slice.subSequence(5, 10).toString());
+        assertEquals("TABLE", slice.subSequence(5, 10).subSequence(0, 5).toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sliceRejectsOutOfRangeIndex() {
+        lexSlices("DELETE FROM t;", 64).get(0).charAt(14);
+    }
+}
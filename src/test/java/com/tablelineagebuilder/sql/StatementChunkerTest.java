@@ -0,0 +1,46 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StatementChunkerTest {
+
+    private static String union(String head, int branches) {
+        StringBuilder sql = new StringBuilder(head);
+        for (int i = 0; i < branches; i++) {
+            if (i > 0) {
+                sql.append("\nUNION ALL\n");
+            }
+            sql.append("SELECT id, name, amount FROM src_").append(i).append(" WHERE amount > ").append(i);
+        }
+        return sql.toString();
+    }
+
+    @Test
+    public void createTableIfNotExistsKeepsRealTarget() {
+        StatementChunker.Chunks chunks = StatementChunker.split(union("CREATE TABLE IF NOT EXISTS dw.tgt AS ", 10), 200);
+        assertNotNull(chunks);
+        assertTrue(chunks.getChunks().size() > 1);
+        for (String chunk : chunks.getChunks()) {
+            assertTrue(chunk, chunk.startsWith("INSERT INTO dw.tgt"));
+        }
+    }
+
+    @Test
+    public void insertIntoTableKeepsRealTarget() {
+        StatementChunker.Chunks chunks = StatementChunker.split(union("INSERT INTO TABLE tgt ", 10), 200);
+        assertNotNull(chunks);
+        for (String chunk : chunks.getChunks()) {
+            assertTrue(chunk, chunk.startsWith("INSERT INTO tgt"));
+        }
+    }
+
+    @Test
+    public void keywordOrVariableTargetIsNotSplit() {
+        assertNull(StatementChunker.split(union("CREATE TABLE IF NOT EXISTS AS ", 10), 200));
+        assertNull(StatementChunker.split(union("INSERT INTO ${SCHEMA}.tgt ", 10), 200));
+    }
+}
@@ -0,0 +1,60 @@
+package com.tablelineagebuilder.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.tablelineagebuilder.sql.StatementClassifier.SkipReason;
+import org.junit.Test;
+
+public class StatementClassifierTest {
+
+    @Test
+    public void analyzesDml() {
+        assertNull(StatementClassifier.classify("INSERT INTO t SELECT * FROM s"));
+        assertNull(StatementClassifier.classify("insert /*+ append */ into t (a) select a from s"));
+        assertNull(StatementClassifier.classify("UPDATE t SET a = (SELECT max(a) FROM s)"));
+        assertNull(StatementClassifier.classify("MERGE INTO t USING s ON (t.id = s.id) WHEN MATCHED THEN UPDATE SET a = 1"));
+        assertNull(StatementClassifier.classify("WITH x AS (SELECT * FROM s) INSERT INTO t SELECT * FROM x"));
+    }
+
+    @Test
+    public void analyzesCreateAsSelect() {
+        assertNull(StatementClassifier.classify("CREATE TABLE t AS SELECT * FROM s"));
+        assertNull(StatementClassifier.classify("CREATE OR REPLACE VIEW v AS (SELECT * FROM s)"));
+        assertNull(StatementClassifier.classify("CREATE TABLE t AS WITH x AS (SELECT 1 FROM s) SELECT * FROM x"));
+    }
+
+    @Test
+    public void insertWithSubqueryInValuesIsAnalyzed() {
+        assertNull(StatementClassifier.classify("INSERT INTO t VALUES ((SELECT max(id) FROM s), 1)"));
+    }
+
+    @Test
+    public void skipsStatementsWithoutLineage() {
+        assertEquals(SkipReason.VALUES_ONLY, StatementClassifier.classify("INSERT INTO t (a, b) VALUES (1, 'SELECT')"));
+        assertEquals(SkipReason.SELECT_ONLY, StatementClassifier.classify("SELECT * FROM t"));
+        assertEquals(SkipReason.SELECT_ONLY, StatementClassifier.classify("WITH x AS (SELECT 1) SELECT * FROM x"));
+        assertEquals(SkipReason.DELETE, StatementClassifier.classify("DELETE FROM t WHERE id IN (SELECT id FROM s)"));
+        assertEquals(SkipReason.DDL, StatementClassifier.classify("CREATE TABLE t (a INT, b VARCHAR(10) DEFAULT 'AS')"));
+        assertEquals(SkipReason.DDL, StatementClassifier.classify("CREATE INDEX ix ON t (a)"));
+        assertEquals(SkipReason.DDL, StatementClassifier.classify("ALTER TABLE t ADD c INT"));
+        assertEquals(SkipReason.DDL, StatementClassifier.classify("DROP TABLE t"));
+        assertEquals(SkipReason.DDL, StatementClassifier.classify("TRUNCATE TABLE t"));
+        assertEquals(SkipReason.OTHER, StatementClassifier.classify("SET hive.exec.dynamic.partition = true"));
+        assertEquals(SkipReason.OTHER, StatementClassifier.classify("GRANT SELECT ON t TO u"));
+        assertEquals(SkipReason.OTHER, StatementClassifier.classify("WITH x AS (SELECT 1)"));
+    }
+
+    @Test
+    public void emptyStatements() {
+        assertEquals(SkipReason.EMPTY, StatementClassifier.classify(null));
+        assertEquals(SkipReason.EMPTY, StatementClassifier.classify(""));
+        assertEquals(SkipReason.EMPTY, StatementClassifier.classify("  -- only a comment\n/* and another */ "));
+    }
+
+    @Test
+    public void ignoresKeywordsInCommentsAndStrings() {
+        assertEquals(SkipReason.SELECT_ONLY, StatementClassifier.classify("/* INSERT INTO t */ SELECT 'UPDATE t' FROM s"));
+        assertEquals(SkipReason.OTHER, StatementClassifier.classify("-- INSERT INTO t\nCALL proc('INSERT')"));
+    }
+}